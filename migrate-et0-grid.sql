@@ -0,0 +1,6 @@
+-- Clear et0_observations after moving NASA POWER cells onto the MERRA-2 grid points
+-- Rows stored before the change are keyed on the old edge-aligned grid_row/grid_col, so they
+-- would be read back for the wrong cells. They are a cache of regional lookups and are
+-- fetched again on the next run. Safe to run again.
+
+DELETE FROM et0_observations;
@@ -0,0 +1,30 @@
+-- Switch irrigation_recommendations, alert_logs and et0_observations from IDENTITY ids to pooled sequences
+-- Run when deploying sequence-based ids, with every application instance stopped. A running
+-- instance may hold a block of ids it has not inserted yet, and instances of the old version
+-- still take ids from the identity columns.
+-- The application allocates ids in blocks of 100, so each sequence must step by 100 and
+-- start past the ids already in use. A sequence is never moved back, so running the script
+-- again (application stopped) is safe.
+
+CREATE SEQUENCE IF NOT EXISTS irrigation_recommendations_seq INCREMENT BY 100;
+ALTER SEQUENCE irrigation_recommendations_seq INCREMENT BY 100;
+SELECT setval('irrigation_recommendations_seq',
+              GREATEST((SELECT last_value FROM irrigation_recommendations_seq),
+                       (SELECT COALESCE(MAX(id), 0) FROM irrigation_recommendations)) + 100, false);
+
+CREATE SEQUENCE IF NOT EXISTS alert_logs_seq INCREMENT BY 100;
+ALTER SEQUENCE alert_logs_seq INCREMENT BY 100;
+SELECT setval('alert_logs_seq',
+              GREATEST((SELECT last_value FROM alert_logs_seq),
+                       (SELECT COALESCE(MAX(id), 0) FROM alert_logs)) + 100, false);
+
+CREATE SEQUENCE IF NOT EXISTS et0_observations_seq INCREMENT BY 100;
+ALTER SEQUENCE et0_observations_seq INCREMENT BY 100;
+SELECT setval('et0_observations_seq',
+              GREATEST((SELECT last_value FROM et0_observations_seq),
+                       (SELECT COALESCE(MAX(id), 0) FROM et0_observations)) + 100, false);
+
+-- Verify: the next block must start above the current maximum id
+SELECT last_value, (SELECT MAX(id) FROM irrigation_recommendations) AS max_id FROM irrigation_recommendations_seq;
+SELECT last_value, (SELECT MAX(id) FROM alert_logs) AS max_id FROM alert_logs_seq;
+SELECT last_value, (SELECT MAX(id) FROM et0_observations) AS max_id FROM et0_observations_seq;
@@ -0,0 +1,55 @@
+package com.hackathon.agriculture_backend.config;
+
+import com.hackathon.agriculture_backend.util.CircuitBreaker;
+import com.hackathon.agriculture_backend.util.LatencyTracker;
+import com.hackathon.agriculture_backend.util.UpstreamGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker, timeout and hedging settings per upstream, read from app.resilience.{name}.*
+ */
+@Configuration
+public class ResilienceConfig {
+    
+    @Bean
+    public UpstreamGuard openWeatherGuard(Environment environment, MeterRegistry meterRegistry) {
+        return guard("openweather", environment, meterRegistry);
+    }
+    
+    @Bean
+    public UpstreamGuard nasaPowerGuard(Environment environment, MeterRegistry meterRegistry) {
+        return guard("nasa", environment, meterRegistry);
+    }
+    
+    // Regional tiles are far slower than point requests; a shared guard would hedge them at point
+    // latency and let them trip the breaker that the point fallback depends on
+    @Bean
+    public UpstreamGuard nasaPowerRegionalGuard(Environment environment, MeterRegistry meterRegistry) {
+        return guard("nasa-regional", environment, meterRegistry);
+    }
+    
+    private UpstreamGuard guard(String name, Environment environment, MeterRegistry meterRegistry) {
+        String prefix = "app.resilience." + name + ".";
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+                environment.getProperty(prefix + "window-size", Integer.class, 20),
+                environment.getProperty(prefix + "minimum-calls", Integer.class, 10),
+                environment.getProperty(prefix + "failure-rate-threshold", Double.class, 50.0),
+                environment.getProperty(prefix + "slow-call-rate-threshold", Double.class, 50.0),
+                environment.getProperty(prefix + "slow-call-duration", Duration.class, Duration.ofSeconds(5)),
+                environment.getProperty(prefix + "open-duration", Duration.class, Duration.ofSeconds(30)),
+                environment.getProperty(prefix + "half-open-calls", Integer.class, 3));
+        LatencyTracker latencyTracker = new LatencyTracker(
+                environment.getProperty(prefix + "latency-window", Integer.class, 200),
+                environment.getProperty(prefix + "hedge-minimum-samples", Integer.class, 20),
+                environment.getProperty(prefix + "hedge-percentile", Double.class, 0.95));
+        return new UpstreamGuard(name, circuitBreaker, latencyTracker,
+                environment.getProperty(prefix + "timeout", Duration.class, Duration.ofSeconds(8)),
+                environment.getProperty(prefix + "hedging-enabled", Boolean.class, true),
+                meterRegistry);
+    }
+}
@@ -1,18 +1,91 @@
 package com.hackathon.agriculture_backend.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
     
+    @Value("${app.http.client.max-connections:50}")
+    private int maxConnections;
+    
+    @Value("${app.http.client.pending-acquire-max-count:500}")
+    private int pendingAcquireMaxCount;
+    
+    @Value("${app.http.client.pending-acquire-timeout:10s}")
+    private Duration pendingAcquireTimeout;
+    
+    @Value("${app.http.client.max-idle-time:60s}")
+    private Duration maxIdleTime;
+    
+    @Value("${app.http.client.max-life-time:10m}")
+    private Duration maxLifeTime;
+    
+    @Value("${app.http.client.evict-interval:30s}")
+    private Duration evictInterval;
+    
+    @Value("${app.http.client.connect-timeout:5s}")
+    private Duration connectTimeout;
+    
+    @Value("${app.weather.api.timeout:30s}")
+    private Duration weatherResponseTimeout;
+    
+    @Value("${app.nasa.api.timeout:30s}")
+    private Duration nasaResponseTimeout;
+    
     @Bean
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder()
                 .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024)); // 1MB buffer
     }
+    
+    /**
+     * Shared connection pool for external APIs so TLS handshakes are amortized across requests.
+     * Pool gauges are published as reactor.netty.connection.provider.* metrics.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider externalApiConnectionProvider() {
+        return ConnectionProvider.builder("external-apis")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInterval)
+                .metrics(true)
+                .build();
+    }
+    
+    @Bean
+    public WebClient openWeatherWebClient(WebClient.Builder webClientBuilder,
+                                          @Qualifier("externalApiConnectionProvider") ConnectionProvider connectionProvider) {
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient(connectionProvider, weatherResponseTimeout)))
+                .build();
+    }
+    
+    @Bean
+    public WebClient nasaPowerWebClient(WebClient.Builder webClientBuilder,
+                                        @Qualifier("externalApiConnectionProvider") ConnectionProvider connectionProvider) {
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient(connectionProvider, nasaResponseTimeout)))
+                .build();
+    }
+    
+    private HttpClient httpClient(ConnectionProvider connectionProvider, Duration responseTimeout) {
+        return HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(responseTimeout);
+    }
 }
-
-
-
@@ -2,10 +2,16 @@ package com.hackathon.agriculture_backend.controller;
 
 import com.hackathon.agriculture_backend.dto.AdminMetricsDto;
 import com.hackathon.agriculture_backend.dto.ApiResponse;
+import com.hackathon.agriculture_backend.dto.RecommendationReplayReportDto;
+import com.hackathon.agriculture_backend.dto.RecommendationReplayRequestDto;
 import com.hackathon.agriculture_backend.dto.WaterSavingsDto;
 import com.hackathon.agriculture_backend.service.FarmerService;
+import com.hackathon.agriculture_backend.service.RecommendationReplayService;
+import com.hackathon.agriculture_backend.service.ScoringRuleTable;
+import com.hackathon.agriculture_backend.service.SoilWaterBalanceService;
 import com.hackathon.agriculture_backend.repository.IrrigationRecommendationRepository;
 import com.hackathon.agriculture_backend.repository.AlertLogRepository;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -26,6 +32,9 @@ public class AdminController {
     private final FarmerService farmerService;
     private final IrrigationRecommendationRepository recommendationRepository;
     private final AlertLogRepository alertLogRepository;
+    private final ScoringRuleTable scoringRuleTable;
+    private final RecommendationReplayService replayService;
+    private final SoilWaterBalanceService soilWaterBalanceService;
     
     @GetMapping("/metrics")
     @PreAuthorize("hasRole('ADMIN')")
@@ -188,4 +197,111 @@ public class AdminController {
                     .body(ApiResponse.error("Failed to fetch SMS opt-in count: " + e.getMessage()));
         }
     }
+    
+    @GetMapping("/scoring-rules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getScoringRules() {
+        return ResponseEntity.ok(ApiResponse.success(Map.of(
+                "version", scoringRuleTable.getVersion(),
+                "loadedAt", scoringRuleTable.getLoadedAt().toString())));
+    }
+    
+    @PostMapping("/scoring-rules/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> reloadScoringRules() {
+        log.info("Reloading scoring rule table");
+        
+        try {
+            Long version = scoringRuleTable.reload();
+            return ResponseEntity.ok(ApiResponse.success("Scoring rule table version " + version + " is active", version));
+            
+        } catch (Exception e) {
+            log.error("Error reloading scoring rule table", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to reload scoring rules: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/replays")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<RecommendationReplayReportDto>> startReplay(
+            @Valid @RequestBody RecommendationReplayRequestDto request) {
+        log.info("Starting {} replay of recommendations from {} to {}", request.getMode(), request.getFromDate(), request.getToDate());
+        
+        try {
+            RecommendationReplayReportDto report = replayService.start(request);
+            return ResponseEntity.accepted().body(ApiResponse.success("Replay started", report));
+            
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error starting replay", e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to start replay: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/replays/{jobId}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<RecommendationReplayReportDto>> resumeReplay(@PathVariable Long jobId) {
+        log.info("Resuming replay {}", jobId);
+        
+        try {
+            RecommendationReplayReportDto report = replayService.resume(jobId);
+            return ResponseEntity.accepted().body(ApiResponse.success("Replay resumed", report));
+            
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error resuming replay {}", jobId, e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to resume replay: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/replays/{jobId}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> cancelReplay(@PathVariable Long jobId) {
+        log.info("Cancelling replay {}", jobId);
+        
+        try {
+            replayService.cancel(jobId);
+            return ResponseEntity.ok(ApiResponse.success("Replay will stop after the current page", null));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/replays/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<RecommendationReplayReportDto>> getReplay(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(replayService.getReport(jobId)));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Run the nightly soil water balance update now, e.g. after a missed run. States already at
+     * the date are left as they are.
+     */
+    @PostMapping("/soil-water/update")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<SoilWaterBalanceService.Summary>> updateSoilWater(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        log.info("Updating soil water balances to {}", day);
+        
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Soil water balances updated", soilWaterBalanceService.advance(day)));
+            
+        } catch (Exception e) {
+            log.error("Error updating soil water balances", e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to update soil water balances: " + e.getMessage()));
+        }
+    }
 }
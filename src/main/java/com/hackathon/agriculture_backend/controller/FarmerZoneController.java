@@ -2,7 +2,9 @@ package com.hackathon.agriculture_backend.controller;
 
 import com.hackathon.agriculture_backend.dto.ApiResponse;
 import com.hackathon.agriculture_backend.dto.FarmerZoneDto;
+import com.hackathon.agriculture_backend.dto.SoilWaterStateDto;
 import com.hackathon.agriculture_backend.service.FarmerZoneService;
+import com.hackathon.agriculture_backend.service.SoilWaterBalanceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +19,7 @@ import java.util.List;
 public class FarmerZoneController {
     
     private final FarmerZoneService farmerZoneService;
+    private final SoilWaterBalanceService soilWaterBalanceService;
     
     @GetMapping("/farmer/{farmerId}")
     public ResponseEntity<ApiResponse<List<FarmerZoneDto>>> getZonesByFarmerId(@PathVariable Long farmerId) {
@@ -86,5 +89,41 @@ public class FarmerZoneController {
             return ResponseEntity.status(500).body(ApiResponse.error("Failed to retrieve zone: " + e.getMessage()));
         }
     }
+    
+    /**
+     * The zone's root zone water balance as of the last nightly update.
+     */
+    @GetMapping("/{zoneId}/farmer/{farmerId}/soil-water")
+    public ResponseEntity<ApiResponse<SoilWaterStateDto>> getSoilWater(
+            @PathVariable Long zoneId,
+            @PathVariable Long farmerId) {
+        log.info("Getting soil water balance of zone ID: {} for farmer ID: {}", zoneId, farmerId);
+        try {
+            SoilWaterStateDto state = soilWaterBalanceService.getZoneState(farmerId, zoneId);
+            return ResponseEntity.ok(ApiResponse.success("Soil water balance retrieved successfully", state));
+        } catch (Exception e) {
+            log.error("Error getting soil water balance of zone ID {}: {}", zoneId, e.getMessage());
+            return ResponseEntity.status(500).body(ApiResponse.error("Failed to retrieve soil water balance: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Record irrigation applied to the zone (mm reaching the root zone); counted by the next nightly update.
+     */
+    @PostMapping("/{zoneId}/farmer/{farmerId}/soil-water/irrigation")
+    public ResponseEntity<ApiResponse<SoilWaterStateDto>> recordIrrigation(
+            @PathVariable Long zoneId,
+            @PathVariable Long farmerId,
+            @RequestParam Double appliedMm) {
+        log.info("Recording {} mm of irrigation on zone ID: {} for farmer ID: {}", appliedMm, zoneId, farmerId);
+        try {
+            SoilWaterStateDto state = soilWaterBalanceService.recordZoneIrrigation(farmerId, zoneId, appliedMm);
+            return ResponseEntity.ok(ApiResponse.success("Irrigation recorded successfully", state));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error recording irrigation on zone ID {}: {}", zoneId, e.getMessage());
+            return ResponseEntity.status(500).body(ApiResponse.error("Failed to record irrigation: " + e.getMessage()));
+        }
+    }
 }
-
@@ -1,14 +1,22 @@
 package com.hackathon.agriculture_backend.controller;
 
 import com.hackathon.agriculture_backend.dto.ApiResponse;
+import com.hackathon.agriculture_backend.dto.BatchRecommendationItemDto;
+import com.hackathon.agriculture_backend.dto.BatchRecommendationRequestDto;
 import com.hackathon.agriculture_backend.dto.RecommendationRequestDto;
 import com.hackathon.agriculture_backend.dto.RecommendationResponseDto;
+import com.hackathon.agriculture_backend.service.BatchRecommendationService;
 import com.hackathon.agriculture_backend.service.RecommendationService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,6 +26,7 @@ import java.util.List;
 public class RecommendationController {
     
     private final RecommendationService recommendationService;
+    private final BatchRecommendationService batchRecommendationService;
     
     @PostMapping("/generate")
     public ResponseEntity<ApiResponse<List<RecommendationResponseDto>>> generateRecommendations(
@@ -36,19 +45,31 @@ public class RecommendationController {
         }
     }
     
+    /**
+     * A farmer's recommendations, newest first: the farm-level rows and, unless zoneId narrows it
+     * to one zone, every zone's rows. For the next page pass the date and id of the last row as
+     * beforeDate and beforeId.
+     */
     @GetMapping("/farmer/{farmerId}")
     public ResponseEntity<ApiResponse<List<RecommendationResponseDto>>> getFarmerRecommendations(
             @PathVariable Long farmerId,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String zoneId) {
+            @RequestParam(required = false) Long zoneId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate beforeDate,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
         
         log.info("Fetching recommendations for farmer ID: {}, category: {}, zone: {}", 
                 farmerId, category, zoneId);
         
         try {
             List<RecommendationResponseDto> recommendations = recommendationService.getFarmerRecommendations(
-                    farmerId, category, zoneId);
+                    farmerId, category, zoneId, fromDate, toDate, beforeDate, beforeId, limit);
             return ResponseEntity.ok(ApiResponse.success(recommendations));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching farmer recommendations: {}", e.getMessage());
             return ResponseEntity.status(500)
@@ -56,22 +77,40 @@ public class RecommendationController {
         }
     }
     
+    /**
+     * A zone's recommendations, newest first, paged like the farmer history.
+     */
     @GetMapping("/zone/{zoneId}")
     public ResponseEntity<ApiResponse<List<RecommendationResponseDto>>> getZoneRecommendations(
             @PathVariable Long zoneId,
-            @RequestParam(required = false) String category) {
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate beforeDate,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
         
         log.info("Fetching recommendations for zone ID: {}, category: {}", zoneId, category);
         
         try {
             List<RecommendationResponseDto> recommendations = recommendationService.getZoneRecommendations(
-                    zoneId, category);
+                    zoneId, category, fromDate, toDate, beforeDate, beforeId, limit);
             return ResponseEntity.ok(ApiResponse.success(recommendations));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching zone recommendations: {}", e.getMessage());
             return ResponseEntity.status(500)
                     .body(ApiResponse.error("Failed to fetch zone recommendations: " + e.getMessage()));
         }
     }
+    
+    /**
+     * Score many farmers, zones or raw weather scenarios at once. Results are streamed as
+     * newline-delimited JSON in completion order; failed items carry an error field.
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchRecommendationItemDto> scoreBatch(@Valid @RequestBody BatchRecommendationRequestDto request) {
+        return batchRecommendationService.score(request);
+    }
 }
-
@@ -3,12 +3,20 @@ package com.hackathon.agriculture_backend.controller;
 import com.hackathon.agriculture_backend.dto.ApiResponse;
 import com.hackathon.agriculture_backend.dto.IrrigationPlanDto;
 import com.hackathon.agriculture_backend.dto.SavedIrrigationPlanDto;
+import com.hackathon.agriculture_backend.dto.SeasonSimulationDto;
+import com.hackathon.agriculture_backend.dto.SeasonSimulationRequestDto;
+import com.hackathon.agriculture_backend.dto.SoilWaterStateDto;
 import com.hackathon.agriculture_backend.service.SmartIrrigationService;
 import com.hackathon.agriculture_backend.service.SavedIrrigationPlanService;
+import com.hackathon.agriculture_backend.service.SeasonSimulationService;
+import com.hackathon.agriculture_backend.service.SoilWaterBalanceService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -20,67 +28,88 @@ public class SmartIrrigationController {
     
     private final SmartIrrigationService smartIrrigationService;
     private final SavedIrrigationPlanService savedIrrigationPlanService;
+    private final SoilWaterBalanceService soilWaterBalanceService;
+    private final SeasonSimulationService seasonSimulationService;
     
+    /**
+     * Plans are shared per weather cell until its forecast changes; Age and X-Plan-Cache
+     * report how old the plan is and whether it came from the cache.
+     */
     @PostMapping("/generate-plan")
-    public ResponseEntity<ApiResponse<IrrigationPlanDto>> generateIrrigationPlan(
+    public Mono<ResponseEntity<ApiResponse<IrrigationPlanDto>>> generateIrrigationPlan(
             @RequestBody IrrigationPlanRequest request) {
         
         log.info("Generating irrigation plan for location: {}, {} with crop: {}", 
                 request.getLatitude(), request.getLongitude(), request.getCropType());
         
-        try {
-            IrrigationPlanDto plan = smartIrrigationService.generateIrrigationPlan(
-                    request.getLatitude(),
-                    request.getLongitude(),
-                    request.getCropType(),
-                    request.getArea(),
-                    request.getIrrigationType(),
-                    request.getSoilType()
-            );
-            
-            return ResponseEntity.ok(ApiResponse.success("Irrigation plan generated successfully", plan));
-            
-        } catch (Exception e) {
-            log.error("Error generating irrigation plan: {}", e.getMessage());
-            return ResponseEntity.status(500)
-                    .body(ApiResponse.error("Failed to generate irrigation plan: " + e.getMessage()));
-        }
+        return smartIrrigationService.getIrrigationPlanAsync(
+                        request.getLatitude(),
+                        request.getLongitude(),
+                        request.getCropType(),
+                        request.getArea(),
+                        request.getIrrigationType(),
+                        request.getSoilType()
+                )
+                .map(cached -> ResponseEntity.ok()
+                        .header(HttpHeaders.AGE, String.valueOf(cached.getAgeSeconds()))
+                        .header("X-Plan-Cache", cached.hit() ? "HIT" : "MISS")
+                        .body(ApiResponse.success("Irrigation plan generated successfully", cached.plan())))
+                .onErrorResume(e -> {
+                    log.error("Error generating irrigation plan: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(500)
+                            .body(ApiResponse.error("Failed to generate irrigation plan: " + e.getMessage())));
+                });
+    }
+    
+    /**
+     * Project a 90 to 180 day season for up to app.simulation.max-variants plan variants, e.g.
+     * to compare crops, soils, irrigation types or refill triggers.
+     */
+    @PostMapping("/simulate-season")
+    public Mono<ResponseEntity<ApiResponse<SeasonSimulationDto>>> simulateSeason(
+            @Valid @RequestBody SeasonSimulationRequestDto request) {
+        
+        return seasonSimulationService.simulate(request)
+                .map(simulation -> ResponseEntity.ok(ApiResponse.success("Season simulated successfully", simulation)))
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()))))
+                .onErrorResume(e -> {
+                    log.error("Error simulating season: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(500)
+                            .body(ApiResponse.error("Failed to simulate season: " + e.getMessage())));
+                });
     }
     
     @GetMapping("/heat-alerts/{latitude}/{longitude}")
-    public ResponseEntity<ApiResponse<List<HeatAlertDto>>> getHeatAlerts(
+    public Mono<ResponseEntity<ApiResponse<List<HeatAlertDto>>>> getHeatAlerts(
             @PathVariable Double latitude,
             @PathVariable Double longitude) {
         
         log.info("Fetching heat alerts for location: {}, {}", latitude, longitude);
         
-        try {
-            List<HeatAlertDto> alerts = smartIrrigationService.getHeatAlerts(latitude, longitude);
-            return ResponseEntity.ok(ApiResponse.success("Heat alerts retrieved successfully", alerts));
-            
-        } catch (Exception e) {
-            log.error("Error fetching heat alerts: {}", e.getMessage());
-            return ResponseEntity.status(500)
-                    .body(ApiResponse.error("Failed to fetch heat alerts: " + e.getMessage()));
-        }
+        return smartIrrigationService.getHeatAlertsAsync(latitude, longitude)
+                .map(alerts -> ResponseEntity.ok(ApiResponse.success("Heat alerts retrieved successfully", alerts)))
+                .onErrorResume(e -> {
+                    log.error("Error fetching heat alerts: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(500)
+                            .body(ApiResponse.error("Failed to fetch heat alerts: " + e.getMessage())));
+                });
     }
     
     @GetMapping("/weather-data/{latitude}/{longitude}")
-    public ResponseEntity<ApiResponse<WeatherDataDto>> getWeatherData(
+    public Mono<ResponseEntity<ApiResponse<WeatherDataDto>>> getWeatherData(
             @PathVariable Double latitude,
             @PathVariable Double longitude) {
         
         log.info("Fetching weather data for location: {}, {}", latitude, longitude);
         
-        try {
-            WeatherDataDto weatherData = smartIrrigationService.getWeatherData(latitude, longitude);
-            return ResponseEntity.ok(ApiResponse.success("Weather data retrieved successfully", weatherData));
-            
-        } catch (Exception e) {
-            log.error("Error fetching weather data: {}", e.getMessage());
-            return ResponseEntity.status(500)
-                    .body(ApiResponse.error("Failed to fetch weather data: " + e.getMessage()));
-        }
+        return smartIrrigationService.getWeatherDataAsync(latitude, longitude)
+                .map(weatherData -> ResponseEntity.ok(ApiResponse.success("Weather data retrieved successfully", weatherData)))
+                .onErrorResume(e -> {
+                    log.error("Error fetching weather data: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(500)
+                            .body(ApiResponse.error("Failed to fetch weather data: " + e.getMessage())));
+                });
     }
     
     @PostMapping("/save-plan")
@@ -150,6 +179,51 @@ public class SmartIrrigationController {
         }
     }
     
+    /**
+     * The saved plan's root zone water balance as of the last nightly update.
+     */
+    @GetMapping("/saved-plans/{farmerId}/{planId}/soil-water")
+    public ResponseEntity<ApiResponse<SoilWaterStateDto>> getPlanSoilWater(
+            @PathVariable Long farmerId,
+            @PathVariable Long planId) {
+        
+        log.info("Fetching soil water balance of plan: {} for farmer: {}", planId, farmerId);
+        
+        try {
+            SoilWaterStateDto state = soilWaterBalanceService.getPlanState(farmerId, planId);
+            return ResponseEntity.ok(ApiResponse.success("Soil water balance retrieved successfully", state));
+            
+        } catch (Exception e) {
+            log.error("Error fetching soil water balance: {}", e.getMessage());
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to fetch soil water balance: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Record irrigation applied under the plan (mm reaching the root zone); counted by the next nightly update.
+     */
+    @PostMapping("/saved-plans/{farmerId}/{planId}/soil-water/irrigation")
+    public ResponseEntity<ApiResponse<SoilWaterStateDto>> recordPlanIrrigation(
+            @PathVariable Long farmerId,
+            @PathVariable Long planId,
+            @RequestParam Double appliedMm) {
+        
+        log.info("Recording {} mm of irrigation on plan: {} for farmer: {}", appliedMm, planId, farmerId);
+        
+        try {
+            SoilWaterStateDto state = soilWaterBalanceService.recordPlanIrrigation(farmerId, planId, appliedMm);
+            return ResponseEntity.ok(ApiResponse.success("Irrigation recorded successfully", state));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error recording irrigation: {}", e.getMessage());
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to record irrigation: " + e.getMessage()));
+        }
+    }
+    
     @PutMapping("/saved-plans/{farmerId}/{planId}")
     public ResponseEntity<ApiResponse<SavedIrrigationPlanDto>> updateSavedPlan(
             @PathVariable Long farmerId,
@@ -282,6 +356,8 @@ public class SmartIrrigationController {
         private Double windSpeed;
         private Double uvIndex;
         private String heatRisk;
+        private Long dataAgeSeconds;
+        private Boolean stale;
         
         // Getters and setters
         public Double getTemperature() { return temperature; }
@@ -301,6 +377,12 @@ public class SmartIrrigationController {
         
         public String getHeatRisk() { return heatRisk; }
         public void setHeatRisk(String heatRisk) { this.heatRisk = heatRisk; }
+        
+        public Long getDataAgeSeconds() { return dataAgeSeconds; }
+        public void setDataAgeSeconds(Long dataAgeSeconds) { this.dataAgeSeconds = dataAgeSeconds; }
+        
+        public Boolean getStale() { return stale; }
+        public void setStale(Boolean stale) { this.stale = stale; }
     }
     
     public static class SavePlanRequest {
@@ -0,0 +1,42 @@
+package com.hackathon.agriculture_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the batch scoring stream. Either the scoring fields or error are set.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchRecommendationItemDto {
+    
+    // FARMER, ZONE or SCENARIO
+    private String type;
+    // Farmer id, zone id or the scenario reference
+    private String ref;
+    private Long farmerId;
+    private Long zoneId;
+    private String cropType;
+    
+    private Double tempC;
+    private Double humidity;
+    private Double rainfallMm;
+    private Double et0;
+    
+    private String recommendation;
+    private Integer score;
+    private String explanation;
+    private Double waterSavedLiters;
+    
+    private String error;
+    
+    public static BatchRecommendationItemDto failed(String type, String ref, String error) {
+        BatchRecommendationItemDto item = new BatchRecommendationItemDto();
+        item.setType(type);
+        item.setRef(ref);
+        item.setError(error);
+        return item;
+    }
+}
@@ -0,0 +1,66 @@
+package com.hackathon.agriculture_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Targets to score in one request: stored farmers, stored zones (scored with the zone's
+ * coordinates and the owner's crop) and raw weather scenarios that need no fetch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRecommendationRequestDto {
+    
+    private List<Long> farmerIds = new ArrayList<>();
+    
+    private List<Long> zoneIds = new ArrayList<>();
+    
+    @Valid
+    private List<Scenario> scenarios = new ArrayList<>();
+    
+    // ET0 date for farmers and zones; defaults to today. Cells without a value for the day take
+    // the latest earlier published day, as in the daily run
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Scenario {
+        
+        // Client reference echoed back in the result
+        private String ref;
+        
+        @NotBlank(message = "Crop type is required")
+        private String cropType;
+        
+        private String region;
+        
+        @NotNull(message = "Temperature is required")
+        private Double tempC;
+        
+        @NotNull(message = "Humidity is required")
+        @DecimalMin(value = "0.0", message = "Humidity must be between 0 and 100")
+        @DecimalMax(value = "100.0", message = "Humidity must be between 0 and 100")
+        private Double humidity;
+        
+        @NotNull(message = "Rainfall is required")
+        @DecimalMin(value = "0.0", message = "Rainfall must be non-negative")
+        private Double rainfallMm;
+        
+        private Double forecastRainfallMm;
+        
+        @NotNull(message = "Evapotranspiration is required")
+        @DecimalMin(value = "0.0", message = "Evapotranspiration must be non-negative")
+        private Double et0;
+    }
+}
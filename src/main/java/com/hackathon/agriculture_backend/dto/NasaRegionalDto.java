@@ -0,0 +1,43 @@
+package com.hackathon.agriculture_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GeoJSON response of the NASA POWER regional endpoint: one feature per grid point,
+ * with parameter values keyed by yyyyMMdd.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NasaRegionalDto {
+    
+    private List<Feature> features;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Feature {
+        private Geometry geometry;
+        private Properties properties;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Geometry {
+        // [longitude, latitude, elevation]
+        private List<Double> coordinates;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Properties {
+        private Map<String, Map<String, Double>> parameter;
+    }
+}
@@ -0,0 +1,50 @@
+package com.hackathon.agriculture_backend.dto;
+
+import com.hackathon.agriculture_backend.model.RecommendationReplayJob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public class RecommendationReplayReportDto {
+    
+    private Long jobId;
+    private RecommendationReplayJob.Mode mode;
+    private RecommendationReplayJob.Status status;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Long rulesVersion;
+    private Long total;
+    private Long processed;
+    private Long changed;
+    // Rows saved without their forecast rainfall (see RecommendationReplayJob)
+    private Long withoutForecast;
+    private Long lastRecommendationId;
+    // Stored level -> replayed level -> count
+    private Map<String, Map<String, Long>> transitions;
+    // First changes seen by this instance, for review
+    private List<Change> sampleChanges;
+    private String errorMessage;
+    private Instant startedAt;
+    private Instant finishedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private Long recommendationId;
+        private Long farmerId;
+        private LocalDate date;
+        private String storedRecommendation;
+        private String replayedRecommendation;
+        private Integer replayedScore;
+        private Double storedWaterSavedLiters;
+        private Double replayedWaterSavedLiters;
+    }
+}
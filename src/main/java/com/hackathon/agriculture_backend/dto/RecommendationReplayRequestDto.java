@@ -0,0 +1,33 @@
+package com.hackathon.agriculture_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.hackathon.agriculture_backend.model.RecommendationReplayJob;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationReplayRequestDto {
+    
+    @NotNull(message = "From date is required")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate fromDate;
+    
+    @NotNull(message = "To date is required")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate toDate;
+    
+    // Empty means all farmers
+    private List<Long> farmerIds = new ArrayList<>();
+    
+    private String cropType;
+    
+    private RecommendationReplayJob.Mode mode = RecommendationReplayJob.Mode.DIFF;
+}
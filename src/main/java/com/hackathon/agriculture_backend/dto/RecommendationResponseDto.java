@@ -12,6 +12,7 @@ import java.time.LocalDate;
 public class RecommendationResponseDto {
     
     private Long id;
+    private Long zoneId;
     private String zoneName;
     private LocalDate date;
     private String cropType;
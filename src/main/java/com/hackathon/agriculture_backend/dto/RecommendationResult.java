@@ -1,12 +1,14 @@
 package com.hackathon.agriculture_backend.dto;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hackathon.agriculture_backend.util.RecommendationScorer;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class RecommendationResult {
     
     private String recommendation;
@@ -14,13 +16,40 @@ public class RecommendationResult {
     private Double waterSavedLiters;
     private Integer score;
     
+    // Triggered RecommendationScorer rule codes; the explanation is rendered from them on first access
+    @JsonIgnore
+    private int ruleMask;
+    
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    private double[] explanationInputs;
+    
     public RecommendationResult(String recommendation, String explanation) {
         this.recommendation = recommendation;
         this.explanation = explanation;
         this.waterSavedLiters = 0.0;
         this.score = 0;
     }
+    
+    /**
+     * Result of {@link RecommendationScorer#score} without rendering the explanation yet.
+     */
+    public static RecommendationResult scored(long packed, double waterSavedLiters,
+                                              double tempC, double humidity, double rainfall, double et0) {
+        RecommendationResult result = new RecommendationResult();
+        result.recommendation = RecommendationScorer.levelName(RecommendationScorer.levelOf(packed));
+        result.score = RecommendationScorer.scoreOf(packed);
+        result.ruleMask = RecommendationScorer.rulesOf(packed);
+        result.waterSavedLiters = waterSavedLiters;
+        result.explanationInputs = new double[] {tempC, humidity, rainfall, et0};
+        return result;
+    }
+    
+    public String getExplanation() {
+        if (explanation == null && explanationInputs != null) {
+            explanation = RecommendationScorer.explain(ruleMask, explanationInputs[0], explanationInputs[1],
+                    explanationInputs[2], explanationInputs[3]);
+        }
+        return explanation;
+    }
 }
-
-
-
@@ -0,0 +1,29 @@
+package com.hackathon.agriculture_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ET0 (mm/day) for every farmer and zone on one date, keyed by entity id, or on the latest
+ * earlier day NASA POWER has published (see NasaService#getLatestEvapotranspirationForCellsAsync).
+ * Locations without data are absent from the maps; cells lists every grid cell that was looked
+ * up, so a location in one of them without a value has no recent ET0 at all.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegionalEt0Dto {
+    
+    private LocalDate date;
+    private Map<Long, Double> farmerEt0;
+    private Map<Long, Double> zoneEt0;
+    private int cellCount;
+    private Set<Long> cells;
+    private Instant resolvedAt;
+}
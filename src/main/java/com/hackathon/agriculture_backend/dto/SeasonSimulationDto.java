@@ -0,0 +1,51 @@
+package com.hackathon.agriculture_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Simulated season: the daily weather used, shared by all variants, and per variant compact
+ * daily series (liters applied, end-of-day depletion, cumulative liters saved against the
+ * stateless daily plan) with their totals. Series index 0 is startDate.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeasonSimulationDto {
+    
+    private LocalDate startDate;
+    private Integer days;
+    // Days taken from the forecast, from past years' ET0 (without rain) and estimated from the
+    // forecast scaled by the seasonal change in solar radiation
+    private Integer forecastDays;
+    private Integer climatologyDays;
+    private Integer estimatedDays;
+    private double[] et0Mm;
+    private double[] rainMm;
+    private List<VariantResult> variants;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VariantResult {
+        private String ref;
+        private String cropType;
+        private String soilType;
+        private String irrigationType;
+        private Double area;
+        private Double totalAvailableWaterMm;
+        private Double triggerDepletionMm;
+        private double[] liters;
+        private double[] depletionMm;
+        private double[] cumulativeSavedLiters;
+        private Double totalLiters;
+        private Double baselineLiters;
+        private Double savedLiters;
+        private Integer irrigationEvents;
+        private Integer stressDays;
+    }
+}
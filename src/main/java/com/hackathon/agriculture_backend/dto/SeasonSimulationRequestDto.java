@@ -0,0 +1,75 @@
+package com.hackathon.agriculture_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A season to simulate at one location and the plan variants to compare. With a farmer and
+ * saved plan, every variant starts from the plan's current soil water balance; otherwise from
+ * field capacity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeasonSimulationRequestDto {
+    
+    @NotNull(message = "Latitude is required")
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @NotNull(message = "Longitude is required")
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
+    // Defaults to today
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+    
+    @Min(value = 90, message = "Season must be between 90 and 180 days")
+    @Max(value = 180, message = "Season must be between 90 and 180 days")
+    private Integer days = 120;
+    
+    private Long farmerId;
+    
+    private Long planId;
+    
+    @NotEmpty(message = "At least one variant is required")
+    @Valid
+    private List<Variant> variants = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Variant {
+        
+        // Client reference echoed back in the result
+        private String ref;
+        
+        @NotBlank(message = "Crop type is required")
+        private String cropType;
+        
+        private String soilType = "loam";
+        
+        private String irrigationType = "drip";
+        
+        @NotNull(message = "Area is required")
+        @DecimalMin(value = "0.0", inclusive = false, message = "Area must be positive")
+        private Double area;
+        
+        // Depletion, as a fraction of the total available water, at which the field is refilled;
+        // defaults to the crop's depletion fraction, the most that avoids water stress
+        @DecimalMin(value = "0.05", message = "Trigger fraction must be between 0.05 and 1")
+        @DecimalMax(value = "1.0", message = "Trigger fraction must be between 0.05 and 1")
+        private Double triggerFraction;
+    }
+}
@@ -0,0 +1,62 @@
+package com.hackathon.agriculture_backend.dto;
+
+import com.hackathon.agriculture_backend.model.SoilWaterState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Root zone water balance of a zone or saved plan at the end of asOfDate. Irrigation is due
+ * once the depletion reaches the readily available water.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoilWaterStateDto {
+    
+    private Long zoneId;
+    private Long planId;
+    private LocalDate asOfDate;
+    private Double depletionMm;
+    private Double totalAvailableWaterMm;
+    private Double readilyAvailableWaterMm;
+    private Double waterStressCoefficient;
+    private Boolean irrigationDue;
+    private Double rainfallMm;
+    private Double irrigationMm;
+    private Double etcMm;
+    private Double deepPercolationMm;
+    private Double pendingIrrigationMm;
+    private Instant updatedAt;
+    
+    public static SoilWaterStateDto fromEntity(SoilWaterState state) {
+        double depletion = toDouble(state.getDepletionMm());
+        double taw = toDouble(state.getTotalAvailableWaterMm());
+        double raw = toDouble(state.getReadilyAvailableWaterMm());
+        double ks = depletion <= raw ? 1.0 : Math.round(100 * Math.max(0.0, (taw - depletion) / (taw - raw))) / 100.0;
+        return new SoilWaterStateDto(
+            state.getZone() != null ? state.getZone().getId() : null,
+            state.getPlan() != null ? state.getPlan().getId() : null,
+            state.getAsOfDate(),
+            depletion,
+            taw,
+            raw,
+            ks,
+            depletion >= raw,
+            toDouble(state.getRainfallMm()),
+            toDouble(state.getIrrigationMm()),
+            toDouble(state.getEtcMm()),
+            toDouble(state.getDeepPercolationMm()),
+            toDouble(state.getPendingIrrigationMm()),
+            state.getUpdatedAt()
+        );
+    }
+    
+    // Stored as floats; shown to 0.01 mm
+    private static Double toDouble(Float value) {
+        return value == null ? null : Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -19,6 +19,8 @@ public class WeatherDto {
     private Boolean heatAlert;
     private String weatherDescription;
     private Double etc; // Evapotranspiration
+    private Long dataAgeSeconds; // Age of the upstream data behind this view
+    private Boolean stale; // True when served past its TTL (refresh pending or provider failing)
     
     @JsonProperty("current")
     private CurrentWeather current;
@@ -61,6 +63,7 @@ public class WeatherDto {
         private Long dt;
         private Temp temp;
         private Double humidity;
+        private Double windSpeed;
         private Double rain;
         private List<Weather> weather;
     }
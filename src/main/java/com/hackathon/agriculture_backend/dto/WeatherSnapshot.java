@@ -0,0 +1,51 @@
+package com.hackathon.agriculture_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable One Call result (current, daily and alerts) for one location cell.
+ * Shared between callers through the weather cache, so it must never be mutated.
+ */
+@Getter
+@AllArgsConstructor
+public class WeatherSnapshot {
+    
+    private final String cell;
+    private final double latitude;
+    private final double longitude;
+    private final WeatherDto.CurrentWeather current;
+    private final List<WeatherDto.DailyWeather> daily;
+    private final List<WeatherDto.WeatherAlert> alerts;
+    private final Instant fetchedAt;
+    // Served past its TTL because a refresh was pending or the provider failed
+    private final boolean stale;
+    
+    public WeatherSnapshot(String cell, double latitude, double longitude, WeatherDto.CurrentWeather current,
+                           List<WeatherDto.DailyWeather> daily, List<WeatherDto.WeatherAlert> alerts, Instant fetchedAt) {
+        this(cell, latitude, longitude, current, daily, alerts, fetchedAt, false);
+    }
+    
+    /**
+     * Same data marked as stale; the original instance stays shared and unmarked.
+     */
+    public WeatherSnapshot asStale() {
+        return stale ? this : new WeatherSnapshot(cell, latitude, longitude, current, daily, alerts, fetchedAt, true);
+    }
+    
+    public long getAgeSeconds() {
+        return Math.max(0, Duration.between(fetchedAt, Instant.now()).getSeconds());
+    }
+    
+    public boolean hasCurrent() {
+        return current != null;
+    }
+    
+    public boolean hasDaily() {
+        return daily != null && !daily.isEmpty();
+    }
+}
@@ -15,8 +15,10 @@ import java.time.Instant;
 @AllArgsConstructor
 public class AlertLog {
     
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts; one sequence call per 100 rows
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "alert_logs_id")
+    @SequenceGenerator(name = "alert_logs_id", sequenceName = "alert_logs_seq", allocationSize = 100)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
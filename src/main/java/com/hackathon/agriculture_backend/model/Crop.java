@@ -5,6 +5,9 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Table(name = "crops")
@@ -37,6 +40,11 @@ public class Crop {
     
     @Column(name = "is_active")
     private Boolean isActive = true;
+    
+    // Set by Hibernate on every insert and update; the in-memory crop catalog reloads when the latest one changes
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
 }
 
 
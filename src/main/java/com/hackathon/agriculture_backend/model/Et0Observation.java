@@ -0,0 +1,51 @@
+package com.hackathon.agriculture_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Daily reference evapotranspiration for one NASA POWER grid cell.
+ * Historical values never change upstream, so each (cell, date) is fetched once.
+ */
+@Entity
+@Table(name = "et0_observations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_et0_cell_date",
+                columnNames = {"grid_row", "grid_col", "observation_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Et0Observation {
+    
+    // Pooled sequence instead of IDENTITY so a fetched range is stored in one insert batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "et0_observations_id")
+    @SequenceGenerator(name = "et0_observations_id", sequenceName = "et0_observations_seq", allocationSize = 100)
+    private Long id;
+    
+    @Column(name = "grid_row", nullable = false)
+    private Integer gridRow;
+    
+    @Column(name = "grid_col", nullable = false)
+    private Integer gridCol;
+    
+    @Column(name = "observation_date", nullable = false)
+    private LocalDate observationDate;
+    
+    @Column(name = "et0_mm", nullable = false)
+    private Double et0Mm;
+    
+    @Column(name = "fetched_at", nullable = false)
+    private Instant fetchedAt = Instant.now();
+    
+    public Et0Observation(Integer gridRow, Integer gridCol, LocalDate observationDate, Double et0Mm) {
+        this.gridRow = gridRow;
+        this.gridCol = gridCol;
+        this.observationDate = observationDate;
+        this.et0Mm = et0Mm;
+    }
+}
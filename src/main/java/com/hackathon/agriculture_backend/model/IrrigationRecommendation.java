@@ -6,20 +6,31 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "irrigation_recommendations")
+@Table(name = "irrigation_recommendations", indexes = {
+        // Daily idempotency checks: farmer and zone ids with a recommendation for a date
+        @Index(name = "idx_recommendation_date_farmer_zone", columnList = "recommendation_date, farmer_id, zone_id"),
+        // Dashboard history: a farmer's rows (farm and zones) newest first, paged by (date, id)
+        @Index(name = "idx_recommendation_farmer_date", columnList = "farmer_id, recommendation_date, id"),
+        // The same history for one zone
+        @Index(name = "idx_recommendation_farmer_zone_date", columnList = "farmer_id, zone_id, recommendation_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class IrrigationRecommendation {
     
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts; one sequence call per 100 rows
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "irrigation_recommendations_id")
+    @SequenceGenerator(name = "irrigation_recommendations_id", sequenceName = "irrigation_recommendations_seq", allocationSize = 100)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,6 +38,13 @@ public class IrrigationRecommendation {
     @NotNull(message = "Farmer is required")
     private Farmer farmer;
     
+    // Zone the recommendation was made for; null for farm-level recommendations
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "zone_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    @JsonIgnore
+    private FarmerZone zone;
+    
     @NotNull(message = "Date is required")
     @Column(name = "recommendation_date")
     private LocalDate date;
@@ -55,6 +73,11 @@ public class IrrigationRecommendation {
     @Column(name = "rainfall_mm")
     private Double rainfallMm;
     
+    // Forecast rainfall the recommendation was scored with; null on rows saved before it was stored
+    @DecimalMin(value = "0.0", message = "Forecast rainfall must be positive")
+    @Column(name = "forecast_rainfall_mm")
+    private Double forecastRainfallMm;
+    
     @NotNull(message = "Evapotranspiration is required")
     @DecimalMin(value = "0.0", message = "Evapotranspiration must be positive")
     @Column(name = "evapotranspiration")
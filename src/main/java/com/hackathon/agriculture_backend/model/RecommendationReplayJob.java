@@ -0,0 +1,92 @@
+package com.hackathon.agriculture_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A replay of stored recommendations against the current scoring rules, with its parameters,
+ * checkpoint (last processed recommendation id) and running totals, so it can be resumed.
+ */
+@Entity
+@Table(name = "recommendation_replay_jobs")
+@Data
+@NoArgsConstructor
+public class RecommendationReplayJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "mode", nullable = false)
+    private Mode mode;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+    
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+    
+    @Column(name = "to_date", nullable = false)
+    private LocalDate toDate;
+    
+    // Comma-separated farmer ids; empty means all farmers
+    @Column(name = "farmer_ids", columnDefinition = "TEXT")
+    private String farmerIds;
+    
+    @Column(name = "crop_type")
+    private String cropType;
+    
+    @Column(name = "rules_version")
+    private Long rulesVersion;
+    
+    // Checkpoint: recommendations are replayed in id order
+    @Column(name = "last_recommendation_id", nullable = false)
+    private Long lastRecommendationId = 0L;
+    
+    @Column(name = "total")
+    private Long total;
+    
+    @Column(name = "processed", nullable = false)
+    private Long processed = 0L;
+    
+    @Column(name = "changed", nullable = false)
+    private Long changed = 0L;
+    
+    // Rows saved without their forecast rainfall: scored without it in DIFF, left as stored in UPSERT
+    @Column(name = "without_forecast")
+    private Long withoutForecast = 0L;
+    
+    // Old level x new level counts (LOW, MODERATE, HIGH), row-major and comma-separated
+    @Column(name = "transitions")
+    private String transitions;
+    
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+    
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt = Instant.now();
+    
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+    
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+    
+    public enum Mode {
+        DIFF,   // report what would change
+        UPSERT  // rewrite changed recommendations in place
+    }
+    
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,78 @@
+package com.hackathon.agriculture_backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Root zone water balance of one zone or saved plan: the depletion below field capacity at the
+ * end of asOfDate and the water flows of the last update. One row per field, advanced in place
+ * every night; water amounts are 4-byte floats in mm.
+ */
+@Entity
+@Table(name = "soil_water_states")
+@Data
+@NoArgsConstructor
+public class SoilWaterState {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Exactly one of zone and plan is set
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "zone_id", unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private FarmerZone zone;
+    
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "plan_id", unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private SavedIrrigationPlan plan;
+    
+    // Zones carry no soil type of their own; plans use the plan's soil type
+    @Column(name = "soil_type")
+    private String soilType;
+    
+    @Column(name = "as_of_date", nullable = false)
+    private LocalDate asOfDate;
+    
+    @Column(name = "depletion_mm", nullable = false)
+    private Float depletionMm = 0f;
+    
+    // Water between field capacity and wilting point over the root zone, and the part of it
+    // the crop can take up without stress
+    @Column(name = "total_available_water_mm", nullable = false)
+    private Float totalAvailableWaterMm;
+    
+    @Column(name = "readily_available_water_mm", nullable = false)
+    private Float readilyAvailableWaterMm;
+    
+    // Flows of the last update, normally one day
+    @Column(name = "rainfall_mm")
+    private Float rainfallMm;
+    
+    @Column(name = "irrigation_mm")
+    private Float irrigationMm;
+    
+    @Column(name = "etc_mm")
+    private Float etcMm;
+    
+    @Column(name = "deep_percolation_mm")
+    private Float deepPercolationMm;
+    
+    // Irrigation recorded since the last update; applied by the next one
+    @Column(name = "pending_irrigation_mm", nullable = false)
+    private Float pendingIrrigationMm = 0f;
+    
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -19,6 +19,13 @@ public interface CropRepository extends JpaRepository<Crop, Long> {
     
     @Query("SELECT c FROM Crop c WHERE c.isActive = true ORDER BY c.name")
     List<Crop> findAllActiveOrderByName();
+    
+    /**
+     * Row count, highest id and latest update time of all crops; changes whenever a crop is added,
+     * removed or updated through JPA.
+     */
+    @Query("SELECT COUNT(c), COALESCE(MAX(c.id), 0), MAX(c.updatedAt) FROM Crop c")
+    List<Object[]> findCatalogFingerprint();
 }
 
 
@@ -0,0 +1,17 @@
+package com.hackathon.agriculture_backend.repository;
+
+import com.hackathon.agriculture_backend.model.Et0Observation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface Et0ObservationRepository extends JpaRepository<Et0Observation, Long> {
+    
+    List<Et0Observation> findByGridRowAndGridColAndObservationDateBetweenOrderByObservationDateAsc(
+            Integer gridRow, Integer gridCol, LocalDate startDate, LocalDate endDate);
+    
+    List<Et0Observation> findByObservationDate(LocalDate observationDate);
+}
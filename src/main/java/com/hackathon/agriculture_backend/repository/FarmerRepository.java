@@ -26,6 +26,9 @@ public interface FarmerRepository extends JpaRepository<Farmer, Long> {
                                           @Param("minLon") Double minLon, 
                                           @Param("maxLon") Double maxLon);
     
+    @Query("SELECT f.id, f.latitude, f.longitude FROM Farmer f WHERE f.smsOptIn = true")
+    List<Object[]> findSmsOptInCoordinates();
+    
     @Query("SELECT COUNT(f) FROM Farmer f WHERE f.smsOptIn = true")
     Long countBySmsOptInTrue();
     
@@ -2,9 +2,13 @@ package com.hackathon.agriculture_backend.repository;
 
 import com.hackathon.agriculture_backend.model.FarmerZone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FarmerZoneRepository extends JpaRepository<FarmerZone, Long> {
@@ -13,6 +17,18 @@ public interface FarmerZoneRepository extends JpaRepository<FarmerZone, Long> {
     
     List<FarmerZone> findByFarmerIdOrderByCreatedAtDesc(Long farmerId);
     
+    List<FarmerZone> findByFarmerIdIn(Collection<Long> farmerIds);
+    
     void deleteByFarmerIdAndId(Long farmerId, Long id);
+    
+    @Query("SELECT z FROM FarmerZone z JOIN FETCH z.farmer WHERE z.id IN :ids")
+    List<FarmerZone> findAllWithFarmerByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT z.farmer.id FROM FarmerZone z WHERE z.id = :zoneId")
+    Optional<Long> findFarmerIdById(@Param("zoneId") Long zoneId);
+    
+    // Zones the daily recommendation job covers: those of farmers opted in to SMS
+    @Query("SELECT z.id, z.latitude, z.longitude FROM FarmerZone z WHERE z.farmer.smsOptIn = true")
+    List<Object[]> findSmsOptInZoneCoordinates();
 }
 
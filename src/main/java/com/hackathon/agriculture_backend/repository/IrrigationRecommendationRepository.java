@@ -1,12 +1,14 @@
 package com.hackathon.agriculture_backend.repository;
 
 import com.hackathon.agriculture_backend.model.IrrigationRecommendation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -30,6 +32,64 @@ public interface IrrigationRecommendationRepository extends JpaRepository<Irriga
     @Query("SELECT ir FROM IrrigationRecommendation ir WHERE ir.farmer.id = :farmerId AND ir.date = :date")
     List<IrrigationRecommendation> findByFarmerIdAndDate(@Param("farmerId") Long farmerId, @Param("date") LocalDate date);
     
+    // Keyset page of a farmer's recommendations across the farm and every zone, newest first: rows
+    // before the (beforeDate, beforeId) cursor. Served by idx_recommendation_farmer_date
+    @Query("SELECT ir FROM IrrigationRecommendation ir WHERE ir.farmer.id = :farmerId " +
+           "AND ir.date BETWEEN :fromDate AND :toDate " +
+           "AND (ir.date < :beforeDate OR (ir.date = :beforeDate AND ir.id < :beforeId)) " +
+           "AND ir.recommendation LIKE :levelPattern " +
+           "ORDER BY ir.date DESC, ir.id DESC")
+    List<IrrigationRecommendation> findHistoryPage(@Param("farmerId") Long farmerId,
+                                                   @Param("fromDate") LocalDate fromDate,
+                                                   @Param("toDate") LocalDate toDate,
+                                                   @Param("beforeDate") LocalDate beforeDate,
+                                                   @Param("beforeId") Long beforeId,
+                                                   @Param("levelPattern") String levelPattern,
+                                                   Pageable pageable);
+    
+    // The same page for one of the farmer's zones. Served by idx_recommendation_farmer_zone_date
+    @Query("SELECT ir FROM IrrigationRecommendation ir WHERE ir.farmer.id = :farmerId AND ir.zone.id = :zoneId " +
+           "AND ir.date BETWEEN :fromDate AND :toDate " +
+           "AND (ir.date < :beforeDate OR (ir.date = :beforeDate AND ir.id < :beforeId)) " +
+           "AND ir.recommendation LIKE :levelPattern " +
+           "ORDER BY ir.date DESC, ir.id DESC")
+    List<IrrigationRecommendation> findZoneHistoryPage(@Param("farmerId") Long farmerId,
+                                                       @Param("zoneId") Long zoneId,
+                                                       @Param("fromDate") LocalDate fromDate,
+                                                       @Param("toDate") LocalDate toDate,
+                                                       @Param("beforeDate") LocalDate beforeDate,
+                                                       @Param("beforeId") Long beforeId,
+                                                       @Param("levelPattern") String levelPattern,
+                                                       Pageable pageable);
+    
+    boolean existsByFarmerIdAndDate(Long farmerId, LocalDate date);
+    
+    // Farm-level rows only; a zone's recommendation does not stand in for the farmer's
+    @Query("SELECT DISTINCT ir.farmer.id FROM IrrigationRecommendation ir WHERE ir.date = :date AND ir.zone IS NULL")
+    List<Long> findFarmerIdsByDate(@Param("date") LocalDate date);
+    
+    @Query("SELECT DISTINCT ir.zone.id FROM IrrigationRecommendation ir WHERE ir.date = :date AND ir.zone IS NOT NULL")
+    List<Long> findZoneIdsByDate(@Param("date") LocalDate date);
+    
+    // Keyset page for replays: rows after the checkpoint id, optionally limited to farmers and a crop pattern
+    @Query("SELECT ir FROM IrrigationRecommendation ir WHERE ir.id > :afterId AND ir.date BETWEEN :fromDate AND :toDate " +
+           "AND (:allFarmers = true OR ir.farmer.id IN :farmerIds) AND LOWER(ir.cropType) LIKE :cropPattern ORDER BY ir.id")
+    List<IrrigationRecommendation> findReplayPage(@Param("afterId") Long afterId,
+                                                  @Param("fromDate") LocalDate fromDate,
+                                                  @Param("toDate") LocalDate toDate,
+                                                  @Param("allFarmers") boolean allFarmers,
+                                                  @Param("farmerIds") Collection<Long> farmerIds,
+                                                  @Param("cropPattern") String cropPattern,
+                                                  Pageable pageable);
+    
+    @Query("SELECT COUNT(ir) FROM IrrigationRecommendation ir WHERE ir.date BETWEEN :fromDate AND :toDate " +
+           "AND (:allFarmers = true OR ir.farmer.id IN :farmerIds) AND LOWER(ir.cropType) LIKE :cropPattern")
+    long countForReplay(@Param("fromDate") LocalDate fromDate,
+                        @Param("toDate") LocalDate toDate,
+                        @Param("allFarmers") boolean allFarmers,
+                        @Param("farmerIds") Collection<Long> farmerIds,
+                        @Param("cropPattern") String cropPattern);
+    
     @Query("SELECT SUM(ir.waterSavedLiters) FROM IrrigationRecommendation ir WHERE ir.farmer.id = :farmerId AND ir.date BETWEEN :startDate AND :endDate")
     Double calculateWaterSavedByFarmerAndDateRange(@Param("farmerId") Long farmerId, 
                                                  @Param("startDate") LocalDate startDate, 
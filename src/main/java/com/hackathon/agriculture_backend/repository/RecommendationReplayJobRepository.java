@@ -0,0 +1,13 @@
+package com.hackathon.agriculture_backend.repository;
+
+import com.hackathon.agriculture_backend.model.RecommendationReplayJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RecommendationReplayJobRepository extends JpaRepository<RecommendationReplayJob, Long> {
+    
+    List<RecommendationReplayJob> findByStatus(RecommendationReplayJob.Status status);
+}
@@ -0,0 +1,52 @@
+package com.hackathon.agriculture_backend.repository;
+
+import com.hackathon.agriculture_backend.model.SoilWaterState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SoilWaterStateRepository extends JpaRepository<SoilWaterState, Long> {
+    
+    Optional<SoilWaterState> findByZoneId(Long zoneId);
+    
+    Optional<SoilWaterState> findByPlanId(Long planId);
+    
+    // Locked like the nightly update, so recorded irrigation and the update never overwrite each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SoilWaterState s WHERE s.zone.id = :zoneId")
+    Optional<SoilWaterState> findForUpdateByZoneId(@Param("zoneId") Long zoneId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SoilWaterState s WHERE s.plan.id = :planId")
+    Optional<SoilWaterState> findForUpdateByPlanId(@Param("planId") Long planId);
+    
+    /**
+     * Next states in id order with what the nightly update needs: id, as-of date, depletion,
+     * pending irrigation, latitude, longitude, crop and soil. Zones use the farmer's crop.
+     */
+    @Query("SELECT s.id, s.asOfDate, s.depletionMm, s.pendingIrrigationMm, " +
+           "COALESCE(z.latitude, p.locationLat), COALESCE(z.longitude, p.locationLng), " +
+           "COALESCE(p.cropType, f.preferredCrop), COALESCE(p.soilType, s.soilType) " +
+           "FROM SoilWaterState s LEFT JOIN s.zone z LEFT JOIN z.farmer f LEFT JOIN s.plan p " +
+           "WHERE s.id > :afterId ORDER BY s.id")
+    List<Object[]> findUpdatePage(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SoilWaterState s WHERE s.id IN :ids")
+    List<SoilWaterState> findAllForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT z.id FROM FarmerZone z WHERE NOT EXISTS (SELECT s.id FROM SoilWaterState s WHERE s.zone = z)")
+    List<Long> findZoneIdsWithoutState();
+    
+    @Query("SELECT p.id FROM SavedIrrigationPlan p WHERE NOT EXISTS (SELECT s.id FROM SoilWaterState s WHERE s.plan = p)")
+    List<Long> findPlanIdsWithoutState();
+}
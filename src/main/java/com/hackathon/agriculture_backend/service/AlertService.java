@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
@@ -35,7 +36,21 @@ public class AlertService {
     // @Value("${app.twilio.phone.number}")
     // private String fromPhoneNumber;
     
+    /**
+     * Send the SMS and save its log. The send runs outside any transaction,
+     * so no database connection is held while waiting on the SMS provider.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AlertLog sendSmsAlert(Farmer farmer, String message, String alertType) {
+        return alertLogRepository.save(deliverSmsAlert(farmer, message, alertType));
+    }
+    
+    /**
+     * Send the SMS and return its unsaved log (SENT or FAILED), for callers
+     * that persist logs in batches with {@link #saveAlertLogs}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AlertLog deliverSmsAlert(Farmer farmer, String message, String alertType) {
         System.out.println("Sending SMS alert to farmer: " + farmer.getName() + " (" + farmer.getPhone() + ")");
         
         try {
@@ -53,10 +68,9 @@ public class AlertService {
             alertLog.setMessage(message);
             alertLog.setSentAt(Instant.now());
             
-            AlertLog savedAlert = alertLogRepository.save(alertLog);
             System.out.println("Mock SMS alert sent successfully. Message ID: MOCK-" + System.currentTimeMillis());
             
-            return savedAlert;
+            return alertLog;
             
         } catch (Exception e) {
             System.out.println("Failed to send mock SMS alert to farmer: " + farmer.getPhone() + " - " + e.getMessage());
@@ -70,18 +84,34 @@ public class AlertService {
             alertLog.setErrorDetails("Mock SMS failed: " + e.getMessage());
             alertLog.setSentAt(Instant.now());
             
-            return alertLogRepository.save(alertLog);
+            return alertLog;
         }
     }
     
+    public List<AlertLog> saveAlertLogs(List<AlertLog> alertLogs) {
+        return alertLogRepository.saveAll(alertLogs);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AlertLog sendIrrigationRecommendationAlert(Farmer farmer, IrrigationRecommendation recommendation) {
+        return alertLogRepository.save(deliverIrrigationRecommendationAlert(farmer, recommendation));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AlertLog deliverIrrigationRecommendationAlert(Farmer farmer, IrrigationRecommendation recommendation) {
         System.out.println("Sending irrigation recommendation alert to farmer: " + farmer.getName());
         
         String message = buildIrrigationMessage(farmer, recommendation);
-        return sendSmsAlert(farmer, message, "IRRIGATION_RECOMMENDATION");
+        return deliverSmsAlert(farmer, message, "IRRIGATION_RECOMMENDATION");
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AlertLog sendHeatAlert(Farmer farmer, Double temperature) {
+        return alertLogRepository.save(deliverHeatAlert(farmer, temperature));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AlertLog deliverHeatAlert(Farmer farmer, Double temperature) {
         System.out.println("Sending heat alert to farmer: " + farmer.getName() + " for temperature: " + temperature + "°C");
         
         String message = String.format(
@@ -95,9 +125,10 @@ public class AlertService {
                 farmer.getLocationName(), temperature
         );
         
-        return sendSmsAlert(farmer, message, "HEAT_ALERT");
+        return deliverSmsAlert(farmer, message, "HEAT_ALERT");
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AlertLog sendTestAlert(Farmer farmer) {
         System.out.println("Sending test alert to farmer: " + farmer.getName());
         
@@ -0,0 +1,263 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.BatchRecommendationItemDto;
+import com.hackathon.agriculture_backend.dto.BatchRecommendationRequestDto;
+import com.hackathon.agriculture_backend.dto.RecommendationResult;
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.model.Farmer;
+import com.hackathon.agriculture_backend.model.FarmerZone;
+import com.hackathon.agriculture_backend.repository.FarmerRepository;
+import com.hackathon.agriculture_backend.repository.FarmerZoneRepository;
+import com.hackathon.agriculture_backend.util.NasaPowerGrid;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scores many farmers, zones or raw scenarios in one request. Farmers and zones are loaded with
+ * one query each, weather is fetched once per weather cell and ET0 once for all NASA grid cells
+ * of the batch, and every result is emitted as soon as its cell's data is in. Scoring runs on a
+ * bounded compute pool, off the request and HTTP client threads. A failed target or scenario
+ * yields an item with an error instead of failing the whole stream.
+ * ET0 follows the daily run: the date's value, or until NASA POWER publishes it the latest
+ * earlier day, so the batch API and the scheduler score the same inputs alike.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchRecommendationService {
+    
+    private static final String FARMER = "FARMER";
+    private static final String ZONE = "ZONE";
+    private static final String SCENARIO = "SCENARIO";
+    
+    private final FarmerRepository farmerRepository;
+    private final FarmerZoneRepository farmerZoneRepository;
+    private final WeatherService weatherService;
+    private final WeatherSnapshotCache weatherCache;
+    private final NasaService nasaService;
+    private final RecommendationService recommendationService;
+    private final CropCatalog cropCatalog;
+    
+    @Value("${app.recommendations.batch.max-items:1000}")
+    private int maxItems;
+    
+    @Value("${app.recommendations.batch.fetch-concurrency:8}")
+    private int fetchConcurrency;
+    
+    // 0 means one thread per available processor
+    @Value("${app.recommendations.batch.compute-parallelism:0}")
+    private int computeParallelism;
+    
+    private Scheduler computeScheduler;
+    
+    @PostConstruct
+    public void init() {
+        if (computeParallelism <= 0) {
+            computeParallelism = Runtime.getRuntime().availableProcessors();
+        }
+        computeScheduler = Schedulers.newParallel("batch-recommendation-compute", computeParallelism);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        computeScheduler.dispose();
+    }
+    
+    public Flux<BatchRecommendationItemDto> score(BatchRecommendationRequestDto request) {
+        List<Long> farmerIds = request.getFarmerIds() != null ? request.getFarmerIds() : List.of();
+        List<Long> zoneIds = request.getZoneIds() != null ? request.getZoneIds() : List.of();
+        List<BatchRecommendationRequestDto.Scenario> scenarios = request.getScenarios() != null
+                ? request.getScenarios() : List.of();
+        
+        int items = farmerIds.size() + zoneIds.size() + scenarios.size();
+        if (items == 0) {
+            throw new IllegalArgumentException("At least one farmer id, zone id or scenario is required");
+        }
+        if (items > maxItems) {
+            throw new IllegalArgumentException("Batch of " + items + " items exceeds the limit of " + maxItems);
+        }
+        LocalDate date = request.getDate() != null ? request.getDate() : LocalDate.now();
+        log.info("Scoring batch of {} farmers, {} zones and {} scenarios for {}",
+                farmerIds.size(), zoneIds.size(), scenarios.size(), date);
+        
+        // Scenarios carry their own weather and are scored right away, in request order
+        Flux<BatchRecommendationItemDto> scenarioResults = Flux.fromIterable(scenarios)
+                .flatMapSequential(scenario -> Mono.fromCallable(() -> scoreScenario(scenario))
+                        .subscribeOn(computeScheduler), computeParallelism);
+        
+        Flux<BatchRecommendationItemDto> locatedResults = Mono.fromCallable(() -> loadTargets(farmerIds, zoneIds))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(targets -> scoreTargets(targets, date));
+        
+        return Flux.merge(scenarioResults, locatedResults);
+    }
+    
+    private Targets loadTargets(List<Long> farmerIds, List<Long> zoneIds) {
+        List<Target> located = new ArrayList<>();
+        List<BatchRecommendationItemDto> invalid = new ArrayList<>();
+        
+        Set<Long> uniqueFarmerIds = new LinkedHashSet<>(farmerIds);
+        uniqueFarmerIds.remove(null);
+        if (!uniqueFarmerIds.isEmpty()) {
+            Map<Long, Farmer> farmers = new HashMap<>();
+            farmerRepository.findAllById(uniqueFarmerIds).forEach(farmer -> farmers.put(farmer.getId(), farmer));
+            for (Long farmerId : uniqueFarmerIds) {
+                Farmer farmer = farmers.get(farmerId);
+                if (farmer == null) {
+                    invalid.add(BatchRecommendationItemDto.failed(FARMER, String.valueOf(farmerId), "Farmer not found"));
+                } else {
+                    addTarget(new Target(FARMER, farmer, null, farmer.getLatitude(), farmer.getLongitude()), located, invalid);
+                }
+            }
+        }
+        
+        Set<Long> uniqueZoneIds = new LinkedHashSet<>(zoneIds);
+        uniqueZoneIds.remove(null);
+        if (!uniqueZoneIds.isEmpty()) {
+            Map<Long, FarmerZone> zones = new HashMap<>();
+            for (FarmerZone zone : farmerZoneRepository.findAllWithFarmerByIdIn(uniqueZoneIds)) {
+                zones.put(zone.getId(), zone);
+            }
+            for (Long zoneId : uniqueZoneIds) {
+                FarmerZone zone = zones.get(zoneId);
+                if (zone == null) {
+                    invalid.add(BatchRecommendationItemDto.failed(ZONE, String.valueOf(zoneId), "Zone not found"));
+                } else {
+                    addTarget(new Target(ZONE, zone.getFarmer(), zoneId, zone.getLatitude(), zone.getLongitude()), located, invalid);
+                }
+            }
+        }
+        return new Targets(located, invalid);
+    }
+    
+    private void addTarget(Target target, List<Target> located, List<BatchRecommendationItemDto> invalid) {
+        if (target.latitude() == null || target.longitude() == null) {
+            invalid.add(BatchRecommendationItemDto.failed(target.type(), target.ref(), "Location is not set"));
+        } else {
+            located.add(target);
+        }
+    }
+    
+    private Flux<BatchRecommendationItemDto> scoreTargets(Targets targets, LocalDate date) {
+        Map<String, List<Target>> byWeatherCell = new LinkedHashMap<>();
+        Set<Long> gridCells = new HashSet<>();
+        for (Target target : targets.located()) {
+            byWeatherCell.computeIfAbsent(weatherCache.cellFor(target.latitude(), target.longitude()),
+                    cell -> new ArrayList<>()).add(target);
+            gridCells.add(NasaPowerGrid.keyOf(target.latitude(), target.longitude()));
+        }
+        
+        // One ET0 lookup for every grid cell of the batch, shared by all weather cells
+        Mono<Map<Long, Double>> et0ByGridCell = gridCells.isEmpty() ? Mono.just(Map.of())
+                : nasaService.getLatestEvapotranspirationForCellsAsync(gridCells, date)
+                        .onErrorResume(e -> {
+                            log.warn("Batch ET0 lookup failed for {} grid cells: {}", gridCells.size(), e.getMessage());
+                            return Mono.just(Map.of());
+                        })
+                        .cache();
+        
+        Flux<BatchRecommendationItemDto> scored = Flux.fromIterable(byWeatherCell.values())
+                .flatMap(group -> {
+                    Target first = group.get(0);
+                    return weatherService.getCurrentWeatherAsync(first.latitude(), first.longitude())
+                            .zipWith(et0ByGridCell)
+                            .flatMapMany(data -> Flux.fromIterable(group)
+                                    .flatMap(target -> Mono.fromCallable(() -> scoreTarget(target, data.getT1(), data.getT2()))
+                                            .subscribeOn(computeScheduler), computeParallelism))
+                            .switchIfEmpty(Flux.defer(() -> Flux.fromIterable(group)
+                                    .map(target -> BatchRecommendationItemDto.failed(target.type(), target.ref(),
+                                            "Weather data unavailable"))))
+                            .onErrorResume(e -> Flux.fromIterable(group)
+                                    .map(target -> BatchRecommendationItemDto.failed(target.type(), target.ref(),
+                                            "Weather data unavailable: " + e.getMessage())));
+                }, fetchConcurrency);
+        
+        return Flux.fromIterable(targets.invalid()).concatWith(scored);
+    }
+    
+    private BatchRecommendationItemDto scoreTarget(Target target, WeatherDto weather, Map<Long, Double> et0ByGridCell) {
+        Double et0 = et0ByGridCell.get(NasaPowerGrid.keyOf(target.latitude(), target.longitude()));
+        if (et0 == null) {
+            return BatchRecommendationItemDto.failed(target.type(), target.ref(), "Evapotranspiration data unavailable");
+        }
+        
+        Farmer farmer = target.farmer();
+        try {
+            RecommendationResult result = recommendationService.calculateRecommendation(farmer,
+                    cropCatalog.resolve(farmer.getPreferredCrop()), weather.getTempC(), weather.getHumidity(),
+                    weather.getRainfallMm(), weather.getForecastRainfallMm(), et0);
+            
+            BatchRecommendationItemDto item = toItem(target.type(), target.ref(), farmer.getPreferredCrop(),
+                    weather.getTempC(), weather.getHumidity(), weather.getRainfallMm(), et0, result);
+            item.setFarmerId(farmer.getId());
+            item.setZoneId(target.zoneId());
+            return item;
+        } catch (Exception e) {
+            log.error("Failed to score {} {}: {}", target.type(), target.ref(), e.getMessage());
+            return BatchRecommendationItemDto.failed(target.type(), target.ref(), "Scoring failed: " + e.getMessage());
+        }
+    }
+    
+    private BatchRecommendationItemDto scoreScenario(BatchRecommendationRequestDto.Scenario scenario) {
+        // Transient farmer: scoring only reads the crop and region
+        Farmer farmer = new Farmer();
+        farmer.setPreferredCrop(scenario.getCropType());
+        farmer.setLocationName(scenario.getRegion());
+        
+        try {
+            RecommendationResult result = recommendationService.calculateRecommendation(farmer,
+                    cropCatalog.resolve(scenario.getCropType()), scenario.getTempC(), scenario.getHumidity(),
+                    scenario.getRainfallMm(), scenario.getForecastRainfallMm(), scenario.getEt0());
+            return toItem(SCENARIO, scenario.getRef(), scenario.getCropType(), scenario.getTempC(),
+                    scenario.getHumidity(), scenario.getRainfallMm(), scenario.getEt0(), result);
+        } catch (Exception e) {
+            log.error("Failed to score {} {}: {}", SCENARIO, scenario.getRef(), e.getMessage());
+            return BatchRecommendationItemDto.failed(SCENARIO, scenario.getRef(), "Scoring failed: " + e.getMessage());
+        }
+    }
+    
+    private static BatchRecommendationItemDto toItem(String type, String ref, String cropType, Double tempC,
+                                                     Double humidity, Double rainfallMm, Double et0,
+                                                     RecommendationResult result) {
+        BatchRecommendationItemDto item = new BatchRecommendationItemDto();
+        item.setType(type);
+        item.setRef(ref);
+        item.setCropType(cropType);
+        item.setTempC(tempC);
+        item.setHumidity(humidity);
+        item.setRainfallMm(rainfallMm);
+        item.setEt0(et0);
+        item.setRecommendation(result.getRecommendation());
+        item.setScore(result.getScore());
+        item.setExplanation(result.getExplanation());
+        item.setWaterSavedLiters(result.getWaterSavedLiters());
+        return item;
+    }
+    
+    private record Target(String type, Farmer farmer, Long zoneId, Double latitude, Double longitude) {
+        String ref() {
+            return String.valueOf(zoneId != null ? zoneId : farmer.getId());
+        }
+    }
+    
+    private record Targets(List<Target> located, List<BatchRecommendationItemDto> invalid) {
+    }
+}
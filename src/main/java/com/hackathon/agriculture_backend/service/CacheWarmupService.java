@@ -0,0 +1,190 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.repository.FarmerRepository;
+import com.hackathon.agriculture_backend.repository.FarmerZoneRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prefetches weather and ET0 for every distinct location cell a configurable lead time
+ * before the daily recommendation and heat alert jobs, so those jobs run from memory. Only
+ * the cells a job reads are warmed: opted-in farmers and their zones for the daily job, the
+ * farmers alone for heat alerts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmupService implements SchedulingConfigurer {
+    
+    private final FarmerRepository farmerRepository;
+    private final FarmerZoneRepository farmerZoneRepository;
+    private final WeatherService weatherService;
+    private final WeatherSnapshotCache weatherCache;
+    private final RegionalEt0Service regionalEt0Service;
+    private final MeterRegistry meterRegistry;
+    
+    private final AtomicInteger cellsTotal = new AtomicInteger();
+    private final AtomicInteger cellsCompleted = new AtomicInteger();
+    
+    @Value("${app.scheduler.enabled:true}")
+    private boolean schedulerEnabled;
+    
+    @Value("${app.scheduler.warmup.enabled:true}")
+    private boolean warmupEnabled;
+    
+    @Value("${app.scheduler.warmup.lead-time:5m}")
+    private Duration leadTime;
+    
+    @Value("${app.scheduler.warmup.concurrency:8}")
+    private int concurrency;
+    
+    @Value("${app.scheduler.daily-recommendation.cron:0 0 6 * * ?}")
+    private String dailyRecommendationCron;
+    
+    @Value("${app.scheduler.heat-alert.cron:0 0 12 * * ?}")
+    private String heatAlertCron;
+    
+    @PostConstruct
+    public void init() {
+        Gauge.builder("scheduler.warmup.cells", cellsTotal, AtomicInteger::get)
+                .description("Location cells in the current or last warm-up")
+                .tag("state", "total")
+                .register(meterRegistry);
+        Gauge.builder("scheduler.warmup.cells", cellsCompleted, AtomicInteger::get)
+                .description("Location cells in the current or last warm-up")
+                .tag("state", "completed")
+                .register(meterRegistry);
+        
+        Duration currentTtl = weatherCache.getTtl(WeatherSnapshotCache.DataType.CURRENT);
+        if (warmupEnabled && leadTime.compareTo(currentTtl) >= 0) {
+            log.warn("Warm-up lead time {} is not below the current weather TTL {}; warmed data will expire before the jobs run",
+                    leadTime, currentTtl);
+        }
+    }
+    
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (!warmupEnabled) {
+            log.info("Cache warm-up is disabled");
+            return;
+        }
+        // The evening reminder job only reads recommendations, so it gets no warm-up
+        taskRegistrar.addTriggerTask(() -> warmUp("daily-recommendation", true, true), leadTrigger(dailyRecommendationCron));
+        taskRegistrar.addTriggerTask(() -> warmUp("heat-alert", false, false), leadTrigger(heatAlertCron));
+    }
+    
+    /**
+     * Prefetch current weather for every distinct cell of opted-in farmers, and optionally of
+     * their zones and today's ET0, with bounded concurrency. Failures are counted and never
+     * abort the warm-up.
+     */
+    public void warmUp(String job, boolean includeZones, boolean includeEt0) {
+        if (!schedulerEnabled) {
+            log.info("Scheduler is disabled, skipping cache warm-up for {}", job);
+            return;
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<String, double[]> cells = collectWeatherCells(includeZones);
+        cellsTotal.set(cells.size());
+        cellsCompleted.set(0);
+        log.info("Starting cache warm-up for {} with {} weather cells", job, cells.size());
+        
+        Mono<Void> weather = Flux.fromIterable(cells.values())
+                .flatMap(coordinates -> weatherService.getCurrentWeatherAsync(coordinates[0], coordinates[1])
+                        .doOnNext(w -> meterRegistry.counter("scheduler.warmup.requests",
+                                "job", job, "type", "weather", "result", "success").increment())
+                        .onErrorResume(e -> {
+                            meterRegistry.counter("scheduler.warmup.requests",
+                                    "job", job, "type", "weather", "result", "failure").increment();
+                            log.warn("Weather warm-up failed for {}, {}: {}", coordinates[0], coordinates[1], e.getMessage());
+                            return Mono.empty();
+                        })
+                        .doFinally(signal -> cellsCompleted.incrementAndGet()), concurrency)
+                .then();
+        
+        Mono<Void> et0 = !includeEt0 ? Mono.empty() : Mono.fromRunnable(() -> {
+                    regionalEt0Service.getEt0ForAllLocations(LocalDate.now());
+                    meterRegistry.counter("scheduler.warmup.requests",
+                            "job", job, "type", "et0", "result", "success").increment();
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    meterRegistry.counter("scheduler.warmup.requests",
+                            "job", job, "type", "et0", "result", "failure").increment();
+                    log.warn("ET0 warm-up failed: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+        
+        try {
+            Mono.when(weather, et0).block();
+        } finally {
+            long nanos = sample.stop(Timer.builder("scheduler.warmup.duration")
+                    .description("Time spent warming caches ahead of scheduled jobs")
+                    .tag("job", job)
+                    .register(meterRegistry));
+            log.info("Cache warm-up for {} completed in {} ms ({} cells)",
+                    job, Duration.ofNanos(nanos).toMillis(), cellsCompleted.get());
+        }
+    }
+    
+    /**
+     * Fires the lead time before each execution of the target cron.
+     */
+    private Trigger leadTrigger(String cron) {
+        CronExpression expression = CronExpression.parse(cron);
+        return triggerContext -> {
+            ZonedDateTime earliestTarget = ZonedDateTime.ofInstant(Instant.now().plus(leadTime), ZoneId.systemDefault());
+            ZonedDateTime target = expression.next(earliestTarget);
+            return target != null ? target.toInstant().minus(leadTime) : null;
+        };
+    }
+    
+    private Map<String, double[]> collectWeatherCells(boolean includeZones) {
+        Map<String, double[]> cells = new LinkedHashMap<>();
+        addCells(cells, farmerRepository.findSmsOptInCoordinates());
+        if (includeZones) {
+            addCells(cells, farmerZoneRepository.findSmsOptInZoneCoordinates());
+        }
+        return cells;
+    }
+    
+    private void addCells(Map<String, double[]> cells, List<Object[]> coordinates) {
+        for (Object[] row : coordinates) {
+            if (row[1] == null || row[2] == null) {
+                continue;
+            }
+            double latitude = (Double) row[1];
+            double longitude = (Double) row[2];
+            try {
+                cells.putIfAbsent(weatherCache.cellFor(latitude, longitude), new double[] {latitude, longitude});
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping invalid coordinates in warm-up: {}, {}", latitude, longitude);
+            }
+        }
+    }
+}
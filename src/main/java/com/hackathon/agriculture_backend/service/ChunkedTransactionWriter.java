@@ -0,0 +1,98 @@
+package com.hackathon.agriculture_backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Writes scheduled job results in short transactions of at most app.scheduler.write-chunk-size
+ * items. Each chunk commits on its own, so a failed chunk never rolls back earlier ones, and a
+ * database connection is held only for the duration of one chunk.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedTransactionWriter {
+    
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${app.scheduler.write-chunk-size:100}")
+    private int chunkSize;
+    
+    @Value("${app.scheduler.write-chunk-timeout:30s}")
+    private Duration chunkTimeout;
+    
+    @PostConstruct
+    public void init() {
+        if (chunkSize < 1) {
+            throw new IllegalStateException("app.scheduler.write-chunk-size must be at least 1");
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Never join a caller's transaction: each chunk must commit independently
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setTimeout((int) Math.max(1, chunkTimeout.toSeconds()));
+    }
+    
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    /**
+     * Write one chunk in its own transaction; throws if it was rolled back.
+     */
+    public <T> void writeChunk(String job, List<T> chunk, Consumer<List<T>> writer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        execute(job, () -> {
+            writer.accept(chunk);
+            return null;
+        });
+    }
+    
+    /**
+     * Run one unit of work (e.g. read, modify and write a page) in its own chunk transaction.
+     */
+    public <R> R execute(String job, Supplier<R> work) {
+        try {
+            R result = transactionTemplate.execute(status -> work.get());
+            meterRegistry.counter("scheduler.write.chunks", "job", job, "result", "success").increment();
+            return result;
+        } catch (RuntimeException e) {
+            meterRegistry.counter("scheduler.write.chunks", "job", job, "result", "failure").increment();
+            throw e;
+        }
+    }
+    
+    /**
+     * Write all items chunk by chunk and return the items of chunks that failed.
+     */
+    public <T> List<T> writeAll(String job, List<T> items, Consumer<List<T>> writer) {
+        List<T> failed = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<T> chunk = items.subList(from, Math.min(items.size(), from + chunkSize));
+            try {
+                writeChunk(job, chunk, writer);
+            } catch (RuntimeException e) {
+                log.error("{}: failed to write chunk of {} items: {}", job, chunk.size(), e.getMessage());
+                failed.addAll(chunk);
+            }
+        }
+        return failed;
+    }
+}
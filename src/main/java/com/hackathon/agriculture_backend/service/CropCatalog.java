@@ -0,0 +1,189 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.model.Crop;
+import com.hackathon.agriculture_backend.repository.CropRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable, case-insensitive snapshot of the active crops used for recommendation scoring.
+ * A cheap fingerprint query (count, max id, latest update time) triggers a reload when a crop
+ * is changed through JPA. Edits made directly in the database do not touch the fingerprint,
+ * so every app.crops.catalog.reload-every-checks-th check reloads regardless.
+ * Unknown names resolve to a shared default crop that is remembered until the next reload.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CropCatalog {
+    
+    private static final double DEFAULT_WATER_DEMAND = 5000.0;
+    private static final double DEFAULT_ET_THRESHOLD = 5.0;
+    
+    private final CropRepository cropRepository;
+    private final MeterRegistry meterRegistry;
+    
+    private volatile Snapshot snapshot;
+    private final AtomicInteger checksSinceReload = new AtomicInteger();
+    
+    @Value("${app.crops.catalog.reload-every-checks:10}")
+    private int reloadEveryChecks;
+    
+    @Value("${app.crops.catalog.max-unknown-names:10000}")
+    private int maxUnknownNames;
+    
+    @PostConstruct
+    public void init() {
+        Gauge.builder("crop.catalog.size", this, catalog -> catalog.snapshot != null ? catalog.snapshot.crops.size() : 0)
+                .description("Active crops in the in-memory catalog")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Catalog crop for the name, ignoring case and surrounding whitespace, or a default
+     * crop when the name is unknown or inactive. Returned crops are shared and must not be modified.
+     */
+    public Crop resolve(String name) {
+        Snapshot current = current();
+        String key = normalize(name);
+        Crop crop = current.crops.get(key);
+        if (crop != null) {
+            return crop;
+        }
+        
+        Crop fallback = current.unknown.get(key);
+        if (fallback != null) {
+            return fallback;
+        }
+        log.warn("Crop '{}' not found in catalog, using default values", name);
+        fallback = defaultCrop(name);
+        // Bounded so free-text crop names cannot grow the map without limit
+        if (current.unknown.size() < maxUnknownNames) {
+            current.unknown.putIfAbsent(key, fallback);
+        }
+        return fallback;
+    }
+    
+    public boolean contains(String name) {
+        return current().crops.containsKey(normalize(name));
+    }
+    
+    /**
+     * Reload if the crops table changed since the snapshot was built, or on every reload-every-checks-th check.
+     */
+    @Scheduled(fixedDelayString = "${app.crops.catalog.version-check-interval:PT1M}",
+            initialDelayString = "${app.crops.catalog.version-check-interval:PT1M}")
+    public void refreshIfChanged() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            long[] fingerprint = fingerprint();
+            if (!Arrays.equals(fingerprint, current.fingerprint)) {
+                log.info("Crop table changed, reloading crop catalog");
+                reload();
+            } else if (checksSinceReload.incrementAndGet() >= reloadEveryChecks) {
+                log.debug("Periodic crop catalog reload");
+                reload();
+            }
+        } catch (Exception e) {
+            log.warn("Crop catalog refresh failed, keeping the current snapshot: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Rebuild the snapshot now, e.g. right after crops were edited.
+     */
+    public synchronized void reload() {
+        // Fingerprint first: a change racing with the load triggers another reload on the next check
+        long[] fingerprint = fingerprint();
+        List<Crop> activeCrops = cropRepository.findByIsActiveTrue();
+        
+        Map<String, Crop> crops = new HashMap<>();
+        for (Crop crop : activeCrops) {
+            if (crop.getName() != null) {
+                crops.putIfAbsent(normalize(crop.getName()), copyOf(crop));
+            }
+        }
+        snapshot = new Snapshot(Map.copyOf(crops), fingerprint);
+        checksSinceReload.set(0);
+        log.info("Crop catalog loaded with {} active crops", crops.size());
+    }
+    
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+    
+    private long[] fingerprint() {
+        List<Object[]> rows = cropRepository.findCatalogFingerprint();
+        Object[] row = rows.get(0);
+        return new long[] {
+                ((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                row[2] != null ? ((Instant) row[2]).toEpochMilli() : 0L
+        };
+    }
+    
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static Crop copyOf(Crop crop) {
+        Crop copy = new Crop();
+        copy.setId(crop.getId());
+        copy.setName(crop.getName());
+        copy.setWaterDemandLitersPerHectare(crop.getWaterDemandLitersPerHectare() != null
+                ? crop.getWaterDemandLitersPerHectare() : DEFAULT_WATER_DEMAND);
+        copy.setEtThreshold(crop.getEtThreshold() != null ? crop.getEtThreshold() : DEFAULT_ET_THRESHOLD);
+        copy.setDescription(crop.getDescription());
+        copy.setIsActive(crop.getIsActive());
+        copy.setUpdatedAt(crop.getUpdatedAt());
+        return copy;
+    }
+    
+    private static Crop defaultCrop(String name) {
+        // Default crop values based on common crops
+        Crop crop = new Crop();
+        crop.setName(name);
+        crop.setWaterDemandLitersPerHectare(DEFAULT_WATER_DEMAND);
+        crop.setEtThreshold(DEFAULT_ET_THRESHOLD);
+        crop.setIsActive(true);
+        return crop;
+    }
+    
+    private static final class Snapshot {
+        private final Map<String, Crop> crops;
+        private final long[] fingerprint;
+        // Negative lookups, dropped together with the snapshot on reload
+        private final Map<String, Crop> unknown = new ConcurrentHashMap<>();
+        
+        private Snapshot(Map<String, Crop> crops, long[] fingerprint) {
+            this.crops = crops;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.RecommendationResult;
+import com.hackathon.agriculture_backend.dto.RegionalEt0Dto;
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.model.AlertLog;
+import com.hackathon.agriculture_backend.model.Farmer;
+import com.hackathon.agriculture_backend.model.FarmerZone;
+import com.hackathon.agriculture_backend.model.IrrigationRecommendation;
+import com.hackathon.agriculture_backend.repository.FarmerZoneRepository;
+import com.hackathon.agriculture_backend.util.LongHashSet;
+import com.hackathon.agriculture_backend.util.NasaPowerGrid;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Staged daily recommendation run: farmers and their zones are grouped by weather cell, weather
+ * and ET0 are fetched once per cell with bounded concurrency, recommendations are scored against
+ * the in-memory crop catalog on a dedicated CPU pool, and results are written in short chunked
+ * transactions before alerts go out. ET0 is the date's value or, until NASA POWER publishes it,
+ * the latest earlier day; a farmer or zone without any recent ET0 is skipped and counted as
+ * failed. Every zone gets its own recommendation, linked to the zone, but only the farm-level
+ * one is sent. No transaction is open while waiting on weather, NASA or SMS calls.
+ * Every stage reports processed and failed farmers and zones under scheduler.pipeline.items.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyRecommendationPipeline {
+    
+    private static final String JOB = "daily-recommendation";
+    
+    // Farmer ids per zone lookup, well below the bind parameter limits of supported databases
+    private static final int ZONE_LOOKUP_SIZE = 1_000;
+    
+    private final WeatherService weatherService;
+    private final WeatherSnapshotCache weatherCache;
+    private final NasaService nasaService;
+    private final RegionalEt0Service regionalEt0Service;
+    private final RecommendationService recommendationService;
+    private final FarmerZoneRepository farmerZoneRepository;
+    private final AlertService alertService;
+    private final ChunkedTransactionWriter chunkedWriter;
+    private final CropCatalog cropCatalog;
+    private final MeterRegistry meterRegistry;
+    
+    private Scheduler computeScheduler;
+    
+    @Value("${app.scheduler.pipeline.fetch-concurrency:8}")
+    private int fetchConcurrency;
+    
+    // 0 means one thread per available processor
+    @Value("${app.scheduler.pipeline.compute-parallelism:0}")
+    private int computeParallelism;
+    
+    @Value("${app.scheduler.pipeline.alert-concurrency:8}")
+    private int alertConcurrency;
+    
+    @PostConstruct
+    public void init() {
+        if (computeParallelism <= 0) {
+            computeParallelism = Runtime.getRuntime().availableProcessors();
+        }
+        computeScheduler = Schedulers.newParallel("recommendation-compute", computeParallelism);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        computeScheduler.dispose();
+    }
+    
+    /**
+     * Produce, save and send today's recommendation for every farmer, and save one for every
+     * zone of those farmers, that has none yet. Failures are counted per farmer or zone and
+     * never abort the run.
+     */
+    public Summary run(List<Farmer> farmers, LocalDate date) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AtomicInteger recommended = new AtomicInteger();
+        AtomicInteger zonesRecommended = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        
+        RegionalEt0Dto regionalEt0 = resolveRegionalEt0(date);
+        
+        // Stage 1: group farmers and zones without a recommendation by weather cell. Finished ones
+        // come from one query each, so a rerun after a partial failure only pays for the rest.
+        LongHashSet done = recommendationService.getFarmerIdsWithRecommendation(date);
+        LongHashSet zonesDone = recommendationService.getZoneIdsWithRecommendation(date);
+        Map<Long, List<FarmerZone>> zonesByFarmer = loadZones(farmers);
+        Map<String, List<Target>> groups = new LinkedHashMap<>();
+        int skipped = 0;
+        int targets = 0;
+        for (Farmer farmer : farmers) {
+            List<Target> farmerTargets = new ArrayList<>();
+            if (done.contains(farmer.getId())) {
+                skipped++;
+            } else {
+                farmerTargets.add(new Target(farmer, null));
+            }
+            for (FarmerZone zone : zonesByFarmer.getOrDefault(farmer.getId(), List.of())) {
+                if (zonesDone.contains(zone.getId())) {
+                    skipped++;
+                } else {
+                    farmerTargets.add(new Target(farmer, zone));
+                }
+            }
+            for (Target target : farmerTargets) {
+                try {
+                    groups.computeIfAbsent(weatherCache.cellFor(target.latitude(), target.longitude()),
+                            cell -> new ArrayList<>()).add(target);
+                    targets++;
+                    count("group", "success", 1);
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    count("group", "failure", 1);
+                    log.error("Failed to group {} - {}", target.label(), e.getMessage());
+                }
+            }
+        }
+        count("group", "skipped", skipped);
+        log.info("Daily pipeline: {} farmers and zones to process in {} weather cells, {} already have a recommendation",
+                targets, groups.size(), skipped);
+        
+        Mono<Map<Long, Double>> uncoveredEt0 = resolveUncoveredEt0(groups, regionalEt0, date);
+        
+        Flux.fromIterable(groups.values())
+                // Stage 2: one weather request per cell, ET0 from the regional lookup
+                .flatMap(group -> fetchGroup(group, regionalEt0, uncoveredEt0, failed), fetchConcurrency)
+                // Stage 3: scoring on the compute pool
+                .flatMap(input -> Mono.fromCallable(() -> score(input))
+                        .subscribeOn(computeScheduler)
+                        .doOnNext(scored -> count("compute", "success", 1))
+                        .onErrorResume(e -> {
+                            failed.incrementAndGet();
+                            count("compute", "failure", 1);
+                            log.error("Failed to score {} - {}", input.target().label(), e.getMessage());
+                            return Mono.empty();
+                        }), computeParallelism)
+                // Stage 4: chunked writes, alerts sent with bounded concurrency, alert logs written in chunks.
+                // Chunks are written one at a time, so the run holds at most one connection.
+                .buffer(chunkedWriter.getChunkSize())
+                .concatMap(batch -> Mono.fromCallable(() -> write(batch, date, failed))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMapIterable(saved -> saved)
+                // Zone recommendations are for the dashboard; only the farm-level one is sent
+                .filter(item -> {
+                    if (item.input().target().zone() == null) {
+                        return true;
+                    }
+                    zonesRecommended.incrementAndGet();
+                    return false;
+                })
+                .flatMap(item -> Mono.fromCallable(() -> notify(item, recommended, failed))
+                        .subscribeOn(Schedulers.boundedElastic()), alertConcurrency)
+                .flatMapIterable(alertLogs -> alertLogs)
+                .buffer(chunkedWriter.getChunkSize())
+                .concatMap(alertLogs -> Mono.fromRunnable(() -> writeAlertLogs(alertLogs))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .then()
+                .block();
+        
+        long nanos = sample.stop(Timer.builder("scheduler.pipeline.duration")
+                .description("Wall time of a recommendation pipeline run")
+                .tag("job", JOB)
+                .register(meterRegistry));
+        return new Summary(farmers.size(), skipped, recommended.get(), zonesRecommended.get(), failed.get(),
+                groups.size(), Duration.ofNanos(nanos));
+    }
+    
+    /**
+     * Zones of the farmers, by farmer id. Without them the run still covers the farms.
+     */
+    private Map<Long, List<FarmerZone>> loadZones(List<Farmer> farmers) {
+        Map<Long, List<FarmerZone>> zonesByFarmer = new HashMap<>();
+        List<Long> farmerIds = new ArrayList<>(farmers.size());
+        for (Farmer farmer : farmers) {
+            if (farmer.getId() != null) {
+                farmerIds.add(farmer.getId());
+            }
+        }
+        try {
+            for (int from = 0; from < farmerIds.size(); from += ZONE_LOOKUP_SIZE) {
+                List<Long> ids = farmerIds.subList(from, Math.min(farmerIds.size(), from + ZONE_LOOKUP_SIZE));
+                for (FarmerZone zone : farmerZoneRepository.findByFarmerIdIn(ids)) {
+                    // The farmer proxy answers its id without being loaded
+                    zonesByFarmer.computeIfAbsent(zone.getFarmer().getId(), id -> new ArrayList<>()).add(zone);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to load farmer zones, recommending farms only: {}", e.getMessage());
+            return Map.of();
+        }
+        return zonesByFarmer;
+    }
+    
+    /**
+     * One lookup, on first use, for the grid cells the regional result did not cover, such as
+     * zones added since it was resolved or every cell when the regional lookup failed.
+     */
+    private Mono<Map<Long, Double>> resolveUncoveredEt0(Map<String, List<Target>> groups, RegionalEt0Dto regionalEt0,
+                                                        LocalDate date) {
+        Set<Long> uncovered = new HashSet<>();
+        for (List<Target> group : groups.values()) {
+            for (Target target : group) {
+                long cell = NasaPowerGrid.keyOf(target.latitude(), target.longitude());
+                if (regionalEt0Of(target, regionalEt0) == null && !regionalEt0.getCells().contains(cell)) {
+                    uncovered.add(cell);
+                }
+            }
+        }
+        if (uncovered.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return Mono.defer(() -> {
+                    log.info("Looking up ET0 for {} grid cells outside the regional result", uncovered.size());
+                    return nasaService.getLatestEvapotranspirationForCellsAsync(uncovered, date);
+                })
+                .onErrorResume(e -> {
+                    log.error("ET0 lookup failed for {} grid cells: {}", uncovered.size(), e.getMessage());
+                    return Mono.just(Map.of());
+                })
+                .cache();
+    }
+    
+    private Flux<FarmerInput> fetchGroup(List<Target> group, RegionalEt0Dto regionalEt0,
+                                         Mono<Map<Long, Double>> uncoveredEt0, AtomicInteger failed) {
+        Target first = group.get(0);
+        
+        return weatherService.getCurrentWeatherAsync(first.latitude(), first.longitude())
+                .flatMapMany(weather -> Flux.fromIterable(group)
+                        .concatMap(target -> et0For(target, regionalEt0, uncoveredEt0)
+                                .map(et0 -> new FarmerInput(target, weather, et0))
+                                .doOnNext(input -> count("fetch", "success", 1))
+                                .onErrorResume(e -> {
+                                    failed.incrementAndGet();
+                                    count("fetch", "failure", 1);
+                                    log.error("Failed to fetch ET0 for {} - {}", target.label(), e.getMessage());
+                                    return Mono.empty();
+                                })))
+                .onErrorResume(e -> {
+                    failed.addAndGet(group.size());
+                    count("fetch", "failure", group.size());
+                    log.error("Failed to fetch weather for {} farmers and zones near {}, {} - {}",
+                            group.size(), first.latitude(), first.longitude(), e.getMessage());
+                    return Flux.empty();
+                });
+    }
+    
+    private Mono<Double> et0For(Target target, RegionalEt0Dto regionalEt0, Mono<Map<Long, Double>> uncoveredEt0) {
+        Double et0 = regionalEt0Of(target, regionalEt0);
+        if (et0 != null) {
+            return Mono.just(et0);
+        }
+        long cell = NasaPowerGrid.keyOf(target.latitude(), target.longitude());
+        // A covered cell without a value has no recent ET0; it is not requested again
+        Mono<Map<Long, Double>> values = regionalEt0.getCells().contains(cell) ? Mono.just(Map.of()) : uncoveredEt0;
+        return values.flatMap(byCell -> Mono.justOrEmpty(byCell.get(cell)))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("No recent ET0 published for the location")));
+    }
+    
+    private static Double regionalEt0Of(Target target, RegionalEt0Dto regionalEt0) {
+        return target.zone() != null
+                ? regionalEt0.getZoneEt0().get(target.zone().getId())
+                : regionalEt0.getFarmerEt0().get(target.farmer().getId());
+    }
+    
+    private ScoredFarmer score(FarmerInput input) {
+        Farmer farmer = input.farmer();
+        WeatherDto weather = input.weather();
+        RecommendationResult result = recommendationService.calculateRecommendation(
+                farmer,
+                cropCatalog.resolve(farmer.getPreferredCrop()),
+                weather.getTempC(),
+                weather.getHumidity(),
+                weather.getRainfallMm(),
+                weather.getForecastRainfallMm(),
+                input.et0()
+        );
+        return new ScoredFarmer(input, result);
+    }
+    
+    private List<SavedRecommendation> write(List<ScoredFarmer> batch, LocalDate date, AtomicInteger failed) {
+        List<IrrigationRecommendation> recommendations = new ArrayList<>(batch.size());
+        for (ScoredFarmer scored : batch) {
+            Target target = scored.input().target();
+            Farmer farmer = target.farmer();
+            WeatherDto weather = scored.input().weather();
+            recommendations.add(recommendationService.buildRecommendation(
+                    farmer,
+                    target.zone(),
+                    date,
+                    farmer.getPreferredCrop(),
+                    target.locationName(),
+                    weather.getTempC(),
+                    weather.getHumidity(),
+                    weather.getRainfallMm(),
+                    weather.getForecastRainfallMm(),
+                    scored.input().et0(),
+                    scored.result()
+            ));
+        }
+        
+        List<SavedRecommendation> saved = new ArrayList<>(batch.size());
+        try {
+            chunkedWriter.writeChunk(JOB, recommendations, recommendationService::saveRecommendations);
+            for (int i = 0; i < recommendations.size(); i++) {
+                saved.add(new SavedRecommendation(batch.get(i).input(), recommendations.get(i)));
+            }
+            count("write", "success", recommendations.size());
+        } catch (Exception e) {
+            // One invalid row rolls back the chunk; retry individually so only that farmer fails
+            log.warn("Chunk write of {} recommendations failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < recommendations.size(); i++) {
+                try {
+                    IrrigationRecommendation row = recommendations.get(i);
+                    row.setId(null);
+                    chunkedWriter.writeChunk(JOB, List.of(row), recommendationService::saveRecommendations);
+                    saved.add(new SavedRecommendation(batch.get(i).input(), row));
+                    count("write", "success", 1);
+                } catch (Exception single) {
+                    failed.incrementAndGet();
+                    count("write", "failure", 1);
+                    log.error("Failed to save recommendation for {} - {}",
+                            batch.get(i).input().target().label(), single.getMessage());
+                }
+            }
+        }
+        return saved;
+    }
+    
+    /**
+     * Send the farmer's alerts outside any transaction and return their unsaved logs.
+     */
+    private List<AlertLog> notify(SavedRecommendation item, AtomicInteger recommended, AtomicInteger failed) {
+        Farmer farmer = item.input().farmer();
+        WeatherDto weather = item.input().weather();
+        List<AlertLog> alertLogs = new ArrayList<>(2);
+        try {
+            alertLogs.add(alertService.deliverIrrigationRecommendationAlert(farmer, item.recommendation()));
+            if (weather.getHeatAlert() != null && weather.getHeatAlert()) {
+                alertLogs.add(alertService.deliverHeatAlert(farmer, weather.getTempC()));
+            }
+            recommended.incrementAndGet();
+            count("notify", "success", 1);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            count("notify", "failure", 1);
+            log.error("Failed to send recommendation alert to farmer: {} - {}", farmer.getName(), e.getMessage());
+        }
+        return alertLogs;
+    }
+    
+    private void writeAlertLogs(List<AlertLog> alertLogs) {
+        // Alerts already went out; a failed chunk only loses their log rows
+        try {
+            chunkedWriter.writeChunk(JOB, alertLogs, alertService::saveAlertLogs);
+            count("alert-log", "success", alertLogs.size());
+        } catch (Exception e) {
+            count("alert-log", "failure", alertLogs.size());
+            log.error("Failed to save {} alert logs: {}", alertLogs.size(), e.getMessage());
+        }
+    }
+    
+    private RegionalEt0Dto resolveRegionalEt0(LocalDate date) {
+        // Resolve ET0 for every farmer and zone up front with one NASA request per region
+        try {
+            return regionalEt0Service.getEt0ForAllLocations(date);
+        } catch (Exception e) {
+            log.warn("Regional ET0 lookup failed, looking up the run's cells instead: {}", e.getMessage());
+            return new RegionalEt0Dto(date, Map.of(), Map.of(), 0, Set.of(), Instant.now());
+        }
+    }
+    
+    private void count(String stage, String result, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter("scheduler.pipeline.items", "job", JOB, "stage", stage, "result", result)
+                    .increment(amount);
+        }
+    }
+    
+    /**
+     * A farmer's farm-level recommendation, or the recommendation for one of its zones.
+     */
+    private record Target(Farmer farmer, FarmerZone zone) {
+        Double latitude() {
+            return zone != null ? zone.getLatitude() : farmer.getLatitude();
+        }
+        
+        Double longitude() {
+            return zone != null ? zone.getLongitude() : farmer.getLongitude();
+        }
+        
+        String locationName() {
+            return zone != null ? zone.getName() : farmer.getLocationName();
+        }
+        
+        String label() {
+            return zone != null ? "zone " + zone.getId() + " of farmer: " + farmer.getName() : "farmer: " + farmer.getName();
+        }
+    }
+    
+    private record FarmerInput(Target target, WeatherDto weather, Double et0) {
+        Farmer farmer() {
+            return target.farmer();
+        }
+    }
+    
+    private record ScoredFarmer(FarmerInput input, RecommendationResult result) {
+    }
+    
+    private record SavedRecommendation(FarmerInput input, IrrigationRecommendation recommendation) {
+    }
+    
+    /**
+     * Outcome of one pipeline run.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Summary {
+        private final int farmers;
+        private final int skipped;
+        private final int recommended;
+        private final int zonesRecommended;
+        private final int failed;
+        private final int weatherCells;
+        private final Duration duration;
+    }
+}
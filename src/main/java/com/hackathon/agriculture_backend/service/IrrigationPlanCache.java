@@ -0,0 +1,158 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.IrrigationPlanDto;
+import com.hackathon.agriculture_backend.dto.WeatherSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Generated irrigation plans per weather cell. The plans of a cell belong to one forecast
+ * version (the fetch time of the snapshot they were built from); the first plan built from a
+ * newer snapshot replaces every plan of the cell, so a plan never outlives its forecast.
+ * Within a cell, plans are keyed on crop, area bucket, irrigation type, soil type, start date
+ * and scoring rule version.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IrrigationPlanCache {
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final ConcurrentHashMap<String, CellPlans> cells = new ConcurrentHashMap<>();
+    private Counter hitCounter;
+    private Counter missCounter;
+    
+    @Value("${app.irrigation.plan-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.irrigation.plan-cache.area-significant-digits:3}")
+    private int areaDigits;
+    
+    @Value("${app.irrigation.plan-cache.max-plans-per-cell:256}")
+    private int maxPlansPerCell;
+    
+    @Value("${app.irrigation.plan-cache.max-age:6h}")
+    private Duration maxAge;
+    
+    /**
+     * A plan and whether it came from the cache. Cached plans are shared and must not be modified.
+     */
+    public record CachedPlan(IrrigationPlanDto plan, Instant generatedAt, boolean hit) {
+        
+        public long getAgeSeconds() {
+            return Math.max(0, Duration.between(generatedAt, Instant.now()).getSeconds());
+        }
+    }
+    
+    public record PlanKey(String cropType, double areaBucket, String irrigationType, String soilType,
+                          LocalDate startDate, long rulesVersion) {
+    }
+    
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("irrigation.plan.cache.requests")
+                .description("Irrigation plan cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        missCounter = Counter.builder("irrigation.plan.cache.requests")
+                .description("Irrigation plan cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("irrigation.plan.cache.size", cells, map -> map.values().stream().mapToInt(c -> c.plans.size()).sum())
+                .description("Number of cached irrigation plans")
+                .register(meterRegistry);
+    }
+    
+    public PlanKey keyFor(String cropType, double areaBucket, String irrigationType, String soilType,
+                          LocalDate startDate, long rulesVersion) {
+        return new PlanKey(normalize(cropType), areaBucket, normalize(irrigationType), normalize(soilType),
+                startDate, rulesVersion);
+    }
+    
+    /**
+     * Area rounded to the configured significant digits; plans are generated for this area.
+     */
+    public double areaBucket(double area) {
+        if (!(area > 0) || Double.isInfinite(area)) {
+            throw new IllegalArgumentException("Area must be a positive number");
+        }
+        return new BigDecimal(area).round(new MathContext(areaDigits, RoundingMode.HALF_UP)).doubleValue();
+    }
+    
+    /**
+     * The cached plan for the key and the snapshot's forecast version, or a newly generated one.
+     */
+    public CachedPlan get(WeatherSnapshot snapshot, PlanKey key, Supplier<IrrigationPlanDto> generator) {
+        if (!enabled) {
+            return new CachedPlan(generator.get(), Instant.now(), false);
+        }
+        
+        Instant version = snapshot.getFetchedAt();
+        CellPlans plans = cells.compute(snapshot.getCell(), (cell, existing) ->
+                existing == null || existing.version.isBefore(version) ? new CellPlans(version) : existing);
+        if (!plans.version.equals(version)) {
+            // Built from an older snapshot than the cell's current plans; serve it but do not keep it
+            missCounter.increment();
+            return new CachedPlan(generator.get(), Instant.now(), false);
+        }
+        
+        CachedPlan cached = plans.plans.get(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return new CachedPlan(cached.plan(), cached.generatedAt(), true);
+        }
+        
+        missCounter.increment();
+        CachedPlan generated = new CachedPlan(generator.get(), Instant.now(), false);
+        // Bounded so free-text crop, soil and irrigation names cannot grow a cell without limit
+        if (plans.plans.size() < maxPlansPerCell) {
+            CachedPlan existing = plans.plans.putIfAbsent(key, generated);
+            if (existing != null) {
+                return new CachedPlan(existing.plan(), existing.generatedAt(), true);
+            }
+        }
+        return generated;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.weather.cache.purge-interval:PT5M}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(maxAge);
+        int before = cells.size();
+        cells.values().removeIf(plans -> plans.version.isBefore(cutoff));
+        int removed = before - cells.size();
+        if (removed > 0) {
+            log.debug("Purged irrigation plans of {} cells", removed);
+        }
+    }
+    
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class CellPlans {
+        final Instant version;
+        final ConcurrentHashMap<PlanKey, CachedPlan> plans = new ConcurrentHashMap<>();
+        
+        CellPlans(Instant version) {
+            this.version = version;
+        }
+    }
+}
@@ -1,120 +1,530 @@
 package com.hackathon.agriculture_backend.service;
 
 import com.hackathon.agriculture_backend.dto.NasaEtDto;
+import com.hackathon.agriculture_backend.dto.NasaRegionalDto;
+import com.hackathon.agriculture_backend.model.Et0Observation;
+import com.hackathon.agriculture_backend.repository.Et0ObservationRepository;
+import com.hackathon.agriculture_backend.util.NasaPowerGrid;
+import com.hackathon.agriculture_backend.util.UpstreamGuard;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClientRequest;
 
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NasaService {
     
-    private final WebClient.Builder webClientBuilder;
+    // Regional endpoint accepts bounding boxes between 2 and 10 degrees on each axis
+    private static final double REGION_MIN_SPAN = 2.0;
+    private static final double REGION_MAX_SPAN = 10.0;
+    
+    @Qualifier("nasaPowerWebClient")
+    private final WebClient webClient;
+    @Qualifier("nasaPowerGuard")
+    private final UpstreamGuard nasaPowerGuard;
+    @Qualifier("nasaPowerRegionalGuard")
+    private final UpstreamGuard nasaPowerRegionalGuard;
+    private final Et0ObservationRepository et0Repository;
+    private final MeterRegistry meterRegistry;
     
     @Value("${app.nasa.api.url}")
     private String apiUrl;
     
+    @Value("${app.nasa.api.regional-url:https://power.larc.nasa.gov/api/temporal/daily/regional}")
+    private String regionalApiUrl;
+    
+    @Value("${app.nasa.regional.max-concurrency:2}")
+    private int regionalConcurrency;
+    
+    // Earlier days tried for cells without ET0 on the requested date
+    @Value("${app.nasa.et0.fallback-days:7}")
+    private int fallbackDays;
+    
     public Double getEvapotranspiration(Double latitude, Double longitude, LocalDate date) {
+        return getEvapotranspirationAsync(latitude, longitude, date).block();
+    }
+    
+    /**
+     * ET0 for the location on the date; empty when NASA POWER has no value for it (yet).
+     */
+    public Mono<Double> getEvapotranspirationAsync(Double latitude, Double longitude, LocalDate date) {
         log.info("Fetching evapotranspiration for coordinates: {}, {} on date: {}", latitude, longitude, date);
         
-        try {
-            String startDate = date.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-            String endDate = date.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-            
-            String url = String.format("%s?start=%s&end=%s&latitude=%s&longitude=%s&parameters=ET0&format=JSON",
-                    apiUrl, startDate, endDate, latitude, longitude);
-            
-            NasaEtDto nasaData = webClientBuilder.build()
-                    .get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(NasaEtDto.class)
-                    .timeout(Duration.ofSeconds(30))
-                    .block();
-            
-            if (nasaData != null && 
-                nasaData.getParameters() != null && 
-                nasaData.getParameters().getEt0() != null && 
-                nasaData.getParameters().getEt0().getData() != null && 
-                !nasaData.getParameters().getEt0().getData().isEmpty()) {
-                
-                Double et0 = nasaData.getParameters().getEt0().getData().get(0);
-                log.info("ET0 data fetched successfully: {} mm/day", et0);
-                return et0;
-            }
-            
-            log.warn("No ET0 data available for the specified date and location");
-            return 0.0;
-            
-        } catch (WebClientResponseException e) {
-            log.error("Error fetching NASA ET0 data: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch NASA ET0 data: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error fetching NASA ET0 data", e);
-            throw new RuntimeException("Failed to fetch NASA ET0 data: " + e.getMessage());
-        }
+        return getEt0SeriesAsync(latitude, longitude, date, date)
+                .flatMap(series -> {
+                    Double et0 = series.get(date);
+                    if (et0 == null) {
+                        log.warn("No ET0 data available for the specified date and location");
+                        return Mono.empty();
+                    }
+                    log.info("ET0 data resolved: {} mm/day", et0);
+                    return Mono.just(et0);
+                })
+                .onErrorMap(e -> new RuntimeException("Failed to fetch NASA ET0 data: " + e.getMessage(), e));
     }
     
     public Double getEvapotranspirationForDateRange(Double latitude, Double longitude, LocalDate startDate, LocalDate endDate) {
-        log.info("Fetching evapotranspiration for coordinates: {}, {} from {} to {}", 
+        return getEvapotranspirationForDateRangeAsync(latitude, longitude, startDate, endDate).block();
+    }
+    
+    public Mono<Double> getEvapotranspirationForDateRangeAsync(Double latitude, Double longitude,
+                                                               LocalDate startDate, LocalDate endDate) {
+        log.info("Fetching evapotranspiration for coordinates: {}, {} from {} to {}",
                 latitude, longitude, startDate, endDate);
         
-        try {
-            String startDateStr = startDate.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-            String endDateStr = endDate.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-            
-            String url = String.format("%s?start=%s&end=%s&latitude=%s&longitude=%s&parameters=ET0&format=JSON",
-                    apiUrl, startDateStr, endDateStr, latitude, longitude);
-            
-            NasaEtDto nasaData = webClientBuilder.build()
-                    .get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(NasaEtDto.class)
-                    .timeout(Duration.ofSeconds(30))
-                    .block();
-            
-            if (nasaData != null && 
-                nasaData.getParameters() != null && 
-                nasaData.getParameters().getEt0() != null && 
-                nasaData.getParameters().getEt0().getData() != null && 
-                !nasaData.getParameters().getEt0().getData().isEmpty()) {
-                
-                // Calculate average ET0 for the date range
-                double sum = nasaData.getParameters().getEt0().getData().stream()
-                        .mapToDouble(Double::doubleValue)
-                        .sum();
-                Double averageEt0 = sum / nasaData.getParameters().getEt0().getData().size();
-                
-                log.info("Average ET0 data fetched successfully: {} mm/day for {} days", 
-                        averageEt0, nasaData.getParameters().getEt0().getData().size());
-                return averageEt0;
+        return getEt0SeriesAsync(latitude, longitude, startDate, endDate)
+                .map(series -> {
+                    if (series.isEmpty()) {
+                        log.warn("No ET0 data available for the specified date range and location");
+                        return 0.0;
+                    }
+                    Double averageEt0 = sum(series) / series.size();
+                    log.info("Average ET0 resolved: {} mm/day for {} days", averageEt0, series.size());
+                    return averageEt0;
+                })
+                .onErrorMap(e -> new RuntimeException("Failed to fetch NASA ET0 data for date range: " + e.getMessage(), e));
+    }
+    
+    /**
+     * Total ET0 (mm) over the date range, computed from the local store.
+     */
+    public Double getEvapotranspirationSum(Double latitude, Double longitude, LocalDate startDate, LocalDate endDate) {
+        return sum(getEt0Series(latitude, longitude, startDate, endDate));
+    }
+    
+    /**
+     * Trailing rolling average of ET0 for every day in the range, over the given window.
+     * Days without data are skipped; a day with no data in its window is omitted.
+     */
+    public NavigableMap<LocalDate, Double> getRollingEvapotranspiration(Double latitude, Double longitude,
+                                                                        LocalDate startDate, LocalDate endDate,
+                                                                        int windowDays) {
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("Rolling window must be at least one day");
+        }
+        NavigableMap<LocalDate, Double> series = getEt0Series(latitude, longitude,
+                startDate.minusDays(windowDays - 1), endDate);
+        
+        NavigableMap<LocalDate, Double> rolling = new TreeMap<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            NavigableMap<LocalDate, Double> window = series.subMap(day.minusDays(windowDays - 1), true, day, true);
+            if (!window.isEmpty()) {
+                rolling.put(day, sum(window) / window.size());
             }
-            
-            log.warn("No ET0 data available for the specified date range and location");
-            return 0.0;
-            
-        } catch (WebClientResponseException e) {
-            log.error("Error fetching NASA ET0 data for date range: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch NASA ET0 data for date range: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error fetching NASA ET0 data for date range", e);
-            throw new RuntimeException("Failed to fetch NASA ET0 data for date range: " + e.getMessage());
         }
+        return rolling;
+    }
+    
+    public NavigableMap<LocalDate, Double> getEt0Series(Double latitude, Double longitude,
+                                                        LocalDate startDate, LocalDate endDate) {
+        return getEt0SeriesAsync(latitude, longitude, startDate, endDate).block();
+    }
+    
+    /**
+     * Daily ET0 series for the grid cell containing the coordinates. Stored days are read
+     * locally; only the span of missing days is requested from NASA POWER, and completed
+     * past days are persisted so they are never fetched again. Fill values are dropped.
+     */
+    public Mono<NavigableMap<LocalDate, Double>> getEt0SeriesAsync(Double latitude, Double longitude,
+                                                                   LocalDate startDate, LocalDate endDate) {
+        int row = NasaPowerGrid.row(latitude);
+        int col = NasaPowerGrid.col(longitude);
+        
+        return Mono.fromCallable(() -> loadStored(row, col, startDate, endDate))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(series -> {
+                    LocalDate firstMissing = firstMissing(series, startDate, endDate);
+                    if (firstMissing == null) {
+                        meterRegistry.counter("nasa.et0.days", "source", "local").increment(series.size());
+                        return Mono.just(series);
+                    }
+                    LocalDate lastMissing = lastMissing(series, startDate, endDate);
+                    meterRegistry.counter("nasa.et0.days", "source", "local").increment(series.size());
+                    
+                    return fetchEt0(NasaPowerGrid.centerLatitude(row), NasaPowerGrid.centerLongitude(col),
+                                    firstMissing, lastMissing)
+                            .flatMap(data -> {
+                                List<Et0Observation> newObservations = new ArrayList<>();
+                                LocalDate today = LocalDate.now();
+                                for (int i = 0; i < data.size(); i++) {
+                                    LocalDate day = firstMissing.plusDays(i);
+                                    Double value = data.get(i);
+                                    // NASA POWER marks unavailable days with negative fill values
+                                    if (day.isAfter(lastMissing) || value == null || value < 0 || series.containsKey(day)) {
+                                        continue;
+                                    }
+                                    series.put(day, value);
+                                    if (day.isBefore(today)) {
+                                        newObservations.add(new Et0Observation(row, col, day, value));
+                                    }
+                                }
+                                meterRegistry.counter("nasa.et0.days", "source", "remote").increment(data.size());
+                                
+                                if (newObservations.isEmpty()) {
+                                    return Mono.just(series);
+                                }
+                                return Mono.fromRunnable(() -> persist(newObservations))
+                                        .subscribeOn(Schedulers.boundedElastic())
+                                        .thenReturn(series);
+                            });
+                });
+    }
+    
+    public Map<Long, Double> getEvapotranspirationForCells(Collection<Long> cellKeys, LocalDate date) {
+        return getEvapotranspirationForCellsAsync(cellKeys, date).block();
+    }
+    
+    /**
+     * ET0 on one date for many grid cells (see {@link NasaPowerGrid#key}). Stored cells are read
+     * locally; missing cells are grouped into regional bounding boxes and each box is fetched
+     * with a single regional request. Cells outside every successful regional response fall
+     * back to point requests. Cells without data are absent from the result.
+     */
+    public Mono<Map<Long, Double>> getEvapotranspirationForCellsAsync(Collection<Long> cellKeys, LocalDate date) {
+        Set<Long> cells = new HashSet<>(cellKeys);
+        
+        return Mono.fromCallable(() -> loadStoredCells(cells, date))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(values -> {
+                    meterRegistry.counter("nasa.et0.days", "source", "local").increment(values.size());
+                    List<Long> missing = new ArrayList<>();
+                    for (Long cell : cells) {
+                        if (!values.containsKey(cell)) {
+                            missing.add(cell);
+                        }
+                    }
+                    if (missing.isEmpty()) {
+                        return Mono.just(values);
+                    }
+                    
+                    Collection<List<Long>> regions = groupIntoRegions(missing);
+                    log.info("Fetching ET0 for {} grid cells in {} regional requests on {}",
+                            missing.size(), regions.size(), date);
+                    
+                    return Flux.fromIterable(regions)
+                            .flatMap(region -> fetchRegion(region, date), regionalConcurrency)
+                            .collectList()
+                            .flatMap(results -> {
+                                List<Et0Observation> newObservations = new ArrayList<>();
+                                Set<Long> answered = new HashSet<>();
+                                int resolved = 0;
+                                boolean persistable = date.isBefore(LocalDate.now());
+                                for (Map<Long, Double> result : results) {
+                                    for (Map.Entry<Long, Double> entry : result.entrySet()) {
+                                        Long cell = entry.getKey();
+                                        answered.add(cell);
+                                        // NaN marks a cell the region covered but has no value for yet
+                                        if (cells.contains(cell) && !values.containsKey(cell) && !entry.getValue().isNaN()) {
+                                            values.put(cell, entry.getValue());
+                                            resolved++;
+                                            if (persistable) {
+                                                newObservations.add(new Et0Observation(NasaPowerGrid.rowOf(cell),
+                                                        NasaPowerGrid.colOf(cell), date, entry.getValue()));
+                                            }
+                                        }
+                                    }
+                                }
+                                meterRegistry.counter("nasa.et0.days", "source", "regional").increment(resolved);
+                                
+                                Mono<Void> store = newObservations.isEmpty() ? Mono.empty()
+                                        : Mono.fromRunnable(() -> persist(newObservations))
+                                                .subscribeOn(Schedulers.boundedElastic())
+                                                .then();
+                                List<Long> unanswered = new ArrayList<>();
+                                for (Long cell : missing) {
+                                    if (!answered.contains(cell)) {
+                                        unanswered.add(cell);
+                                    }
+                                }
+                                return store.then(fillFromPoints(unanswered, values, date));
+                            });
+                });
+    }
+    
+    public Map<Long, Double> getLatestEvapotranspirationForCells(Collection<Long> cellKeys, LocalDate date) {
+        return getLatestEvapotranspirationForCellsAsync(cellKeys, date).block();
+    }
+    
+    /**
+     * ET0 on the date for many grid cells, and for cells NASA POWER has not published a value for
+     * that day, the most recent earlier day within app.nasa.et0.fallback-days. Same-day values
+     * are normally published a day or more later, so this is the ET0 scheduled and batch
+     * recommendations score with. Each earlier day is one lookup of the cells still missing, as
+     * in {@link #getEvapotranspirationForCellsAsync}. Cells without a value in the window are absent.
+     */
+    public Mono<Map<Long, Double>> getLatestEvapotranspirationForCellsAsync(Collection<Long> cellKeys, LocalDate date) {
+        Set<Long> cells = new HashSet<>(cellKeys);
+        return getEvapotranspirationForCellsAsync(cells, date)
+                .flatMap(values -> fillFromEarlierDays(cells, new HashMap<>(values), date, 1));
     }
     
     public boolean isHighEvapotranspiration(Double et0, Double threshold) {
         return et0 != null && threshold != null && et0 > threshold;
     }
+    
+    private NavigableMap<LocalDate, Double> loadStored(int row, int col, LocalDate startDate, LocalDate endDate) {
+        NavigableMap<LocalDate, Double> series = new TreeMap<>();
+        for (Et0Observation observation : et0Repository
+                .findByGridRowAndGridColAndObservationDateBetweenOrderByObservationDateAsc(row, col, startDate, endDate)) {
+            series.put(observation.getObservationDate(), observation.getEt0Mm());
+        }
+        return series;
+    }
+    
+    private void persist(List<Et0Observation> observations) {
+        try {
+            et0Repository.saveAll(observations);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request stored part of the range first; keep whatever is still missing
+            log.debug("ET0 batch overlapped existing rows, saving individually");
+            for (Et0Observation observation : observations) {
+                try {
+                    et0Repository.save(observation);
+                } catch (DataIntegrityViolationException ignored) {
+                    // already stored
+                }
+            }
+        }
+        log.info("Stored {} ET0 observations", observations.size());
+    }
+    
+    private Map<Long, Double> loadStoredCells(Set<Long> cells, LocalDate date) {
+        Map<Long, Double> values = new ConcurrentHashMap<>();
+        for (Et0Observation observation : et0Repository.findByObservationDate(date)) {
+            long cell = NasaPowerGrid.key(observation.getGridRow(), observation.getGridCol());
+            if (cells.contains(cell)) {
+                values.put(cell, observation.getEt0Mm());
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * Bucket cells into aligned regional tiles and return each tile's cells.
+     */
+    private Collection<List<Long>> groupIntoRegions(List<Long> cells) {
+        Map<Long, List<Long>> regions = new HashMap<>();
+        for (Long cell : cells) {
+            double latitude = NasaPowerGrid.centerLatitude(NasaPowerGrid.rowOf(cell));
+            double longitude = NasaPowerGrid.centerLongitude(NasaPowerGrid.colOf(cell));
+            long tile = ((long) Math.floor((latitude + 90.0) / REGION_MAX_SPAN) << 32)
+                    | (long) Math.floor((longitude + 180.0) / REGION_MAX_SPAN);
+            regions.computeIfAbsent(tile, k -> new ArrayList<>()).add(cell);
+        }
+        return regions.values();
+    }
+    
+    private Mono<Map<Long, Double>> fetchRegion(List<Long> cells, LocalDate date) {
+        int minRow = Integer.MAX_VALUE, maxRow = Integer.MIN_VALUE;
+        int minCol = Integer.MAX_VALUE, maxCol = Integer.MIN_VALUE;
+        for (Long cell : cells) {
+            minRow = Math.min(minRow, NasaPowerGrid.rowOf(cell));
+            maxRow = Math.max(maxRow, NasaPowerGrid.rowOf(cell));
+            minCol = Math.min(minCol, NasaPowerGrid.colOf(cell));
+            maxCol = Math.max(maxCol, NasaPowerGrid.colOf(cell));
+        }
+        // Cell bounds lie half a step around the grid points, so the box holds exactly these points
+        double[] latRange = regionRange(NasaPowerGrid.centerLatitude(minRow) - NasaPowerGrid.LAT_STEP / 2,
+                NasaPowerGrid.centerLatitude(maxRow) + NasaPowerGrid.LAT_STEP / 2, 90.0);
+        double[] lonRange = regionRange(NasaPowerGrid.centerLongitude(minCol) - NasaPowerGrid.LON_STEP / 2,
+                NasaPowerGrid.centerLongitude(maxCol) + NasaPowerGrid.LON_STEP / 2, 180.0);
+        String day = date.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        
+        String url = String.format("%s?latitude-min=%s&latitude-max=%s&longitude-min=%s&longitude-max=%s"
+                        + "&parameters=ET0&community=AG&start=%s&end=%s&format=JSON",
+                regionalApiUrl, latRange[0], latRange[1], lonRange[0], lonRange[1], day, day);
+        
+        return nasaPowerRegionalGuard.execute(() -> webClient
+                        .get()
+                        .uri(url)
+                        // Tiles can outlast the client's response timeout; the guard's timeout bounds them instead
+                        .httpRequest(request -> request.<HttpClientRequest>getNativeRequest()
+                                .responseTimeout(nasaPowerRegionalGuard.getTimeout()))
+                        .retrieve()
+                        .bodyToMono(NasaRegionalDto.class))
+                .map(region -> {
+                    Map<Long, Double> values = new HashMap<>();
+                    if (region.getFeatures() == null) {
+                        return values;
+                    }
+                    for (NasaRegionalDto.Feature feature : region.getFeatures()) {
+                        if (feature.getGeometry() == null || feature.getGeometry().getCoordinates() == null
+                                || feature.getGeometry().getCoordinates().size() < 2
+                                || feature.getProperties() == null || feature.getProperties().getParameter() == null) {
+                            continue;
+                        }
+                        Map<String, Double> et0 = feature.getProperties().getParameter().get("ET0");
+                        Double value = et0 != null ? et0.get(day) : null;
+                        // NASA POWER marks unavailable days with negative fill values
+                        List<Double> coordinates = feature.getGeometry().getCoordinates();
+                        values.put(NasaPowerGrid.keyOf(coordinates.get(1), coordinates.get(0)),
+                                value == null || value < 0 ? Double.NaN : value);
+                    }
+                    meterRegistry.counter("nasa.et0.regional.requests", "result", "success").increment();
+                    return values;
+                })
+                .defaultIfEmpty(Map.of())
+                .onErrorResume(e -> {
+                    meterRegistry.counter("nasa.et0.regional.requests", "result", "failure").increment();
+                    log.error("Error fetching regional NASA ET0 data for {} cells: {}", cells.size(), e.getMessage());
+                    return Mono.just(Map.of());
+                });
+    }
+    
+    /**
+     * Widen a [min, max] range to the regional endpoint's minimum span, clamped to the globe.
+     */
+    private double[] regionRange(double min, double max, double limit) {
+        if (max - min < REGION_MIN_SPAN) {
+            double center = (min + max) / 2;
+            min = center - REGION_MIN_SPAN / 2;
+            max = center + REGION_MIN_SPAN / 2;
+        }
+        if (min < -limit) {
+            max += -limit - min;
+            min = -limit;
+        }
+        if (max > limit) {
+            min -= max - limit;
+            max = limit;
+        }
+        return new double[] {min, max};
+    }
+    
+    private Mono<Map<Long, Double>> fillFromPoints(List<Long> cells, Map<Long, Double> values, LocalDate date) {
+        List<Long> unresolved = new ArrayList<>();
+        for (Long cell : cells) {
+            if (!values.containsKey(cell)) {
+                unresolved.add(cell);
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return Mono.just(values);
+        }
+        log.info("Falling back to point ET0 requests for {} grid cells", unresolved.size());
+        
+        return Flux.fromIterable(unresolved)
+                .flatMap(cell -> getEt0SeriesAsync(NasaPowerGrid.centerLatitude(NasaPowerGrid.rowOf(cell)),
+                                NasaPowerGrid.centerLongitude(NasaPowerGrid.colOf(cell)), date, date)
+                        .doOnNext(series -> {
+                            Double value = series.get(date);
+                            if (value != null) {
+                                values.put(cell, value);
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("No ET0 for grid cell {}/{}: {}", NasaPowerGrid.rowOf(cell),
+                                    NasaPowerGrid.colOf(cell), e.getMessage());
+                            return Mono.empty();
+                        }), regionalConcurrency)
+                .then(Mono.just(values));
+    }
+    
+    private Mono<Map<Long, Double>> fillFromEarlierDays(Set<Long> cells, Map<Long, Double> values, LocalDate date,
+                                                        int daysBack) {
+        List<Long> missing = new ArrayList<>();
+        for (Long cell : cells) {
+            if (!values.containsKey(cell)) {
+                missing.add(cell);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Mono.just(values);
+        }
+        if (daysBack > fallbackDays) {
+            log.warn("No ET0 for {} grid cells on {} or the {} days before", missing.size(), date, fallbackDays);
+            return Mono.just(values);
+        }
+        
+        LocalDate day = date.minusDays(daysBack);
+        return getEvapotranspirationForCellsAsync(missing, day)
+                .flatMap(earlier -> {
+                    if (!earlier.isEmpty()) {
+                        log.info("Using ET0 of {} for {} grid cells without a value on {}", day, earlier.size(), date);
+                        meterRegistry.counter("nasa.et0.days", "source", "earlier-day").increment(earlier.size());
+                        values.putAll(earlier);
+                    }
+                    return fillFromEarlierDays(cells, values, date, daysBack + 1);
+                });
+    }
+    
+    private LocalDate firstMissing(Map<LocalDate, Double> series, LocalDate startDate, LocalDate endDate) {
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            if (!series.containsKey(day)) {
+                return day;
+            }
+        }
+        return null;
+    }
+    
+    private LocalDate lastMissing(Map<LocalDate, Double> series, LocalDate startDate, LocalDate endDate) {
+        for (LocalDate day = endDate; !day.isBefore(startDate); day = day.minusDays(1)) {
+            if (!series.containsKey(day)) {
+                return day;
+            }
+        }
+        return null;
+    }
+    
+    private double sum(Map<LocalDate, Double> series) {
+        double sum = 0.0;
+        for (Double value : series.values()) {
+            sum += value;
+        }
+        return sum;
+    }
+    
+    private Mono<List<Double>> fetchEt0(Double latitude, Double longitude, LocalDate startDate, LocalDate endDate) {
+        String startDateStr = startDate.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        String endDateStr = endDate.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        
+        String url = String.format("%s?start=%s&end=%s&latitude=%s&longitude=%s&parameters=ET0&format=JSON",
+                apiUrl, startDateStr, endDateStr, latitude, longitude);
+        
+        return nasaPowerGuard.execute(() -> webClient
+                        .get()
+                        .uri(url)
+                        .retrieve()
+                        .bodyToMono(NasaEtDto.class))
+                .map(nasaData -> {
+                    if (nasaData.getParameters() != null &&
+                        nasaData.getParameters().getEt0() != null &&
+                        nasaData.getParameters().getEt0().getData() != null) {
+                        return nasaData.getParameters().getEt0().getData();
+                    }
+                    return List.<Double>of();
+                })
+                .defaultIfEmpty(List.of())
+                .doOnError(e -> {
+                    if (e instanceof WebClientResponseException || e instanceof UpstreamGuard.UpstreamUnavailableException) {
+                        log.error("Error fetching NASA ET0 data: {}", e.getMessage());
+                    } else {
+                        log.error("Unexpected error fetching NASA ET0 data", e);
+                    }
+                });
+    }
 }
-
-
-
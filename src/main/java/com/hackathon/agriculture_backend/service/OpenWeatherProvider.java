@@ -0,0 +1,97 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.util.OneCallDecoder;
+import com.hackathon.agriculture_backend.util.UpstreamGuard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * OpenWeather One Call 3.0 provider. When app.weather.record.directory is set, every raw
+ * response is also written there as {cell}.json so it can be served later by the replay provider.
+ */
+@Service
+@ConditionalOnProperty(name = "app.weather.provider", havingValue = "openweather", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OpenWeatherProvider implements WeatherProvider {
+    
+    @Qualifier("openWeatherWebClient")
+    private final WebClient webClient;
+    @Qualifier("openWeatherGuard")
+    private final UpstreamGuard openWeatherGuard;
+    
+    @Value("${app.weather.api.key}")
+    private String apiKey;
+    
+    @Value("${app.weather.api.url}")
+    private String apiUrl;
+    
+    @Value("${app.weather.api.max-response-size:256KB}")
+    private DataSize maxResponseSize;
+    
+    @Value("${app.weather.record.directory:}")
+    private String recordDirectory;
+    
+    @Override
+    public String getName() {
+        return "openweather";
+    }
+    
+    @Override
+    public Mono<WeatherDto> fetch(String cell, double latitude, double longitude) {
+        // Current, daily and alerts in one request; hourly and minutely are never used
+        String url = String.format("%s?lat=%s&lon=%s&exclude=minutely,hourly&units=metric&appid=%s",
+                apiUrl, latitude, longitude, apiKey);
+        
+        return openWeatherGuard.execute(() -> webClient
+                .get()
+                .uri(url)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                // Bounded aggregation, then field-selective streaming parse instead of full DTO binding
+                .as(body -> DataBufferUtils.join(body, (int) maxResponseSize.toBytes()))
+                .map(buffer -> recordDirectory.isBlank() ? decode(buffer) : recordAndDecode(cell, buffer)));
+    }
+    
+    private WeatherDto decode(DataBuffer buffer) {
+        try (InputStream in = buffer.asInputStream(true)) {
+            return OneCallDecoder.decode(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed One Call response", e);
+        }
+    }
+    
+    private WeatherDto recordAndDecode(String cell, DataBuffer buffer) {
+        byte[] payload = new byte[buffer.readableByteCount()];
+        buffer.read(payload);
+        DataBufferUtils.release(buffer);
+        
+        Mono.fromCallable(() -> Files.write(Path.of(recordDirectory).resolve(cell + ".json"), payload))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(path -> log.debug("Recorded One Call response to {}", path),
+                        e -> log.warn("Failed to record One Call response for cell {}: {}", cell, e.getMessage()));
+        
+        try {
+            return OneCallDecoder.decode(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed One Call response", e);
+        }
+    }
+}
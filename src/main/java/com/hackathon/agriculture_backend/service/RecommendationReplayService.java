@@ -0,0 +1,469 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.RecommendationReplayReportDto;
+import com.hackathon.agriculture_backend.dto.RecommendationReplayRequestDto;
+import com.hackathon.agriculture_backend.model.Crop;
+import com.hackathon.agriculture_backend.model.IrrigationRecommendation;
+import com.hackathon.agriculture_backend.model.RecommendationReplayJob;
+import com.hackathon.agriculture_backend.repository.IrrigationRecommendationRepository;
+import com.hackathon.agriculture_backend.repository.RecommendationReplayJobRepository;
+import com.hackathon.agriculture_backend.util.RecommendationScorer;
+import com.hackathon.agriculture_backend.util.ScoringRules;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Replays stored recommendations against the current scoring rules, from the weather and ET0
+ * inputs saved with each recommendation. Rows are read in id order, one page at a time; each
+ * page is scored on a fork-join pool and either compared (DIFF) or rewritten in place (UPSERT).
+ * The checkpoint and totals are stored with the job after every page (in the same transaction
+ * as the rewrite for UPSERT), so a replay can be resumed where it stopped. Replays are paced to
+ * app.replay.max-rows-per-second and use one connection at a time, so they can run beside
+ * production traffic. Only one replay runs at a time.
+ * <p>
+ * Rows saved before forecast rainfall was stored with them cannot be scored as they were live.
+ * DIFF scores them without forecast rain and UPSERT leaves them as stored; both count them in
+ * the report's withoutForecast.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationReplayService {
+    
+    private static final String JOB = "recommendation-replay";
+    private static final String[] LEVELS = {"LOW", "MODERATE", "HIGH"};
+    private static final long NO_JOB = 0L;
+    
+    private final IrrigationRecommendationRepository recommendationRepository;
+    private final RecommendationReplayJobRepository jobRepository;
+    private final CropCatalog cropCatalog;
+    private final ScoringRuleTable scoringRuleTable;
+    private final ChunkedTransactionWriter chunkedWriter;
+    private final MeterRegistry meterRegistry;
+    
+    private ForkJoinPool scoringPool;
+    private ExecutorService runner;
+    private final AtomicLong activeJobId = new AtomicLong(NO_JOB);
+    private volatile boolean cancelRequested;
+    private final Map<Long, List<RecommendationReplayReportDto.Change>> sampleChanges = new ConcurrentHashMap<>();
+    
+    @Value("${app.replay.page-size:500}")
+    private int pageSize;
+    
+    @Value("${app.replay.parallelism:2}")
+    private int parallelism;
+    
+    @Value("${app.replay.max-rows-per-second:1000}")
+    private int maxRowsPerSecond;
+    
+    @Value("${app.replay.sample-size:100}")
+    private int sampleSize;
+    
+    @PostConstruct
+    public void init() {
+        scoringPool = new ForkJoinPool(Math.max(1, parallelism));
+        runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        // A replay that was running when the previous instance stopped can only be resumed
+        for (RecommendationReplayJob job : jobRepository.findByStatus(RecommendationReplayJob.Status.RUNNING)) {
+            job.setStatus(RecommendationReplayJob.Status.FAILED);
+            job.setErrorMessage("Interrupted by application restart; resume to continue");
+            job.setUpdatedAt(Instant.now());
+            jobRepository.save(job);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        cancelRequested = true;
+        runner.shutdownNow();
+        scoringPool.shutdownNow();
+    }
+    
+    public RecommendationReplayReportDto start(RecommendationReplayRequestDto request) {
+        if (request.getFromDate().isAfter(request.getToDate())) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+        claim();
+        try {
+            RecommendationReplayJob job = new RecommendationReplayJob();
+            job.setMode(request.getMode() != null ? request.getMode() : RecommendationReplayJob.Mode.DIFF);
+            job.setStatus(RecommendationReplayJob.Status.RUNNING);
+            job.setFromDate(request.getFromDate());
+            job.setToDate(request.getToDate());
+            job.setFarmerIds(request.getFarmerIds() == null ? "" : request.getFarmerIds().stream()
+                    .filter(Objects::nonNull).map(String::valueOf).collect(Collectors.joining(",")));
+            job.setCropType(request.getCropType());
+            job.setRulesVersion(scoringRuleTable.getVersion());
+            job.setTransitions(formatTransitions(new long[LEVELS.length * LEVELS.length]));
+            job.setTotal(recommendationRepository.countForReplay(job.getFromDate(), job.getToDate(),
+                    allFarmers(job), farmerIds(job), cropPattern(job)));
+            job = jobRepository.save(job);
+            
+            log.info("Starting {} replay {} of {} recommendations from {} to {} with rules version {}",
+                    job.getMode(), job.getId(), job.getTotal(), job.getFromDate(), job.getToDate(), job.getRulesVersion());
+            submit(job);
+            return toReport(job);
+        } catch (RuntimeException e) {
+            activeJobId.set(NO_JOB);
+            throw e;
+        }
+    }
+    
+    /**
+     * Continue a stopped replay from its checkpoint, with the rules that are active now.
+     */
+    public RecommendationReplayReportDto resume(Long jobId) {
+        RecommendationReplayJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Replay job not found: " + jobId));
+        if (job.getStatus() == RecommendationReplayJob.Status.COMPLETED) {
+            throw new IllegalArgumentException("Replay job " + jobId + " is already completed");
+        }
+        claim();
+        try {
+            long rulesVersion = scoringRuleTable.getVersion();
+            if (!Objects.equals(job.getRulesVersion(), rulesVersion)) {
+                log.warn("Replay {} resumes with rules version {} instead of {}", jobId, rulesVersion, job.getRulesVersion());
+                job.setRulesVersion(rulesVersion);
+            }
+            job.setStatus(RecommendationReplayJob.Status.RUNNING);
+            job.setErrorMessage(null);
+            job.setFinishedAt(null);
+            job = jobRepository.save(job);
+            
+            log.info("Resuming replay {} after recommendation id {}", jobId, job.getLastRecommendationId());
+            submit(job);
+            return toReport(job);
+        } catch (RuntimeException e) {
+            activeJobId.set(NO_JOB);
+            throw e;
+        }
+    }
+    
+    public void cancel(Long jobId) {
+        if (activeJobId.get() != jobId) {
+            throw new IllegalArgumentException("Replay job " + jobId + " is not running");
+        }
+        cancelRequested = true;
+    }
+    
+    public RecommendationReplayReportDto getReport(Long jobId) {
+        return jobRepository.findById(jobId)
+                .map(this::toReport)
+                .orElseThrow(() -> new IllegalArgumentException("Replay job not found: " + jobId));
+    }
+    
+    private void claim() {
+        // Placeholder id until the job row exists; -1 never matches a real job
+        if (!activeJobId.compareAndSet(NO_JOB, -1L)) {
+            throw new IllegalStateException("Replay job " + activeJobId.get() + " is already running");
+        }
+    }
+    
+    private void submit(RecommendationReplayJob job) {
+        cancelRequested = false;
+        activeJobId.set(job.getId());
+        runner.submit(() -> run(job));
+    }
+    
+    private void run(RecommendationReplayJob job) {
+        long startedAt = System.nanoTime();
+        long replayed = 0;
+        try {
+            while (!cancelRequested) {
+                int rows = job.getMode() == RecommendationReplayJob.Mode.UPSERT
+                        // Rewrite and checkpoint commit together, so a resume never replays a written page
+                        ? chunkedWriter.execute(JOB, () -> replayPage(job, true))
+                        : replayPage(job, false);
+                if (rows == 0) {
+                    break;
+                }
+                replayed += rows;
+                meterRegistry.counter("replay.rows", "mode", job.getMode().name()).increment(rows);
+                throttle(startedAt, replayed);
+            }
+            job.setStatus(cancelRequested ? RecommendationReplayJob.Status.CANCELLED : RecommendationReplayJob.Status.COMPLETED);
+            log.info("Replay {} {}: {} processed, {} changed", job.getId(), job.getStatus(), job.getProcessed(), job.getChanged());
+        } catch (Exception e) {
+            job.setStatus(RecommendationReplayJob.Status.FAILED);
+            job.setErrorMessage(e.getMessage());
+            log.error("Replay {} failed after recommendation id {}: {}", job.getId(), job.getLastRecommendationId(), e.getMessage());
+        } finally {
+            job.setFinishedAt(Instant.now());
+            job.setUpdatedAt(Instant.now());
+            try {
+                jobRepository.save(job);
+            } catch (Exception e) {
+                log.error("Failed to save final state of replay {}: {}", job.getId(), e.getMessage());
+            }
+            activeJobId.set(NO_JOB);
+        }
+    }
+    
+    /**
+     * Replay the next page after the checkpoint, advance the checkpoint and return the number of rows.
+     */
+    private int replayPage(RecommendationReplayJob job, boolean write) {
+        List<IrrigationRecommendation> rows = recommendationRepository.findReplayPage(job.getLastRecommendationId(),
+                job.getFromDate(), job.getToDate(), allFarmers(job), farmerIds(job), cropPattern(job),
+                PageRequest.of(0, pageSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        ReplayBatch batch = new ReplayBatch(rows.size());
+        long withoutForecast = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            IrrigationRecommendation row = rows.get(i);
+            if (row.getTempC() == null || row.getHumidity() == null || row.getRainfallMm() == null
+                    || row.getEvapotranspiration() == null) {
+                // Nothing to replay from; the row is counted but left as stored
+                continue;
+            }
+            if (row.getForecastRainfallMm() == null) {
+                withoutForecast++;
+                if (write) {
+                    // Rewriting without the forecast it was scored with could undo a correct level
+                    continue;
+                }
+            }
+            Crop crop = cropCatalog.resolve(row.getCropType());
+            batch.complete[i] = true;
+            // Quantized like live scoring, so a replay only reports changes made by the rules
+            batch.tempC[i] = RecommendationResultCache.quantize(row.getTempC(), RecommendationResultCache.TEMP_STEPS);
+            batch.humidity[i] = RecommendationResultCache.quantize(row.getHumidity(), RecommendationResultCache.HUMIDITY_STEPS);
+            batch.rainfall[i] = RecommendationResultCache.quantize(row.getRainfallMm(), RecommendationResultCache.RAIN_STEPS);
+            batch.forecastRain[i] = row.getForecastRainfallMm() == null ? 0.0
+                    : RecommendationResultCache.quantize(row.getForecastRainfallMm(), RecommendationResultCache.RAIN_STEPS);
+            batch.et0[i] = RecommendationResultCache.quantize(row.getEvapotranspiration(), RecommendationResultCache.ET0_STEPS);
+            batch.etThreshold[i] = crop.getEtThreshold();
+            batch.waterDemand[i] = crop.getWaterDemandLitersPerHectare();
+            batch.rules[i] = scoringRuleTable.rulesFor(crop.getName(), row.getLocationName());
+        }
+        scoringPool.invoke(new ScoreTask(batch, 0, rows.size()));
+        
+        long[] transitions = parseTransitions(job.getTransitions());
+        List<RecommendationReplayReportDto.Change> samples = sampleChanges.computeIfAbsent(job.getId(),
+                id -> Collections.synchronizedList(new ArrayList<>()));
+        long changed = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            IrrigationRecommendation row = rows.get(i);
+            if (!batch.complete[i]) {
+                continue;
+            }
+            int level = RecommendationScorer.levelOf(batch.packed[i]);
+            String replayed = RecommendationScorer.levelName(level);
+            int storedLevel = Arrays.asList(LEVELS).indexOf(row.getRecommendation());
+            if (storedLevel >= 0) {
+                transitions[storedLevel * LEVELS.length + level]++;
+            }
+            
+            boolean differs = !replayed.equals(row.getRecommendation())
+                    || !Objects.equals(batch.waterSaved[i], row.getWaterSavedLiters())
+                    || !batch.explanation[i].equals(row.getExplanation());
+            if (!differs) {
+                continue;
+            }
+            changed++;
+            if (samples.size() < sampleSize) {
+                samples.add(new RecommendationReplayReportDto.Change(row.getId(), row.getFarmer().getId(), row.getDate(),
+                        row.getRecommendation(), replayed, RecommendationScorer.scoreOf(batch.packed[i]),
+                        row.getWaterSavedLiters(), batch.waterSaved[i]));
+            }
+            if (write) {
+                // Managed rows: the changes are flushed as one JDBC update batch at commit
+                row.setRecommendation(replayed);
+                row.setExplanation(batch.explanation[i]);
+                row.setWaterSavedLiters(batch.waterSaved[i]);
+            }
+        }
+        
+        job.setLastRecommendationId(rows.get(rows.size() - 1).getId());
+        job.setProcessed(job.getProcessed() + rows.size());
+        job.setChanged(job.getChanged() + changed);
+        job.setWithoutForecast(withoutForecastOf(job) + withoutForecast);
+        job.setTransitions(formatTransitions(transitions));
+        job.setUpdatedAt(Instant.now());
+        jobRepository.save(job);
+        return rows.size();
+    }
+    
+    private void throttle(long startedAt, long replayed) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long dueNanos = startedAt + replayed * 1_000_000_000L / maxRowsPerSecond;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+    
+    // Jobs created before the count was kept have none
+    private static long withoutForecastOf(RecommendationReplayJob job) {
+        return job.getWithoutForecast() != null ? job.getWithoutForecast() : 0L;
+    }
+    
+    private static boolean allFarmers(RecommendationReplayJob job) {
+        return job.getFarmerIds() == null || job.getFarmerIds().isBlank();
+    }
+    
+    private static List<Long> farmerIds(RecommendationReplayJob job) {
+        if (allFarmers(job)) {
+            // Never matched; an empty IN list is not valid SQL on every database
+            return List.of(-1L);
+        }
+        return Arrays.stream(job.getFarmerIds().split(",")).map(Long::valueOf).collect(Collectors.toList());
+    }
+    
+    private static String cropPattern(RecommendationReplayJob job) {
+        return job.getCropType() == null || job.getCropType().isBlank()
+                ? "%" : job.getCropType().trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static long[] parseTransitions(String transitions) {
+        long[] counts = new long[LEVELS.length * LEVELS.length];
+        if (transitions != null && !transitions.isBlank()) {
+            String[] values = transitions.split(",");
+            for (int i = 0; i < counts.length && i < values.length; i++) {
+                counts[i] = Long.parseLong(values[i].trim());
+            }
+        }
+        return counts;
+    }
+    
+    private static String formatTransitions(long[] counts) {
+        return Arrays.stream(counts).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    }
+    
+    private RecommendationReplayReportDto toReport(RecommendationReplayJob job) {
+        RecommendationReplayReportDto report = new RecommendationReplayReportDto();
+        report.setJobId(job.getId());
+        report.setMode(job.getMode());
+        report.setStatus(job.getStatus());
+        report.setFromDate(job.getFromDate());
+        report.setToDate(job.getToDate());
+        report.setRulesVersion(job.getRulesVersion());
+        report.setTotal(job.getTotal());
+        report.setProcessed(job.getProcessed());
+        report.setChanged(job.getChanged());
+        report.setWithoutForecast(withoutForecastOf(job));
+        report.setLastRecommendationId(job.getLastRecommendationId());
+        report.setErrorMessage(job.getErrorMessage());
+        report.setStartedAt(job.getStartedAt());
+        report.setFinishedAt(job.getFinishedAt());
+        
+        long[] counts = parseTransitions(job.getTransitions());
+        Map<String, Map<String, Long>> transitions = new LinkedHashMap<>();
+        for (int from = 0; from < LEVELS.length; from++) {
+            Map<String, Long> row = new LinkedHashMap<>();
+            for (int to = 0; to < LEVELS.length; to++) {
+                row.put(LEVELS[to], counts[from * LEVELS.length + to]);
+            }
+            transitions.put(LEVELS[from], row);
+        }
+        report.setTransitions(transitions);
+        
+        List<RecommendationReplayReportDto.Change> samples = sampleChanges.get(job.getId());
+        report.setSampleChanges(samples != null ? List.copyOf(samples) : List.of());
+        return report;
+    }
+    
+    /**
+     * Inputs and outputs of one page in parallel primitive arrays.
+     */
+    private static final class ReplayBatch {
+        final boolean[] complete;
+        final double[] tempC;
+        final double[] humidity;
+        final double[] rainfall;
+        final double[] forecastRain;
+        final double[] et0;
+        final double[] etThreshold;
+        final double[] waterDemand;
+        final ScoringRules[] rules;
+        final long[] packed;
+        final double[] waterSaved;
+        final String[] explanation;
+        
+        ReplayBatch(int size) {
+            complete = new boolean[size];
+            tempC = new double[size];
+            humidity = new double[size];
+            rainfall = new double[size];
+            forecastRain = new double[size];
+            et0 = new double[size];
+            etThreshold = new double[size];
+            waterDemand = new double[size];
+            rules = new ScoringRules[size];
+            packed = new long[size];
+            waterSaved = new double[size];
+            explanation = new String[size];
+        }
+    }
+    
+    private static final class ScoreTask extends RecursiveAction {
+        
+        private static final int THRESHOLD = 64;
+        
+        private final ReplayBatch batch;
+        private final int from;
+        private final int to;
+        
+        ScoreTask(ReplayBatch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ScoreTask(batch, from, mid), new ScoreTask(batch, mid, to));
+                return;
+            }
+            ReplayBatch b = batch;
+            for (int i = from; i < to; i++) {
+                if (!b.complete[i]) {
+                    continue;
+                }
+                long packed = RecommendationScorer.score(b.rules[i], b.tempC[i], b.humidity[i], b.rainfall[i],
+                        b.forecastRain[i], b.et0[i], b.etThreshold[i]);
+                b.packed[i] = packed;
+                b.waterSaved[i] = RecommendationScorer.waterSavedLiters(RecommendationScorer.levelOf(packed), b.waterDemand[i], 1.0);
+                // Rendering dominates the cost per row, so it is done here in parallel too
+                b.explanation[i] = RecommendationScorer.explain(RecommendationScorer.rulesOf(packed), b.tempC[i],
+                        b.humidity[i], b.rainfall[i], b.et0[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.RecommendationResult;
+import com.hackathon.agriculture_backend.model.Crop;
+import com.hackathon.agriculture_backend.util.ScoringRules;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded memo of recommendation results. A result depends only on the scoring rules, the crop
+ * and the weather inputs, so inputs are quantized to the precision shown in explanations
+ * (0.1 °C, 1 % humidity, 0.1 mm rain, 0.01 mm ET0) and farmers in the same area with the same
+ * crop share one result. Entries are split over lock stripes, each evicting its least recently
+ * used entry when full. Reloaded rules or crops compile to new objects and hence new keys;
+ * the old entries age out.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationResultCache {
+    
+    // Steps per unit of each input, matching the precision of the explanation text
+    public static final double TEMP_STEPS = 10;
+    public static final double HUMIDITY_STEPS = 1;
+    public static final double RAIN_STEPS = 10;
+    public static final double ET0_STEPS = 100;
+    
+    private static final int STRIPES = 16;
+    
+    private final MeterRegistry meterRegistry;
+    
+    private Stripe[] stripes;
+    private Counter hitCounter;
+    private Counter missCounter;
+    
+    @Value("${app.recommendations.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.recommendations.cache.max-entries:50000}")
+    private int maxEntries;
+    
+    /**
+     * Scores quantized inputs on a miss.
+     */
+    @FunctionalInterface
+    public interface Scorer {
+        RecommendationResult score(double tempC, double humidity, double rainfall, double forecastRain, double et0);
+    }
+    
+    @PostConstruct
+    public void init() {
+        int perStripe = Math.max(1, maxEntries / STRIPES);
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        
+        hitCounter = Counter.builder("recommendation.cache.requests")
+                .description("Recommendation result cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        missCounter = Counter.builder("recommendation.cache.requests")
+                .description("Recommendation result cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.cache.size", this, RecommendationResultCache::size)
+                .description("Number of cached recommendation results")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.cache.hit.ratio", this, RecommendationResultCache::hitRatio)
+                .description("Share of recommendation lookups served from the cache since startup")
+                .register(meterRegistry);
+        
+        log.info("Recommendation result cache initialized (enabled: {}, max entries: {})", enabled, perStripe * STRIPES);
+    }
+    
+    /**
+     * Cached result for the inputs, scored with the quantized inputs on a miss. Returned results
+     * are shared and must not be modified.
+     */
+    public RecommendationResult get(ScoringRules rules, Crop crop, double tempC, double humidity, double rainfall,
+                                    double forecastRain, double et0, Scorer scorer) {
+        Key key = new Key(rules, crop.getEtThreshold(), crop.getWaterDemandLitersPerHectare(),
+                Math.round(tempC * TEMP_STEPS), Math.round(humidity * HUMIDITY_STEPS), Math.round(rainfall * RAIN_STEPS),
+                Math.round(forecastRain * RAIN_STEPS), Math.round(et0 * ET0_STEPS));
+        if (!enabled) {
+            return key.score(scorer);
+        }
+        
+        Stripe stripe = stripes[(key.hashCode() & 0x7FFFFFFF) % STRIPES];
+        RecommendationResult result;
+        synchronized (stripe) {
+            result = stripe.get(key);
+        }
+        if (result != null) {
+            hitCounter.increment();
+            return result;
+        }
+        
+        missCounter.increment();
+        // Scored outside the lock; a concurrent miss for the same key yields an equal result
+        result = key.score(scorer);
+        synchronized (stripe) {
+            RecommendationResult existing = stripe.putIfAbsent(key, result);
+            return existing != null ? existing : result;
+        }
+    }
+    
+    /**
+     * Round a value to the given steps per unit, as cached results are scored.
+     */
+    public static double quantize(double value, double steps) {
+        return Math.round(value * steps) / steps;
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+    
+    public double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+    
+    /**
+     * Quantized inputs; rules are compared by identity, crops by the values scoring reads.
+     */
+    private record Key(ScoringRules rules, Double etThreshold, Double waterDemand,
+                       long tempC, long humidity, long rainfall, long forecastRain, long et0) {
+        
+        RecommendationResult score(Scorer scorer) {
+            return scorer.score(tempC / TEMP_STEPS, humidity / HUMIDITY_STEPS, rainfall / RAIN_STEPS,
+                    forecastRain / RAIN_STEPS, et0 / ET0_STEPS);
+        }
+    }
+    
+    private static final class Stripe extends LinkedHashMap<Key, RecommendationResult> {
+        
+        private final int capacity;
+        
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, RecommendationResult> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -6,16 +6,24 @@ import com.hackathon.agriculture_backend.dto.RecommendationResponseDto;
 import com.hackathon.agriculture_backend.dto.WeatherDto;
 import com.hackathon.agriculture_backend.model.Crop;
 import com.hackathon.agriculture_backend.model.Farmer;
+import com.hackathon.agriculture_backend.model.FarmerZone;
 import com.hackathon.agriculture_backend.model.IrrigationRecommendation;
-import com.hackathon.agriculture_backend.repository.CropRepository;
+import com.hackathon.agriculture_backend.repository.FarmerZoneRepository;
 import com.hackathon.agriculture_backend.repository.IrrigationRecommendationRepository;
+import com.hackathon.agriculture_backend.util.LongHashSet;
+import com.hackathon.agriculture_backend.util.RecommendationScorer;
+import com.hackathon.agriculture_backend.util.ScoringRules;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.ArrayList;
 import java.util.concurrent.CompletableFuture;
@@ -28,129 +36,120 @@ import java.util.stream.Collectors;
 @Transactional
 public class RecommendationService {
     
-    private final CropRepository cropRepository;
+    // Open date bounds; within the range of every supported database
+    private static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+    
+    private final CropCatalog cropCatalog;
+    private final ScoringRuleTable scoringRuleTable;
+    private final RecommendationResultCache resultCache;
     private final IrrigationRecommendationRepository recommendationRepository;
+    private final FarmerZoneRepository farmerZoneRepository;
     private final WeatherService weatherService;
     private final GeminiService geminiService;
     
+    @Value("${app.recommendations.page.default-size:30}")
+    private int defaultPageSize;
+    
+    @Value("${app.recommendations.page.max-size:200}")
+    private int maxPageSize;
+    
+    /**
+     * Score with the farmer's crop from the in-memory catalog. Touches no repository,
+     * hence no transaction is started.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public RecommendationResult calculateRecommendation(Farmer farmer, Double tempC, Double humidity, 
                                                      Double rainfall, Double forecastRain, Double et0) {
-        log.info("Calculating recommendation for farmer: {} at location: {}", 
+        log.debug("Calculating recommendation for farmer: {} at location: {}", 
                 farmer.getName(), farmer.getLocationName());
         
-        // Get crop information
-        Crop crop = cropRepository.findByName(farmer.getPreferredCrop())
-                .orElseGet(() -> getDefaultCrop(farmer.getPreferredCrop()));
-        
-        int score = 0;
-        StringBuilder explanation = new StringBuilder();
-        
-        // Enhanced temperature scoring with more precise thresholds
-        if (tempC > 40) {
-            score += 3; // Extreme heat
-            explanation.append("Extreme temperature (").append(String.format("%.1f", tempC)).append("°C) requires urgent irrigation. ");
-        } else if (tempC > 35) {
-            score += 2; // High heat
-            explanation.append("High temperature (").append(String.format("%.1f", tempC)).append("°C) requires more irrigation. ");
-        } else if (tempC > 28) {
-            score += 1; // Moderate heat
-            explanation.append("Moderate temperature (").append(String.format("%.1f", tempC)).append("°C) needs some irrigation. ");
-        } else if (tempC < 15) {
-            score -= 1; // Cool weather reduces irrigation needs
-            explanation.append("Cool temperature (").append(String.format("%.1f", tempC)).append("°C) reduces irrigation needs. ");
-        } else {
-            explanation.append("Optimal temperature (").append(String.format("%.1f", tempC)).append("°C) has normal irrigation needs. ");
-        }
-        
-        // Enhanced humidity scoring
-        if (humidity < 20) {
-            score += 3; // Very dry
-            explanation.append("Very low humidity (").append(String.format("%.0f", humidity)).append("%) significantly increases water demand. ");
-        } else if (humidity < 30) {
-            score += 2; // Dry
-            explanation.append("Low humidity (").append(String.format("%.0f", humidity)).append("%) increases water demand. ");
-        } else if (humidity < 50) {
-            score += 1; // Moderate
-            explanation.append("Moderate humidity (").append(String.format("%.0f", humidity)).append("%) has normal water needs. ");
-        } else if (humidity > 80) {
-            score -= 1; // High humidity reduces needs
-            explanation.append("High humidity (").append(String.format("%.0f", humidity)).append("%) reduces water demand. ");
-        } else {
-            explanation.append("Good humidity (").append(String.format("%.0f", humidity)).append("%) has optimal water needs. ");
-        }
-        
-        // Enhanced rainfall scoring with better logic
-        Double totalRainfall = rainfall + (forecastRain != null ? forecastRain : 0.0);
-        if (totalRainfall < 1) {
-            score += 3; // No rain
-            explanation.append("No significant rainfall (").append(String.format("%.1f", rainfall)).append("mm) requires irrigation. ");
-        } else if (totalRainfall < 3) {
-            score += 2; // Light rain
-            explanation.append("Light rainfall (").append(String.format("%.1f", rainfall)).append("mm) may need some irrigation. ");
-        } else if (totalRainfall < 10) {
-            score += 1; // Moderate rain
-            explanation.append("Moderate rainfall (").append(String.format("%.1f", rainfall)).append("mm) reduces irrigation needs. ");
-        } else {
-            score -= 1; // Heavy rain
-            explanation.append("Adequate rainfall (").append(String.format("%.1f", rainfall)).append("mm) significantly reduces irrigation needs. ");
-        }
-        
-        // Enhanced evapotranspiration scoring
-        if (et0 > crop.getEtThreshold() * 1.5) {
-            score += 2; // Very high ET
-            explanation.append("Very high evapotranspiration (").append(String.format("%.2f", et0)).append("mm) significantly increases water loss. ");
-        } else if (et0 > crop.getEtThreshold()) {
-            score += 1; // High ET
-            explanation.append("High evapotranspiration (").append(String.format("%.2f", et0)).append("mm) increases water loss. ");
-        } else {
-            explanation.append("Normal evapotranspiration (").append(String.format("%.2f", et0)).append("mm) has standard water needs. ");
-        }
-        
-        // Determine recommendation with enhanced logic
-        String recommendation;
-        if (score >= 6) {
-            recommendation = "HIGH";
-        } else if (score >= 3) {
-            recommendation = "MODERATE";
-        } else {
-            recommendation = "LOW";
-        }
+        return scoreRecommendation(farmer, cropCatalog.resolve(farmer.getPreferredCrop()), tempC, humidity, rainfall,
+                forecastRain, et0);
+    }
+    
+    /**
+     * Same scoring with the crop already resolved (null means look it up in the catalog).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public RecommendationResult calculateRecommendation(Farmer farmer, Crop crop, Double tempC, Double humidity,
+                                                     Double rainfall, Double forecastRain, Double et0) {
+        return scoreRecommendation(farmer, crop != null ? crop : cropCatalog.resolve(farmer.getPreferredCrop()),
+                tempC, humidity, rainfall, forecastRain, et0);
+    }
+    
+    /**
+     * Inputs are quantized to display precision and the result is shared through the result cache.
+     */
+    private RecommendationResult scoreRecommendation(Farmer farmer, Crop crop, Double tempC, Double humidity,
+                                                     Double rainfall, Double forecastRain, Double et0) {
+        double forecast = forecastRain != null ? forecastRain : 0.0;
+        ScoringRules rules = scoringRuleTable.rulesFor(crop.getName(), farmer.getLocationName());
+        return resultCache.get(rules, crop, tempC, humidity, rainfall, forecast, et0,
+                (t, h, r, f, e) -> score(rules, crop, t, h, r, f, e));
+    }
+    
+    private static RecommendationResult score(ScoringRules rules, Crop crop, double tempC, double humidity,
+                                              double rainfall, double forecastRain, double et0) {
+        long packed = RecommendationScorer.score(rules, tempC, humidity, rainfall, forecastRain, et0, crop.getEtThreshold());
+        int level = RecommendationScorer.levelOf(packed);
         
         // Calculate water savings (assuming 1 hectare farm)
-        Double waterSavedLiters = calculateWaterSavings(recommendation, crop, 1.0);
+        double waterSavedLiters = RecommendationScorer.waterSavedLiters(level, crop.getWaterDemandLitersPerHectare(), 1.0);
         
-        RecommendationResult result = new RecommendationResult(recommendation, explanation.toString());
-        result.setScore(score);
-        result.setWaterSavedLiters(waterSavedLiters);
+        log.debug("Enhanced recommendation calculated: {} (Score: {})",
+                RecommendationScorer.levelName(level), RecommendationScorer.scoreOf(packed));
         
-        log.info("Enhanced recommendation calculated: {} (Score: {})", recommendation, score);
-        
-        return result;
+        // Explanation text is rendered only when it is displayed or persisted
+        return RecommendationResult.scored(packed, waterSavedLiters, tempC, humidity, rainfall, et0);
     }
     
     public IrrigationRecommendation saveRecommendation(Farmer farmer, LocalDate date, String cropType,
                                                      String locationName, Double tempC, Double humidity,
-                                                     Double rainfallMm, Double evapotranspiration,
-                                                     RecommendationResult result) {
+                                                     Double rainfallMm, Double forecastRainfallMm,
+                                                     Double evapotranspiration, RecommendationResult result) {
         log.info("Saving recommendation for farmer: {} on date: {}", farmer.getName(), date);
         
+        IrrigationRecommendation savedRecommendation = recommendationRepository.save(buildRecommendation(farmer, null, date,
+                cropType, locationName, tempC, humidity, rainfallMm, forecastRainfallMm, evapotranspiration, result));
+        log.info("Recommendation saved successfully with ID: {}", savedRecommendation.getId());
+        
+        return savedRecommendation;
+    }
+    
+    /**
+     * Save a batch of recommendations in one transaction.
+     */
+    public List<IrrigationRecommendation> saveRecommendations(List<IrrigationRecommendation> recommendations) {
+        List<IrrigationRecommendation> saved = recommendationRepository.saveAll(recommendations);
+        log.debug("Saved batch of {} recommendations", saved.size());
+        return saved;
+    }
+    
+    /**
+     * Unsaved recommendation for the farmer, or for one of the farmer's zones when zone is set.
+     * The inputs are stored as they were scored, so a replay can score the row again.
+     */
+    public IrrigationRecommendation buildRecommendation(Farmer farmer, FarmerZone zone, LocalDate date, String cropType,
+                                                        String locationName, Double tempC, Double humidity,
+                                                        Double rainfallMm, Double forecastRainfallMm,
+                                                        Double evapotranspiration, RecommendationResult result) {
         IrrigationRecommendation recommendation = new IrrigationRecommendation();
         recommendation.setFarmer(farmer);
+        recommendation.setZone(zone);
         recommendation.setDate(date);
         recommendation.setCropType(cropType);
         recommendation.setLocationName(locationName);
         recommendation.setTempC(tempC);
         recommendation.setHumidity(humidity);
         recommendation.setRainfallMm(rainfallMm);
+        // A missing forecast is scored as no rain
+        recommendation.setForecastRainfallMm(forecastRainfallMm != null ? forecastRainfallMm : 0.0);
         recommendation.setEvapotranspiration(evapotranspiration);
         recommendation.setRecommendation(result.getRecommendation());
         recommendation.setExplanation(result.getExplanation());
         recommendation.setWaterSavedLiters(result.getWaterSavedLiters());
-        
-        IrrigationRecommendation savedRecommendation = recommendationRepository.save(recommendation);
-        log.info("Recommendation saved successfully with ID: {}", savedRecommendation.getId());
-        
-        return savedRecommendation;
+        return recommendation;
     }
     
     public Optional<IrrigationRecommendation> getRecommendationForFarmerAndDate(Long farmerId, LocalDate date) {
@@ -158,47 +157,24 @@ public class RecommendationService {
     }
     
     public boolean hasRecommendationForDate(Long farmerId, LocalDate date) {
-        return !recommendationRepository.findByFarmerIdAndDate(farmerId, date).isEmpty();
+        return recommendationRepository.existsByFarmerIdAndDate(farmerId, date);
     }
     
-    private Crop getDefaultCrop(String cropName) {
-        log.warn("Crop '{}' not found in database, using default values", cropName);
-        
-        // Default crop values based on common crops
-        Crop defaultCrop = new Crop();
-        defaultCrop.setName(cropName);
-        defaultCrop.setWaterDemandLitersPerHectare(5000.0); // Default 5000 L/hectare
-        defaultCrop.setEtThreshold(5.0); // Default ET threshold
-        defaultCrop.setIsActive(true);
-        
-        return defaultCrop;
+    /**
+     * Ids of all farmers with a farm-level recommendation for the date, loaded with one query, so
+     * scheduled jobs can skip finished farmers without a query each.
+     */
+    @Transactional(readOnly = true)
+    public LongHashSet getFarmerIdsWithRecommendation(LocalDate date) {
+        return LongHashSet.of(recommendationRepository.findFarmerIdsByDate(date));
     }
     
-    private Double calculateWaterSavings(String recommendation, Crop crop, Double hectares) {
-        // Base water demand per hectare
-        Double baseWaterDemand = crop.getWaterDemandLitersPerHectare() * hectares;
-        
-        // Calculate savings based on recommendation
-        Double savingsMultiplier;
-        switch (recommendation) {
-            case "LOW":
-                savingsMultiplier = 0.3; // 30% of base demand
-                break;
-            case "MODERATE":
-                savingsMultiplier = 0.6; // 60% of base demand
-                break;
-            case "HIGH":
-                savingsMultiplier = 1.0; // 100% of base demand (no savings)
-                break;
-            default:
-                savingsMultiplier = 0.5; // Default 50% savings
-        }
-        
-        // Calculate water saved (difference between base demand and actual usage)
-        Double actualUsage = baseWaterDemand * savingsMultiplier;
-        Double waterSaved = baseWaterDemand - actualUsage;
-        
-        return Math.max(0.0, waterSaved); // Ensure non-negative savings
+    /**
+     * Ids of all zones with a recommendation for the date, loaded with one query.
+     */
+    @Transactional(readOnly = true)
+    public LongHashSet getZoneIdsWithRecommendation(LocalDate date) {
+        return LongHashSet.of(recommendationRepository.findZoneIdsByDate(date));
     }
     
     /**
@@ -258,28 +234,70 @@ public class RecommendationService {
     }
     
     /**
-     * Get recommendations for a specific farmer
+     * Page of a farmer's recommendations, newest first, filtered in the database. The next page
+     * starts before the date and id of the last row returned (beforeDate and beforeId).
+     * Without a zoneId the page holds the farm-level rows and every zone's rows, so a farmer
+     * with zones gets one row per zone per day besides the farm's; each row carries its zoneId.
      */
-    public List<RecommendationResponseDto> getFarmerRecommendations(Long farmerId, String category, String zoneId) {
-        log.info("Fetching recommendations for farmer: {}, category: {}, zone: {}", farmerId, category, zoneId);
+    @Transactional(readOnly = true)
+    public List<RecommendationResponseDto> getFarmerRecommendations(Long farmerId, String category, Long zoneId,
+                                                                   LocalDate fromDate, LocalDate toDate,
+                                                                   LocalDate beforeDate, Long beforeId, Integer limit) {
+        log.info("Fetching recommendations for farmer: {}, category: {}, zone: {}, before: {}/{}",
+                farmerId, category, zoneId, beforeDate, beforeId);
         
-        List<IrrigationRecommendation> recommendations = recommendationRepository.findByFarmerIdOrderByDateDesc(farmerId);
+        return findHistoryPage(farmerId, zoneId, category, fromDate, toDate, beforeDate, beforeId, limit);
+    }
+    
+    /**
+     * Page of a zone's recommendations, newest first, with the same filters and cursor as
+     * {@link #getFarmerRecommendations}.
+     */
+    @Transactional(readOnly = true)
+    public List<RecommendationResponseDto> getZoneRecommendations(Long zoneId, String category,
+                                                                 LocalDate fromDate, LocalDate toDate,
+                                                                 LocalDate beforeDate, Long beforeId, Integer limit) {
+        log.info("Fetching recommendations for zone: {}, category: {}, before: {}/{}", zoneId, category, beforeDate, beforeId);
+        
+        // The owning farmer leads the index, so a zone page is a range scan of one farmer's rows
+        Long farmerId = farmerZoneRepository.findFarmerIdById(zoneId)
+                .orElseThrow(() -> new RuntimeException("Zone not found with ID: " + zoneId));
+        return findHistoryPage(farmerId, zoneId, category, fromDate, toDate, beforeDate, beforeId, limit);
+    }
+    
+    private List<RecommendationResponseDto> findHistoryPage(Long farmerId, Long zoneId, String category,
+                                                            LocalDate fromDate, LocalDate toDate,
+                                                            LocalDate beforeDate, Long beforeId, Integer limit) {
+        if ((beforeDate == null) != (beforeId == null)) {
+            throw new IllegalArgumentException("beforeDate and beforeId must be given together");
+        }
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        
+        // Open bounds become sentinels so each query keeps one plan for every filter combination
+        LocalDate from = fromDate != null ? fromDate : MIN_DATE;
+        LocalDate to = toDate != null ? toDate : MAX_DATE;
+        LocalDate before = beforeDate != null ? beforeDate : MAX_DATE;
+        long beforeRowId = beforeId != null ? beforeId : Long.MAX_VALUE;
+        List<IrrigationRecommendation> page = zoneId == null
+                ? recommendationRepository.findHistoryPage(farmerId, from, to, before, beforeRowId,
+                        levelPattern(category), PageRequest.of(0, pageSize))
+                : recommendationRepository.findZoneHistoryPage(farmerId, zoneId, from, to, before, beforeRowId,
+                        levelPattern(category), PageRequest.of(0, pageSize));
         
-        return recommendations.stream()
-                .filter(rec -> category == null || rec.getRecommendation().toLowerCase().contains(category.toLowerCase()))
-                .filter(rec -> zoneId == null || rec.getLocationName().equals(zoneId))
+        return page.stream()
                 .map(this::convertToResponseDto)
                 .collect(Collectors.toList());
     }
     
     /**
-     * Get recommendations for a specific zone
+     * LIKE pattern on the stored level (LOW, MODERATE, HIGH). Every stored row is an irrigation
+     * recommendation, so that category matches all of them.
      */
-    public List<RecommendationResponseDto> getZoneRecommendations(Long zoneId, String category) {
-        log.info("Fetching recommendations for zone: {}, category: {}", zoneId, category);
-        
-        // This would need a zone-based query - for now return empty list
-        return new ArrayList<>();
+    private static String levelPattern(String category) {
+        if (category == null || category.isBlank() || category.trim().equalsIgnoreCase("irrigation")) {
+            return "%";
+        }
+        return "%" + category.trim().replaceAll("[%_\\\\]", "").toUpperCase(Locale.ROOT) + "%";
     }
     
     private String buildAIRecommendationPrompt(RecommendationRequestDto request, WeatherDto weatherData) {
@@ -349,6 +367,7 @@ public class RecommendationService {
     private RecommendationResponseDto convertToResponseDto(IrrigationRecommendation rec) {
         RecommendationResponseDto dto = new RecommendationResponseDto();
         dto.setId(rec.getId());
+        dto.setZoneId(rec.getZone() != null ? rec.getZone().getId() : null);
         dto.setZoneName(rec.getLocationName());
         dto.setDate(rec.getDate());
         dto.setCropType(rec.getCropType());
@@ -0,0 +1,90 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.RegionalEt0Dto;
+import com.hackathon.agriculture_backend.repository.FarmerRepository;
+import com.hackathon.agriculture_backend.repository.FarmerZoneRepository;
+import com.hackathon.agriculture_backend.util.NasaPowerGrid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves ET0 for all farmers and zones at once, so the daily run issues
+ * one NASA POWER request per region instead of one per farmer. Cells without
+ * a value for the date take the latest earlier published day.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegionalEt0Service {
+    
+    private final FarmerRepository farmerRepository;
+    private final FarmerZoneRepository farmerZoneRepository;
+    private final NasaService nasaService;
+    
+    // Last resolved result, so the daily run can reuse what the warm-up job fetched
+    private volatile RegionalEt0Dto lastResult;
+    
+    @Value("${app.nasa.regional.result-ttl:PT2H}")
+    private Duration resultTtl;
+    
+    public RegionalEt0Dto getEt0ForAllLocations(LocalDate date) {
+        RegionalEt0Dto cached = lastResult;
+        if (cached != null && cached.getDate().equals(date)
+                && Duration.between(cached.getResolvedAt(), Instant.now()).compareTo(resultTtl) < 0) {
+            log.info("Reusing regional ET0 resolved at {} for {}", cached.getResolvedAt(), date);
+            return cached;
+        }
+        
+        RegionalEt0Dto result = resolve(date);
+        lastResult = result;
+        return result;
+    }
+    
+    private RegionalEt0Dto resolve(LocalDate date) {
+        Map<Long, Long> farmerCells = toCells(farmerRepository.findSmsOptInCoordinates());
+        Map<Long, Long> zoneCells = toCells(farmerZoneRepository.findSmsOptInZoneCoordinates());
+        
+        Set<Long> cells = new HashSet<>(farmerCells.values());
+        cells.addAll(zoneCells.values());
+        log.info("Resolving ET0 for {} farmers and {} zones across {} grid cells on {}",
+                farmerCells.size(), zoneCells.size(), cells.size(), date);
+        
+        Map<Long, Double> cellEt0 = cells.isEmpty() ? Map.of() : nasaService.getLatestEvapotranspirationForCells(cells, date);
+        
+        return new RegionalEt0Dto(date, mapToCells(farmerCells, cellEt0), mapToCells(zoneCells, cellEt0), cells.size(),
+                cells, Instant.now());
+    }
+    
+    private Map<Long, Long> toCells(List<Object[]> coordinates) {
+        Map<Long, Long> cells = new HashMap<>();
+        for (Object[] row : coordinates) {
+            if (row[1] == null || row[2] == null) {
+                continue;
+            }
+            cells.put((Long) row[0], NasaPowerGrid.keyOf((Double) row[1], (Double) row[2]));
+        }
+        return cells;
+    }
+    
+    private Map<Long, Double> mapToCells(Map<Long, Long> idToCell, Map<Long, Double> cellEt0) {
+        Map<Long, Double> values = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : idToCell.entrySet()) {
+            Double et0 = cellEt0.get(entry.getValue());
+            if (et0 != null) {
+                values.put(entry.getKey(), et0);
+            }
+        }
+        return values;
+    }
+}
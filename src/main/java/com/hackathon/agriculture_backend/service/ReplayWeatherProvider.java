@@ -0,0 +1,115 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.util.OneCallDecoder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Offline provider that replays One Call payloads from disk, for load tests without
+ * network access. A file named {cell}.json (as written by the recording option of
+ * OpenWeatherProvider) is served for its own cell; any other cell gets one of the loaded
+ * files, chosen deterministically from the cell. Payloads are decoded on every call so the
+ * parsing cost matches the real provider. Latency and failures can be injected.
+ */
+@Service
+@ConditionalOnProperty(name = "app.weather.provider", havingValue = "replay")
+@Slf4j
+public class ReplayWeatherProvider implements WeatherProvider {
+    
+    @Value("${app.weather.replay.location:classpath:weather-replay/*.json}")
+    private String location;
+    
+    @Value("${app.weather.replay.latency.min:0ms}")
+    private Duration minLatency;
+    
+    @Value("${app.weather.replay.latency.max:0ms}")
+    private Duration maxLatency;
+    
+    @Value("${app.weather.replay.failure-rate:0.0}")
+    private double failureRate;
+    
+    private final Map<String, byte[]> payloadsByCell = new HashMap<>();
+    private final List<byte[]> payloads = new ArrayList<>();
+    
+    @PostConstruct
+    public void init() {
+        Resource[] resources;
+        try {
+            resources = new PathMatchingResourcePatternResolver().getResources(location);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to resolve weather replay files at " + location, e);
+        }
+        
+        Arrays.sort(resources, (a, b) -> String.valueOf(a.getFilename()).compareTo(String.valueOf(b.getFilename())));
+        for (Resource resource : resources) {
+            byte[] payload;
+            try (InputStream in = resource.getInputStream()) {
+                payload = in.readAllBytes();
+                // Fail at startup rather than on the first request
+                OneCallDecoder.decode(payload);
+            } catch (IOException e) {
+                throw new IllegalStateException("Invalid weather replay file " + resource.getDescription(), e);
+            }
+            String filename = resource.getFilename();
+            payloadsByCell.put(filename.substring(0, filename.length() - ".json".length()), payload);
+            payloads.add(payload);
+        }
+        
+        if (payloads.isEmpty()) {
+            throw new IllegalStateException("No weather replay files found at " + location);
+        }
+        if (maxLatency.compareTo(minLatency) < 0) {
+            maxLatency = minLatency;
+        }
+        log.warn("Replay weather provider active: {} payloads from {}, latency {}-{}, failure rate {}",
+                payloads.size(), location, minLatency, maxLatency, failureRate);
+    }
+    
+    @Override
+    public String getName() {
+        return "replay";
+    }
+    
+    @Override
+    public Mono<WeatherDto> fetch(String cell, double latitude, double longitude) {
+        byte[] payload = payloadsByCell.getOrDefault(cell, payloads.get(Math.floorMod(cell.hashCode(), payloads.size())));
+        
+        Mono<WeatherDto> response = Mono.fromCallable(() -> {
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                throw new RuntimeException("Injected replay failure for cell " + cell);
+            }
+            try {
+                return OneCallDecoder.decode(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Malformed replay payload", e);
+            }
+        });
+        
+        Duration latency = nextLatency();
+        return latency.isZero() ? response : Mono.delay(latency).then(response);
+    }
+    
+    private Duration nextLatency() {
+        long min = minLatency.toNanos();
+        long max = maxLatency.toNanos();
+        return Duration.ofNanos(max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min);
+    }
+}
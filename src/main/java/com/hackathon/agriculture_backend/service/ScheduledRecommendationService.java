@@ -1,36 +1,52 @@
 package com.hackathon.agriculture_backend.service;
 
-import com.hackathon.agriculture_backend.dto.WeatherDto;
 import com.hackathon.agriculture_backend.model.AlertLog;
 import com.hackathon.agriculture_backend.model.Farmer;
-import com.hackathon.agriculture_backend.model.IrrigationRecommendation;
 import com.hackathon.agriculture_backend.repository.FarmerRepository;
+import com.hackathon.agriculture_backend.util.LongHashSet;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Scheduled farmer jobs. Deliberately not transactional: weather, NASA and SMS calls run
+ * without a database connection, and results are written through ChunkedTransactionWriter.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional
 public class ScheduledRecommendationService {
     
     private final FarmerRepository farmerRepository;
     private final FarmerService farmerService;
     private final WeatherService weatherService;
-    private final NasaService nasaService;
+    private final DailyRecommendationPipeline dailyRecommendationPipeline;
+    private final SoilWaterBalanceService soilWaterBalanceService;
     private final RecommendationService recommendationService;
     private final AlertService alertService;
+    private final WeatherSnapshotCache weatherCache;
+    private final ChunkedTransactionWriter chunkedWriter;
     
     @Value("${app.scheduler.enabled:true}")
     private boolean schedulerEnabled;
     
+    @Value("${app.scheduler.pipeline.fetch-concurrency:8}")
+    private int fetchConcurrency;
+    
+    @Value("${app.scheduler.pipeline.alert-concurrency:8}")
+    private int alertConcurrency;
+    
     @Scheduled(cron = "${app.scheduler.daily-recommendation.cron:0 0 6 * * ?}")
     public void sendDailyRecommendations() {
         if (!schedulerEnabled) {
@@ -44,91 +60,42 @@ public class ScheduledRecommendationService {
             List<Farmer> farmers = farmerRepository.findBySmsOptInTrue();
             log.info("Processing recommendations for {} farmers", farmers.size());
             
-            int successCount = 0;
-            int failureCount = 0;
+            DailyRecommendationPipeline.Summary summary = dailyRecommendationPipeline.run(farmers, LocalDate.now());
             
-            for (Farmer farmer : farmers) {
-                try {
-                    processFarmerRecommendation(farmer);
-                    successCount++;
-                    log.info("Successfully processed recommendation for farmer: {}", farmer.getName());
-                } catch (Exception e) {
-                    failureCount++;
-                    log.error("Failed to process recommendation for farmer: {} - {}", farmer.getName(), e.getMessage());
-                }
-            }
-            
-            log.info("Daily recommendation process completed. Success: {}, Failures: {}", successCount, failureCount);
+            log.info("Daily recommendation process completed in {} ms. Success: {}, Zones: {}, Failures: {}, Skipped: {}, Weather cells: {}",
+                    summary.getDuration().toMillis(), summary.getRecommended(), summary.getZonesRecommended(),
+                    summary.getFailed(), summary.getSkipped(), summary.getWeatherCells());
             
         } catch (Exception e) {
             log.error("Error in daily recommendation process", e);
         }
     }
     
-    private void processFarmerRecommendation(Farmer farmer) {
-        log.info("Processing recommendation for farmer: {} at location: {}", 
-                farmer.getName(), farmer.getLocationName());
-        
-        LocalDate today = LocalDate.now();
-        
-        // Check if recommendation already exists for today
-        if (recommendationService.hasRecommendationForDate(farmer.getId(), today)) {
-            log.info("Recommendation already exists for farmer: {} on date: {}", farmer.getName(), today);
+    /**
+     * Late in the evening, so the day's forecast is still the first day of the cached snapshots.
+     */
+    @Scheduled(cron = "${app.scheduler.soil-water.cron:0 45 23 * * ?}")
+    public void updateSoilWaterBalances() {
+        if (!schedulerEnabled) {
+            log.info("Scheduler is disabled, skipping soil water balance update");
             return;
         }
         
+        log.info("Starting soil water balance update at {}", LocalDate.now());
+        
         try {
-            // Fetch weather data
-            WeatherDto weather = weatherService.getCurrentWeather(farmer.getLatitude(), farmer.getLongitude());
-            log.info("Weather data fetched for farmer: {} - Temp: {}°C, Humidity: {}%", 
-                    farmer.getName(), weather.getTempC(), weather.getHumidity());
-            
-            // Fetch ET0 data
-            Double et0 = nasaService.getEvapotranspiration(farmer.getLatitude(), farmer.getLongitude(), today);
-            log.info("ET0 data fetched for farmer: {} - ET0: {}mm", farmer.getName(), et0);
-            
-            // Calculate recommendation
-            var result = recommendationService.calculateRecommendation(
-                    farmer,
-                    weather.getTempC(),
-                    weather.getHumidity(),
-                    weather.getRainfallMm(),
-                    weather.getForecastRainfallMm(),
-                    et0
-            );
-            
-            log.info("Recommendation calculated for farmer: {} - {}", farmer.getName(), result.getRecommendation());
-            
-            // Save recommendation
-            IrrigationRecommendation recommendation = recommendationService.saveRecommendation(
-                    farmer,
-                    today,
-                    farmer.getPreferredCrop(),
-                    farmer.getLocationName(),
-                    weather.getTempC(),
-                    weather.getHumidity(),
-                    weather.getRainfallMm(),
-                    et0,
-                    result
-            );
+            SoilWaterBalanceService.Summary summary = soilWaterBalanceService.advance(LocalDate.now());
             
-            // Send SMS alert
-            AlertLog alertLog = alertService.sendIrrigationRecommendationAlert(farmer, recommendation);
-            log.info("SMS alert sent for farmer: {} - Status: {}", farmer.getName(), alertLog.getStatus());
-            
-            // Send heat alert if temperature is high
-            if (weather.getHeatAlert() != null && weather.getHeatAlert()) {
-                AlertLog heatAlert = alertService.sendHeatAlert(farmer, weather.getTempC());
-                log.info("Heat alert sent for farmer: {} - Status: {}", farmer.getName(), heatAlert.getStatus());
-            }
+            log.info("Soil water balance update completed in {} ms. Updated: {}, Created: {}, Up to date: {}, Failures: {}",
+                    summary.getDuration().toMillis(), summary.getUpdated(), summary.getCreated(),
+                    summary.getUpToDate(), summary.getFailed());
             
         } catch (Exception e) {
-            log.error("Error processing recommendation for farmer: {}", farmer.getName(), e);
-            throw e;
+            log.error("Error in soil water balance update", e);
         }
     }
     
-    @Scheduled(cron = "0 0 12 * * ?") // Every day at 12 PM
+    @Scheduled(cron = "${app.scheduler.heat-alert.cron:0 0 12 * * ?}") // Every day at 12 PM
     public void sendHeatAlerts() {
         if (!schedulerEnabled) {
             log.info("Scheduler is disabled, skipping heat alerts");
@@ -141,31 +108,29 @@ public class ScheduledRecommendationService {
             List<Farmer> farmers = farmerRepository.findBySmsOptInTrue();
             log.info("Checking heat alerts for {} farmers", farmers.size());
             
-            int heatAlertCount = 0;
+            // Fetch phase: one weather request per cell and SMS delivery, no transaction open
+            List<AlertLog> alertLogs = Flux.fromIterable(groupByWeatherCell(farmers).values())
+                    .flatMap(this::farmersUnderHeatAlert, fetchConcurrency)
+                    .flatMap(heat -> Mono.fromCallable(() -> alertService.deliverHeatAlert(heat.farmer(), heat.tempC()))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .onErrorResume(e -> {
+                                log.error("Error sending heat alert to farmer: {} - {}", heat.farmer().getName(), e.getMessage());
+                                return Mono.empty();
+                            }), alertConcurrency)
+                    .collectList()
+                    .block();
             
-            for (Farmer farmer : farmers) {
-                try {
-                    WeatherDto weather = weatherService.getCurrentWeather(farmer.getLatitude(), farmer.getLongitude());
-                    
-                    if (weather.getHeatAlert() != null && weather.getHeatAlert()) {
-                        AlertLog heatAlert = alertService.sendHeatAlert(farmer, weather.getTempC());
-                        heatAlertCount++;
-                        log.info("Heat alert sent for farmer: {} - Status: {}", farmer.getName(), heatAlert.getStatus());
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("Error checking heat alert for farmer: {} - {}", farmer.getName(), e.getMessage());
-                }
-            }
+            // Write phase: alert logs in short chunked transactions
+            List<AlertLog> unsaved = chunkedWriter.writeAll("heat-alert", alertLogs, alertService::saveAlertLogs);
             
-            log.info("Heat alert process completed. Alerts sent: {}", heatAlertCount);
+            log.info("Heat alert process completed. Alerts sent: {}, logs not saved: {}", alertLogs.size(), unsaved.size());
             
         } catch (Exception e) {
             log.error("Error in heat alert process", e);
         }
     }
     
-    @Scheduled(cron = "0 0 18 * * ?") // Every day at 6 PM
+    @Scheduled(cron = "${app.scheduler.evening-reminder.cron:0 0 18 * * ?}") // Every day at 6 PM
     public void sendEveningReminders() {
         if (!schedulerEnabled) {
             log.info("Scheduler is disabled, skipping evening reminders");
@@ -178,38 +143,72 @@ public class ScheduledRecommendationService {
             List<Farmer> farmers = farmerRepository.findBySmsOptInTrue();
             log.info("Sending evening reminders to {} farmers", farmers.size());
             
-            int reminderCount = 0;
-            
+            // Only farmers with a recommendation for today, checked against one set-based query
+            LongHashSet withRecommendation = recommendationService.getFarmerIdsWithRecommendation(LocalDate.now());
+            List<Farmer> recipients = new ArrayList<>();
             for (Farmer farmer : farmers) {
-                try {
-                    // Check if farmer has a recommendation for today
-                    if (recommendationService.hasRecommendationForDate(farmer.getId(), LocalDate.now())) {
-                        // Send evening reminder
-                        String reminderMessage = String.format(
-                                "🌅 Evening Reminder for %s\n" +
-                                "Don't forget to check your irrigation recommendation for today!\n" +
-                                "Visit your dashboard or check your earlier message for details.\n" +
-                                "Smart Irrigation System",
-                                farmer.getLocationName()
-                        );
-                        
-                        AlertLog reminder = alertService.sendSmsAlert(farmer, reminderMessage, "EVENING_REMINDER");
-                        reminderCount++;
-                        log.info("Evening reminder sent for farmer: {} - Status: {}", farmer.getName(), reminder.getStatus());
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("Error sending evening reminder for farmer: {} - {}", farmer.getName(), e.getMessage());
+                if (withRecommendation.contains(farmer.getId())) {
+                    recipients.add(farmer);
                 }
             }
             
-            log.info("Evening reminder process completed. Reminders sent: {}", reminderCount);
+            // Delivery phase: no transaction open while sending
+            List<AlertLog> alertLogs = Flux.fromIterable(recipients)
+                    .flatMap(farmer -> Mono.fromCallable(() -> alertService.deliverSmsAlert(farmer,
+                                    buildEveningReminder(farmer), "EVENING_REMINDER"))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .onErrorResume(e -> {
+                                log.error("Error sending evening reminder for farmer: {} - {}", farmer.getName(), e.getMessage());
+                                return Mono.empty();
+                            }), alertConcurrency)
+                    .collectList()
+                    .block();
+            
+            // Write phase: reminder logs in short chunked transactions
+            List<AlertLog> unsaved = chunkedWriter.writeAll("evening-reminder", alertLogs, alertService::saveAlertLogs);
+            
+            log.info("Evening reminder process completed. Reminders sent: {}, logs not saved: {}", alertLogs.size(), unsaved.size());
             
         } catch (Exception e) {
             log.error("Error in evening reminder process", e);
         }
     }
+    
+    private Flux<HeatExposure> farmersUnderHeatAlert(List<Farmer> group) {
+        Farmer first = group.get(0);
+        return weatherService.getCurrentWeatherAsync(first.getLatitude(), first.getLongitude())
+                .filter(weather -> weather.getHeatAlert() != null && weather.getHeatAlert())
+                .flatMapMany(weather -> Flux.fromIterable(group).map(farmer -> new HeatExposure(farmer, weather.getTempC())))
+                .onErrorResume(e -> {
+                    log.error("Error checking heat alert for {} farmers near {}, {} - {}",
+                            group.size(), first.getLatitude(), first.getLongitude(), e.getMessage());
+                    return Flux.empty();
+                });
+    }
+    
+    private Map<String, List<Farmer>> groupByWeatherCell(List<Farmer> farmers) {
+        Map<String, List<Farmer>> groups = new LinkedHashMap<>();
+        for (Farmer farmer : farmers) {
+            try {
+                groups.computeIfAbsent(weatherCache.cellFor(farmer.getLatitude(), farmer.getLongitude()),
+                        cell -> new ArrayList<>()).add(farmer);
+            } catch (Exception e) {
+                log.error("Skipping farmer with invalid location: {} - {}", farmer.getName(), e.getMessage());
+            }
+        }
+        return groups;
+    }
+    
+    private String buildEveningReminder(Farmer farmer) {
+        return String.format(
+                "🌅 Evening Reminder for %s\n" +
+                "Don't forget to check your irrigation recommendation for today!\n" +
+                "Visit your dashboard or check your earlier message for details.\n" +
+                "Smart Irrigation System",
+                farmer.getLocationName()
+        );
+    }
+    
+    private record HeatExposure(Farmer farmer, Double tempC) {
+    }
 }
-
-
-
@@ -0,0 +1,253 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.agriculture_backend.util.ScoringRules;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Versioned rule table for irrigation scoring, heat risk and irrigation efficiency, read from
+ * app.scoring.rules.location. Recommendation rules can be overridden per crop, per region
+ * (the farmer's location name) or per crop and region; every combination is compiled into
+ * {@link ScoringRules} when the table is loaded, so a lookup is at most two map reads.
+ * A changed file is compiled off to the side and swapped in atomically, and only if it is
+ * valid and carries a higher version.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScoringRuleTable {
+    
+    private static final String ANY = "";
+    private static final String[] HEAT_RISK_LEVELS = {"EXTREME", "HIGH", "MODERATE"};
+    
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    private volatile Table table;
+    
+    @Value("${app.scoring.rules.location:classpath:scoring-rules.json}")
+    private String location;
+    
+    @PostConstruct
+    public void init() {
+        byte[] source = read();
+        try {
+            table = compile(source);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Invalid scoring rule table at " + location + ": " + e.getMessage(), e);
+        }
+        log.info("Scoring rule table version {} loaded from {}", table.version, location);
+        Gauge.builder("scoring.rules.version", this, ruleTable -> ruleTable.table.version)
+                .description("Version of the active scoring rule table")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Recommendation rules for the crop and region; either may be null.
+     */
+    public ScoringRules rulesFor(String crop, String region) {
+        Table current = table;
+        if (!current.overridden) {
+            // No overrides: skip key normalization on the scoring path
+            return current.defaults;
+        }
+        Map<String, ScoringRules> byRegion = current.rules.get(normalize(crop));
+        if (byRegion == null) {
+            byRegion = current.rules.get(ANY);
+        }
+        ScoringRules rules = byRegion.get(normalize(region));
+        return rules != null ? rules : byRegion.get(ANY);
+    }
+    
+    public String heatRisk(double temperature) {
+        double[] thresholds = table.heatRiskAbove;
+        for (int i = 0; i < thresholds.length; i++) {
+            if (temperature > thresholds[i]) {
+                return HEAT_RISK_LEVELS[i];
+            }
+        }
+        return "LOW";
+    }
+    
+    public double getHeatAlertThreshold() {
+        return table.heatAlertAbove;
+    }
+    
+    public double irrigationEfficiency(String irrigationType, String soilType) {
+        Table current = table;
+        double efficiency = current.efficiencyByType.getOrDefault(normalize(irrigationType), current.defaultEfficiency);
+        efficiency *= current.soilFactors.getOrDefault(normalize(soilType), 1.0);
+        return Math.min(current.maxEfficiency, efficiency);
+    }
+    
+    public long getVersion() {
+        return table.version;
+    }
+    
+    public Instant getLoadedAt() {
+        return table.loadedAt;
+    }
+    
+    /**
+     * Reload if the file changed. Invalid tables and tables without a higher version are rejected
+     * and the active table stays in place.
+     */
+    @Scheduled(fixedDelayString = "${app.scoring.rules.check-interval:PT30S}",
+            initialDelayString = "${app.scoring.rules.check-interval:PT30S}")
+    public void refreshIfChanged() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Scoring rule table reload failed, keeping version {}: {}", table.version, e.getMessage());
+        }
+    }
+    
+    /**
+     * Load the file now and return the version that is active afterwards.
+     */
+    public synchronized long reload() {
+        Table current = table;
+        byte[] source = read();
+        if (Arrays.equals(source, current.source)) {
+            return current.version;
+        }
+        
+        Table compiled = compile(source);
+        if (compiled.version <= current.version) {
+            throw new IllegalStateException("scoring rule table changed but its version " + compiled.version
+                    + " is not above the active version " + current.version);
+        }
+        table = compiled;
+        log.info("Scoring rule table version {} activated, replacing version {}", compiled.version, current.version);
+        return compiled.version;
+    }
+    
+    private byte[] read() {
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read scoring rule table " + location + ": " + e.getMessage());
+        }
+    }
+    
+    private Table compile(byte[] source) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(source);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getMessage());
+        }
+        if (root == null || !root.path("version").canConvertToLong()) {
+            throw new IllegalArgumentException("numeric version is required");
+        }
+        
+        JsonNode recommendation = root.path("recommendation");
+        ScoringRules defaults = ScoringRules.DEFAULTS.with(values(recommendation.path("default")));
+        
+        // Collect the override layers, then compile every crop x region combination up front
+        Map<String, Map<String, Map<String, Number>>> layers = new HashMap<>();
+        Set<String> crops = new LinkedHashSet<>();
+        Set<String> regions = new LinkedHashSet<>();
+        crops.add(ANY);
+        regions.add(ANY);
+        for (JsonNode override : recommendation.path("overrides")) {
+            String crop = normalize(override.path("crop").asText(null));
+            String region = normalize(override.path("region").asText(null));
+            if (crop.equals(ANY) && region.equals(ANY)) {
+                throw new IllegalArgumentException("override without crop or region");
+            }
+            layers.computeIfAbsent(crop, c -> new HashMap<>()).put(region, values(override.path("values")));
+            crops.add(crop);
+            regions.add(region);
+        }
+        
+        Map<String, Map<String, ScoringRules>> rules = new HashMap<>();
+        for (String crop : crops) {
+            Map<String, ScoringRules> byRegion = new HashMap<>();
+            for (String region : regions) {
+                // Precedence: crop and region, then crop, then region
+                Map<String, Number> merged = new LinkedHashMap<>();
+                merged.putAll(layer(layers, ANY, region));
+                merged.putAll(layer(layers, crop, ANY));
+                merged.putAll(layer(layers, crop, region));
+                byRegion.put(region, defaults.with(merged));
+            }
+            rules.put(crop, Map.copyOf(byRegion));
+        }
+        
+        JsonNode heat = root.path("heat-risk");
+        double[] heatRiskAbove = {
+                heat.path("extreme-above").asDouble(40), heat.path("high-above").asDouble(35),
+                heat.path("moderate-above").asDouble(30)
+        };
+        if (heatRiskAbove[0] < heatRiskAbove[1] || heatRiskAbove[1] < heatRiskAbove[2]) {
+            throw new IllegalArgumentException("heat-risk thresholds must decrease from extreme to moderate");
+        }
+        
+        JsonNode efficiency = root.path("irrigation-efficiency");
+        return new Table(root.path("version").asLong(), source, Instant.now(), defaults, !layers.isEmpty(), Map.copyOf(rules),
+                heatRiskAbove, heat.path("alert-above").asDouble(35),
+                efficiency.path("default").asDouble(0.8), efficiency.path("max").asDouble(0.95),
+                factors(efficiency.path("types")), factors(efficiency.path("soil-factors")));
+    }
+    
+    private static Map<String, Number> layer(Map<String, Map<String, Map<String, Number>>> layers,
+                                             String crop, String region) {
+        return layers.getOrDefault(crop, Map.of()).getOrDefault(region, Map.of());
+    }
+    
+    private static Map<String, Number> values(JsonNode node) {
+        Map<String, Number> values = new LinkedHashMap<>();
+        node.fields().forEachRemaining(field -> {
+            if (!field.getValue().isNumber()) {
+                throw new IllegalArgumentException("value of " + field.getKey() + " must be a number");
+            }
+            values.put(field.getKey(), field.getValue().numberValue());
+        });
+        return values;
+    }
+    
+    private static Map<String, Double> factors(JsonNode node) {
+        Map<String, Double> factors = new HashMap<>();
+        node.fields().forEachRemaining(field -> {
+            double factor = field.getValue().asDouble(Double.NaN);
+            if (!(factor > 0)) {
+                throw new IllegalArgumentException("factor for " + field.getKey() + " must be a positive number");
+            }
+            factors.put(normalize(field.getKey()), factor);
+        });
+        return Map.copyOf(factors);
+    }
+    
+    private static String normalize(String key) {
+        return key == null ? ANY : key.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private record Table(long version, byte[] source, Instant loadedAt, ScoringRules defaults, boolean overridden,
+                         Map<String, Map<String, ScoringRules>> rules, double[] heatRiskAbove, double heatAlertAbove,
+                         double defaultEfficiency, double maxEfficiency,
+                         Map<String, Double> efficiencyByType, Map<String, Double> soilFactors) {
+    }
+}
@@ -0,0 +1,257 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.SeasonSimulationDto;
+import com.hackathon.agriculture_backend.dto.SeasonSimulationRequestDto;
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.dto.WeatherSnapshot;
+import com.hackathon.agriculture_backend.util.ReferenceEvapotranspiration;
+import com.hackathon.agriculture_backend.util.SeasonSimulation;
+import com.hackathon.agriculture_backend.util.SoilWaterBalance;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Season-long water use of plan variants at one location. The season's daily ET0 comes from the
+ * forecast where it reaches, then from the average of the same days in past years (NASA POWER,
+ * stored locally after the first fetch), and otherwise from the forecast scaled by the seasonal
+ * change in extraterrestrial radiation. Rain beyond the forecast is not known and taken as zero,
+ * so projections are an upper bound. Weather is resolved once per request and every variant is
+ * simulated in one pass of SeasonSimulation over primitive arrays.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeasonSimulationService {
+    
+    private static final int DEFAULT_DAYS = 120;
+    
+    private final WeatherService weatherService;
+    private final NasaService nasaService;
+    private final ScoringRuleTable scoringRuleTable;
+    private final SoilWaterBalanceService soilWaterBalanceService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.simulation.max-variants:1000}")
+    private int maxVariants;
+    
+    @Value("${app.simulation.climatology-years:3}")
+    private int climatologyYears;
+    
+    // Past years' ET0 is skipped rather than waited on beyond this, to keep the endpoint interactive
+    @Value("${app.simulation.climatology-timeout:5s}")
+    private Duration climatologyTimeout;
+    
+    public Mono<SeasonSimulationDto> simulate(SeasonSimulationRequestDto request) {
+        return Mono.defer(() -> {
+            if (request.getVariants().size() > maxVariants) {
+                return Mono.error(new IllegalArgumentException("At most " + maxVariants + " variants per simulation"));
+            }
+            if ((request.getFarmerId() == null) != (request.getPlanId() == null)) {
+                return Mono.error(new IllegalArgumentException("farmerId and planId must be given together"));
+            }
+            LocalDate startDate = request.getStartDate() != null ? request.getStartDate() : LocalDate.now();
+            int days = request.getDays() != null ? request.getDays() : DEFAULT_DAYS;
+            
+            log.info("Simulating {} days from {} for {} variants at {}, {}",
+                    days, startDate, request.getVariants().size(), request.getLatitude(), request.getLongitude());
+            
+            Mono<Double> startDepletion = request.getPlanId() == null
+                    ? Mono.just(0.0)
+                    : Mono.fromCallable(() -> soilWaterBalanceService.getPlanDepletion(request.getFarmerId(), request.getPlanId()))
+                            .subscribeOn(Schedulers.boundedElastic());
+            
+            return Mono.zip(
+                            weatherService.getSnapshotAsync(request.getLatitude(), request.getLongitude())
+                                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Unable to fetch weather data for the location"))),
+                            climatology(request.getLatitude(), request.getLongitude(), startDate, days),
+                            startDepletion)
+                    .map(inputs -> run(request, startDate, days, seasonWeather(inputs.getT1(), inputs.getT2(), startDate, days),
+                            inputs.getT3()));
+        });
+    }
+    
+    /**
+     * Average ET0 of each season day over past years; NaN where no year has data.
+     */
+    private Mono<double[]> climatology(double latitude, double longitude, LocalDate startDate, int days) {
+        LocalDate endDate = startDate.plusDays(days - 1);
+        return Flux.range(1, climatologyYears)
+                .flatMap(years -> nasaService.getEt0SeriesAsync(latitude, longitude,
+                                startDate.minusYears(years), endDate.minusYears(years))
+                        .map(series -> Map.entry(startDate.minusYears(years), series))
+                        .onErrorResume(e -> {
+                            log.warn("No ET0 history {} years back for {}, {}: {}", years, latitude, longitude, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .take(climatologyTimeout)
+                .collectList()
+                .map(years -> {
+                    double[] sum = new double[days];
+                    int[] count = new int[days];
+                    for (Map.Entry<LocalDate, NavigableMap<LocalDate, Double>> year : years) {
+                        for (Map.Entry<LocalDate, Double> day : year.getValue().entrySet()) {
+                            int d = (int) ChronoUnit.DAYS.between(year.getKey(), day.getKey());
+                            if (d >= 0 && d < days) {
+                                sum[d] += day.getValue();
+                                count[d]++;
+                            }
+                        }
+                    }
+                    double[] et0 = new double[days];
+                    for (int d = 0; d < days; d++) {
+                        et0[d] = count[d] > 0 ? sum[d] / count[d] : Double.NaN;
+                    }
+                    return et0;
+                });
+    }
+    
+    private SeasonWeather seasonWeather(WeatherSnapshot snapshot, double[] climatology, LocalDate startDate, int days) {
+        double latitude = snapshot.getLatitude();
+        LocalDate firstDay = LocalDate.ofInstant(snapshot.getFetchedAt(), ZoneId.systemDefault());
+        List<WeatherDto.DailyWeather> daily = snapshot.hasDaily() ? snapshot.getDaily() : List.of();
+        // Without a daily forecast, the current conditions stand in for its first day
+        int forecastCount = Math.max(1, daily.size());
+        double[] forecastEt0 = weatherService.calculateDailyEt0(snapshot, firstDay, forecastCount);
+        
+        // ET0 per unit of extraterrestrial radiation over the forecast, for days without other data
+        double et0Sum = 0;
+        double radiationSum = 0;
+        for (int k = 0; k < forecastCount; k++) {
+            if (!Double.isNaN(forecastEt0[k])) {
+                et0Sum += forecastEt0[k];
+                radiationSum += ReferenceEvapotranspiration.extraterrestrialRadiation(latitude,
+                        firstDay.plusDays(k).getDayOfYear());
+            }
+        }
+        double et0PerRadiation = radiationSum > 0 ? et0Sum / radiationSum : Double.NaN;
+        
+        SeasonWeather weather = new SeasonWeather(days);
+        int offset = (int) ChronoUnit.DAYS.between(firstDay, startDate);
+        for (int d = 0; d < days; d++) {
+            int k = offset + d;
+            if (k >= 0 && k < daily.size() && !Double.isNaN(forecastEt0[k])) {
+                weather.et0[d] = forecastEt0[k];
+                weather.rain[d] = daily.get(k).getRain() != null ? daily.get(k).getRain() : 0.0;
+                weather.forecastDays++;
+            } else if (!Double.isNaN(climatology[d])) {
+                weather.et0[d] = climatology[d];
+                weather.climatologyDays++;
+            } else if (!Double.isNaN(et0PerRadiation)) {
+                weather.et0[d] = et0PerRadiation * ReferenceEvapotranspiration.extraterrestrialRadiation(latitude,
+                        startDate.plusDays(d).getDayOfYear());
+                weather.estimatedDays++;
+            } else {
+                throw new RuntimeException("Not enough weather data to simulate the season");
+            }
+        }
+        return weather;
+    }
+    
+    private SeasonSimulationDto run(SeasonSimulationRequestDto request, LocalDate startDate, int days,
+                                    SeasonWeather weather, double startDepletion) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<SeasonSimulationRequestDto.Variant> variants = request.getVariants();
+        int n = variants.size();
+        
+        double[] kc = new double[days * n];
+        double[] totalAvailable = new double[n];
+        double[] readilyAvailable = new double[n];
+        double[] trigger = new double[n];
+        double[] litersPerMm = new double[n];
+        double[] initialDepletion = new double[n];
+        for (int v = 0; v < n; v++) {
+            SeasonSimulationRequestDto.Variant variant = variants.get(v);
+            SoilWaterBalance.CropParameters crop = SoilWaterBalance.crop(variant.getCropType());
+            SeasonSimulation.kcCurve(SeasonSimulation.stages(variant.getCropType()), days, kc, n, v);
+            totalAvailable[v] = SoilWaterBalance.totalAvailableWater(crop, variant.getSoilType());
+            readilyAvailable[v] = crop.depletionFraction() * totalAvailable[v];
+            double fraction = variant.getTriggerFraction() != null ? variant.getTriggerFraction() : crop.depletionFraction();
+            trigger[v] = fraction * totalAvailable[v];
+            litersPerMm[v] = variant.getArea() / scoringRuleTable.irrigationEfficiency(variant.getIrrigationType(), variant.getSoilType());
+            initialDepletion[v] = Math.min(totalAvailable[v], startDepletion);
+        }
+        
+        double[] depletion = initialDepletion.clone();
+        double[] liters = new double[days * n];
+        double[] baseline = new double[days * n];
+        double[] depletionSeries = new double[days * n];
+        SeasonSimulation.run(weather.et0, weather.rain, kc, totalAvailable, readilyAvailable, trigger, litersPerMm,
+                depletion, liters, baseline, depletionSeries, days, n);
+        
+        List<SeasonSimulationDto.VariantResult> results = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            SeasonSimulationRequestDto.Variant variant = variants.get(v);
+            double[] variantLiters = new double[days];
+            double[] variantDepletion = new double[days];
+            double[] variantSaved = new double[days];
+            double totalLiters = 0;
+            double baselineLiters = 0;
+            int events = 0;
+            int stressDays = 0;
+            double dayStartDepletion = initialDepletion[v];
+            for (int d = 0; d < days; d++) {
+                int i = d * n + v;
+                totalLiters += liters[i];
+                baselineLiters += baseline[i];
+                events += liters[i] > 0 ? 1 : 0;
+                stressDays += dayStartDepletion > readilyAvailable[v] ? 1 : 0;
+                dayStartDepletion = depletionSeries[i];
+                variantLiters[d] = round(liters[i]);
+                variantDepletion[d] = round(depletionSeries[i]);
+                variantSaved[d] = round(baselineLiters - totalLiters);
+            }
+            results.add(new SeasonSimulationDto.VariantResult(variant.getRef(), variant.getCropType(), variant.getSoilType(),
+                    variant.getIrrigationType(), variant.getArea(), round(totalAvailable[v]), round(trigger[v]),
+                    variantLiters, variantDepletion, variantSaved, round(totalLiters), round(baselineLiters),
+                    round(baselineLiters - totalLiters), events, stressDays));
+        }
+        
+        double[] et0 = new double[days];
+        double[] rain = new double[days];
+        for (int d = 0; d < days; d++) {
+            et0[d] = round(weather.et0[d]);
+            rain[d] = round(weather.rain[d]);
+        }
+        
+        sample.stop(Timer.builder("season.simulation.duration")
+                .description("Time to simulate and summarize the variants of one season simulation")
+                .register(meterRegistry));
+        meterRegistry.counter("season.simulation.variants").increment(n);
+        return new SeasonSimulationDto(startDate, days, weather.forecastDays, weather.climatologyDays,
+                weather.estimatedDays, et0, rain, results);
+    }
+    
+    // Series are reported to one decimal
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+    
+    private static final class SeasonWeather {
+        final double[] et0;
+        final double[] rain;
+        int forecastDays;
+        int climatologyDays;
+        int estimatedDays;
+        
+        SeasonWeather(int days) {
+            et0 = new double[days];
+            rain = new double[days];
+        }
+    }
+}
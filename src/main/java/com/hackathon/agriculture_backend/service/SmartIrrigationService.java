@@ -2,10 +2,12 @@ package com.hackathon.agriculture_backend.service;
 
 import com.hackathon.agriculture_backend.dto.IrrigationPlanDto;
 import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.dto.WeatherSnapshot;
 import com.hackathon.agriculture_backend.controller.SmartIrrigationController;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -20,148 +22,186 @@ public class SmartIrrigationService {
     
     private final WeatherService weatherService;
     private final RecommendationService recommendationService;
+    private final ScoringRuleTable scoringRuleTable;
+    private final IrrigationPlanCache planCache;
     
     public IrrigationPlanDto generateIrrigationPlan(Double latitude, Double longitude, String cropType, 
                                                    Double area, String irrigationType, String soilType) {
+        return generateIrrigationPlanAsync(latitude, longitude, cropType, area, irrigationType, soilType).block();
+    }
+    
+    public Mono<IrrigationPlanDto> generateIrrigationPlanAsync(Double latitude, Double longitude, String cropType,
+                                                             Double area, String irrigationType, String soilType) {
+        return getIrrigationPlanAsync(latitude, longitude, cropType, area, irrigationType, soilType)
+                .map(IrrigationPlanCache.CachedPlan::plan);
+    }
+    
+    /**
+     * The plan for the location's weather cell, from the plan cache while the cell's forecast is
+     * unchanged. Plans are generated for the area rounded to the cache's area bucket.
+     */
+    public Mono<IrrigationPlanCache.CachedPlan> getIrrigationPlanAsync(Double latitude, Double longitude, String cropType,
+                                                                      Double area, String irrigationType, String soilType) {
         
         log.info("Generating irrigation plan for location: {}, {} with crop: {}", 
                 latitude, longitude, cropType);
         
-        try {
-            // Get real weather data
-            WeatherDto weatherData = weatherService.getIrrigationWeatherData(latitude, longitude);
-            
-            if (weatherData == null || weatherData.getCurrent() == null) {
-                throw new RuntimeException("Unable to fetch weather data for the location");
-            }
-            
-            // Extract current weather conditions with null checks
-            Double temperature = weatherData.getCurrent().getTemp() != null ? 
-                    weatherData.getCurrent().getTemp() : 25.0;
-            Double humidity = weatherData.getCurrent().getHumidity() != null ? 
-                    weatherData.getCurrent().getHumidity() : 50.0;
-            Double rainfall = weatherData.getCurrent().getRain() != null ? 
-                    weatherData.getCurrent().getRain().getOneHour() : 0.0;
-            Double windSpeed = weatherData.getCurrent().getWindSpeed() != null ? 
-                    weatherData.getCurrent().getWindSpeed() : 5.0;
-            Double uvIndex = weatherData.getCurrent().getUvi() != null ? 
-                    weatherData.getCurrent().getUvi() : 5.0;
-            
-            // Calculate evapotranspiration using real weather data
-            Double et0 = calculateEvapotranspiration(temperature, humidity, windSpeed, uvIndex);
-            
-            // Generate 7-day irrigation plan
-            List<IrrigationPlanDto.DayPlan> dailyPlans = new ArrayList<>();
+        // Get real weather data from the shared One Call snapshot
+        return Mono.fromCallable(() -> planCache.areaBucket(area))
+                .flatMap(areaBucket -> weatherService.getSnapshotAsync(latitude, longitude)
+                        .switchIfEmpty(Mono.error(() -> new RuntimeException("Unable to fetch weather data for the location")))
+                        .map(weatherData -> planCache.get(weatherData,
+                                planCache.keyFor(cropType, areaBucket, irrigationType, soilType, LocalDate.now(),
+                                        scoringRuleTable.getVersion()),
+                                () -> buildIrrigationPlan(weatherData, cropType, areaBucket, irrigationType, soilType))))
+                .onErrorMap(e -> {
+                    log.error("Error generating irrigation plan: {}", e.getMessage());
+                    return new RuntimeException("Failed to generate irrigation plan: " + e.getMessage());
+                });
+    }
+    
+    private IrrigationPlanDto buildIrrigationPlan(WeatherSnapshot weatherData, String cropType, Double area,
+                                                  String irrigationType, String soilType) {
+        if (weatherData.getCurrent() == null) {
+            throw new RuntimeException("Unable to fetch weather data for the location");
+        }
+        
+        // Extract current weather conditions with null checks
+        Double temperature = weatherData.getCurrent().getTemp() != null ? 
+                weatherData.getCurrent().getTemp() : 25.0;
+        Double humidity = weatherData.getCurrent().getHumidity() != null ? 
+                weatherData.getCurrent().getHumidity() : 50.0;
+        Double rainfall = weatherData.getCurrent().getRain() != null ? 
+                weatherData.getCurrent().getRain().getOneHour() : 0.0;
+        Double windSpeed = weatherData.getCurrent().getWindSpeed() != null ? 
+                weatherData.getCurrent().getWindSpeed() : 5.0;
+        
+        // FAO-56 reference evapotranspiration for each day of the plan, in one pass
+        double[] et0 = weatherService.calculateDailyEt0(weatherData, LocalDate.now(), 7);
+        
+        // Generate 7-day irrigation plan
+        List<IrrigationPlanDto.DayPlan> dailyPlans = new ArrayList<>();
+        
+        for (int i = 0; i < 7; i++) {
+            LocalDate date = LocalDate.now().plusDays(i);
             
-            for (int i = 0; i < 7; i++) {
-                LocalDate date = LocalDate.now().plusDays(i);
-                
-                // Get forecast data for each day
-                WeatherDto.DailyWeather dayForecast = null;
-                if (weatherData.getDaily() != null && i < weatherData.getDaily().size()) {
-                    dayForecast = weatherData.getDaily().get(i);
-                }
-                
-                // Calculate irrigation needs for each day
-                IrrigationPlanDto.DayPlan dayPlan = calculateDayPlan(
-                        date, cropType, area, irrigationType, soilType,
-                        dayForecast, et0, temperature, humidity, rainfall, windSpeed
-                );
-                
-                dailyPlans.add(dayPlan);
+            // Get forecast data for each day
+            WeatherDto.DailyWeather dayForecast = null;
+            if (weatherData.getDaily() != null && i < weatherData.getDaily().size()) {
+                dayForecast = weatherData.getDaily().get(i);
             }
             
-            // Create comprehensive irrigation plan
-            IrrigationPlanDto plan = new IrrigationPlanDto();
-            plan.setLocationName(getLocationName(latitude, longitude));
-            plan.setCropType(cropType);
-            plan.setArea(area);
-            plan.setIrrigationType(irrigationType);
-            plan.setSoilType(soilType);
-            plan.setDailyPlans(dailyPlans);
-            plan.setGeneratedAt(LocalDate.now());
-            
-            // Calculate total water savings
-            Double totalWaterSaved = dailyPlans.stream()
-                    .mapToDouble(IrrigationPlanDto.DayPlan::getWaterSavedLiters)
-                    .sum();
-            plan.setTotalWaterSaved(totalWaterSaved);
-            
-            log.info("Irrigation plan generated successfully with {} days of recommendations", 
-                    dailyPlans.size());
-            
-            return plan;
+            // Calculate irrigation needs for each day
+            IrrigationPlanDto.DayPlan dayPlan = calculateDayPlan(
+                    date, cropType, area, irrigationType, soilType,
+                    dayForecast, Double.isNaN(et0[i]) ? null : et0[i], temperature, humidity, rainfall, windSpeed
+            );
             
-        } catch (Exception e) {
-            log.error("Error generating irrigation plan: {}", e.getMessage());
-            throw new RuntimeException("Failed to generate irrigation plan: " + e.getMessage());
+            dailyPlans.add(dayPlan);
         }
+        
+        // Create comprehensive irrigation plan
+        IrrigationPlanDto plan = new IrrigationPlanDto();
+        // Named after the cell center, as the plan is shared by everyone in the cell
+        plan.setLocationName(getLocationName(weatherData.getLatitude(), weatherData.getLongitude()));
+        plan.setCropType(cropType);
+        plan.setArea(area);
+        plan.setIrrigationType(irrigationType);
+        plan.setSoilType(soilType);
+        plan.setDailyPlans(dailyPlans);
+        plan.setGeneratedAt(LocalDate.now());
+        
+        // Calculate total water savings
+        Double totalWaterSaved = dailyPlans.stream()
+                .mapToDouble(IrrigationPlanDto.DayPlan::getWaterSavedLiters)
+                .sum();
+        plan.setTotalWaterSaved(totalWaterSaved);
+        
+        log.info("Irrigation plan generated successfully with {} days of recommendations", 
+                dailyPlans.size());
+        
+        return plan;
     }
     
     public List<SmartIrrigationController.HeatAlertDto> getHeatAlerts(Double latitude, Double longitude) {
+        return getHeatAlertsAsync(latitude, longitude).block();
+    }
+    
+    public Mono<List<SmartIrrigationController.HeatAlertDto>> getHeatAlertsAsync(Double latitude, Double longitude) {
         log.info("Fetching heat alerts for location: {}, {}", latitude, longitude);
         
-        try {
-            WeatherDto weatherData = weatherService.getIrrigationWeatherData(latitude, longitude);
-            List<SmartIrrigationController.HeatAlertDto> alerts = new ArrayList<>();
-            
-            if (weatherData != null && weatherData.getDaily() != null) {
-                for (int i = 0; i < Math.min(7, weatherData.getDaily().size()); i++) {
-                    WeatherDto.DailyWeather day = weatherData.getDaily().get(i);
+        return weatherService.getSnapshotAsync(latitude, longitude)
+                .map(this::buildHeatAlerts)
+                .onErrorResume(e -> {
+                    log.error("Error fetching heat alerts: {}", e.getMessage());
+                    return Mono.just(new ArrayList<>());
+                })
+                .defaultIfEmpty(new ArrayList<>());
+    }
+    
+    private List<SmartIrrigationController.HeatAlertDto> buildHeatAlerts(WeatherSnapshot weatherData) {
+        List<SmartIrrigationController.HeatAlertDto> alerts = new ArrayList<>();
+        
+        if (weatherData.getDaily() != null) {
+            for (int i = 0; i < Math.min(7, weatherData.getDaily().size()); i++) {
+                WeatherDto.DailyWeather day = weatherData.getDaily().get(i);
+                
+                if (day.getTemp() != null && day.getTemp().getMax() != null && day.getTemp().getMax() > scoringRuleTable.getHeatAlertThreshold()) {
+                    SmartIrrigationController.HeatAlertDto alert = new SmartIrrigationController.HeatAlertDto();
+                    alert.setDate(LocalDate.now().plusDays(i).toString());
+                    alert.setTime("12:00");
+                    alert.setTemperature(day.getTemp().getMax());
+                    alert.setHeatIndex(calculateHeatIndex(day.getTemp().getMax(), 
+                            day.getHumidity() != null ? day.getHumidity() : 50.0));
+                    alert.setRiskLevel(determineHeatRisk(day.getTemp().getMax()));
+                    alert.setRecommendations(generateHeatRecommendations(day.getTemp().getMax()));
                     
-                    if (day.getTemp() != null && day.getTemp().getMax() != null && day.getTemp().getMax() > 35.0) {
-                        SmartIrrigationController.HeatAlertDto alert = new SmartIrrigationController.HeatAlertDto();
-                        alert.setDate(LocalDate.now().plusDays(i).toString());
-                        alert.setTime("12:00");
-                        alert.setTemperature(day.getTemp().getMax());
-                        alert.setHeatIndex(calculateHeatIndex(day.getTemp().getMax(), 
-                                day.getHumidity() != null ? day.getHumidity() : 50.0));
-                        alert.setRiskLevel(determineHeatRisk(day.getTemp().getMax()));
-                        alert.setRecommendations(generateHeatRecommendations(day.getTemp().getMax()));
-                        
-                        alerts.add(alert);
-                    }
+                    alerts.add(alert);
                 }
             }
-            
-            return alerts;
-            
-        } catch (Exception e) {
-            log.error("Error fetching heat alerts: {}", e.getMessage());
-            return new ArrayList<>();
         }
+        
+        return alerts;
     }
     
     public SmartIrrigationController.WeatherDataDto getWeatherData(Double latitude, Double longitude) {
+        return getWeatherDataAsync(latitude, longitude).block();
+    }
+    
+    public Mono<SmartIrrigationController.WeatherDataDto> getWeatherDataAsync(Double latitude, Double longitude) {
         log.info("Fetching weather data for location: {}, {}", latitude, longitude);
         
-        try {
-            WeatherDto weatherData = weatherService.getIrrigationWeatherData(latitude, longitude);
-            
-            if (weatherData == null || weatherData.getCurrent() == null) {
-                throw new RuntimeException("Unable to fetch weather data");
-            }
-            
-            SmartIrrigationController.WeatherDataDto weatherDto = new SmartIrrigationController.WeatherDataDto();
-            weatherDto.setTemperature(weatherData.getCurrent().getTemp() != null ? 
-                    weatherData.getCurrent().getTemp() : 25.0);
-            weatherDto.setHumidity(weatherData.getCurrent().getHumidity() != null ? 
-                    weatherData.getCurrent().getHumidity() : 50.0);
-            weatherDto.setRainfall(weatherData.getCurrent().getRain() != null ? 
-                    weatherData.getCurrent().getRain().getOneHour() : 0.0);
-            weatherDto.setWindSpeed(weatherData.getCurrent().getWindSpeed() != null ? 
-                    weatherData.getCurrent().getWindSpeed() : 5.0);
-            weatherDto.setUvIndex(weatherData.getCurrent().getUvi() != null ? 
-                    weatherData.getCurrent().getUvi() : 5.0);
-            weatherDto.setHeatRisk(determineHeatRisk(weatherData.getCurrent().getTemp() != null ? 
-                    weatherData.getCurrent().getTemp() : 25.0));
-            
-            return weatherDto;
-            
-        } catch (Exception e) {
-            log.error("Error fetching weather data: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch weather data: " + e.getMessage());
+        return weatherService.getSnapshotAsync(latitude, longitude)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Unable to fetch weather data")))
+                .map(this::buildWeatherData)
+                .onErrorMap(e -> {
+                    log.error("Error fetching weather data: {}", e.getMessage());
+                    return new RuntimeException("Failed to fetch weather data: " + e.getMessage());
+                });
+    }
+    
+    private SmartIrrigationController.WeatherDataDto buildWeatherData(WeatherSnapshot weatherData) {
+        if (weatherData.getCurrent() == null) {
+            throw new RuntimeException("Unable to fetch weather data");
         }
+        
+        SmartIrrigationController.WeatherDataDto weatherDto = new SmartIrrigationController.WeatherDataDto();
+        weatherDto.setTemperature(weatherData.getCurrent().getTemp() != null ? 
+                weatherData.getCurrent().getTemp() : 25.0);
+        weatherDto.setHumidity(weatherData.getCurrent().getHumidity() != null ? 
+                weatherData.getCurrent().getHumidity() : 50.0);
+        weatherDto.setRainfall(weatherData.getCurrent().getRain() != null ? 
+                weatherData.getCurrent().getRain().getOneHour() : 0.0);
+        weatherDto.setWindSpeed(weatherData.getCurrent().getWindSpeed() != null ? 
+                weatherData.getCurrent().getWindSpeed() : 5.0);
+        weatherDto.setUvIndex(weatherData.getCurrent().getUvi() != null ? 
+                weatherData.getCurrent().getUvi() : 5.0);
+        weatherDto.setHeatRisk(determineHeatRisk(weatherData.getCurrent().getTemp() != null ? 
+                weatherData.getCurrent().getTemp() : 25.0));
+        weatherDto.setDataAgeSeconds(weatherData.getAgeSeconds());
+        weatherDto.setStale(weatherData.isStale());
+        
+        return weatherDto;
     }
     
     private IrrigationPlanDto.DayPlan calculateDayPlan(LocalDate date, String cropType, Double area,
@@ -212,17 +252,6 @@ public class SmartIrrigationService {
         return dayPlan;
     }
     
-    private Double calculateEvapotranspiration(Double temperature, Double humidity, Double windSpeed, Double uvIndex) {
-        // Simplified ET0 calculation using temperature, humidity, and wind speed
-        Double et0 = 0.0023 * (temperature + 17.8) * Math.sqrt(Math.max(0, temperature - 0)) * 
-                (1 - humidity / 100) * (1 + windSpeed / 10);
-        
-        // Adjust for UV index
-        et0 *= (1 + uvIndex / 20);
-        
-        return Math.max(0.1, et0); // Minimum ET0 of 0.1
-    }
-    
     private Double calculateCropWaterRequirement(String cropType, Double area, Double temperature, Double humidity) {
         // Base water requirements per crop type (L/m²/day)
         Double baseRequirement = getBaseWaterRequirement(cropType);
@@ -250,24 +279,8 @@ public class SmartIrrigationService {
     }
     
     private Double calculateIrrigationEfficiency(String irrigationType, String soilType) {
-        Double irrigationEfficiency = 0.8; // Base efficiency
-        
-        // Adjust for irrigation type
-        switch (irrigationType.toLowerCase()) {
-            case "drip": irrigationEfficiency = 0.95; break;
-            case "sprinkler": irrigationEfficiency = 0.85; break;
-            case "flood": irrigationEfficiency = 0.60; break;
-        }
-        
-        // Adjust for soil type
-        switch (soilType.toLowerCase()) {
-            case "sandy": irrigationEfficiency *= 0.9; break;
-            case "clay": irrigationEfficiency *= 1.1; break;
-            case "loam": irrigationEfficiency *= 1.0; break;
-            case "silt": irrigationEfficiency *= 1.05; break;
-        }
-        
-        return Math.min(0.95, irrigationEfficiency);
+        // Base efficiency per irrigation type, adjusted for soil type, from the scoring rule table
+        return scoringRuleTable.irrigationEfficiency(irrigationType, soilType);
     }
     
     private Double getFlowRate(String irrigationType) {
@@ -299,10 +312,7 @@ public class SmartIrrigationService {
     }
     
     private String determineHeatRisk(Double temperature) {
-        if (temperature > 40) return "EXTREME";
-        if (temperature > 35) return "HIGH";
-        if (temperature > 30) return "MODERATE";
-        return "LOW";
+        return scoringRuleTable.heatRisk(temperature);
     }
     
     private Double calculateHeatIndex(Double temperature, Double humidity) {
@@ -311,21 +321,22 @@ public class SmartIrrigationService {
     }
     
     private String generateHeatRecommendations(Double temperature) {
-        if (temperature > 40) {
-            return "Emergency cooling required. Increase irrigation frequency and provide shade.";
-        } else if (temperature > 35) {
-            return "High heat risk. Increase irrigation and monitor soil moisture closely.";
-        } else if (temperature > 30) {
-            return "Moderate heat. Normal irrigation schedule with extra monitoring.";
-        } else {
-            return "Normal conditions. Follow standard irrigation schedule.";
+        switch (determineHeatRisk(temperature)) {
+            case "EXTREME":
+                return "Emergency cooling required. Increase irrigation frequency and provide shade.";
+            case "HIGH":
+                return "High heat risk. Increase irrigation and monitor soil moisture closely.";
+            case "MODERATE":
+                return "Moderate heat. Normal irrigation schedule with extra monitoring.";
+            default:
+                return "Normal conditions. Follow standard irrigation schedule.";
         }
     }
     
     private String generateDayNotes(Double temperature, Double humidity, Double rainfall, Double irrigationNeeded) {
         StringBuilder notes = new StringBuilder();
         
-        if (temperature > 35) {
+        if (temperature > scoringRuleTable.getHeatAlertThreshold()) {
             notes.append("High heat - increase irrigation. ");
         }
         if (humidity < 30) {
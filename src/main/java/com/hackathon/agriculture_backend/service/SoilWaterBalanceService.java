@@ -0,0 +1,463 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.SoilWaterStateDto;
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.dto.WeatherSnapshot;
+import com.hackathon.agriculture_backend.model.FarmerZone;
+import com.hackathon.agriculture_backend.model.SavedIrrigationPlan;
+import com.hackathon.agriculture_backend.model.SoilWaterState;
+import com.hackathon.agriculture_backend.repository.FarmerZoneRepository;
+import com.hackathon.agriculture_backend.repository.SavedIrrigationPlanRepository;
+import com.hackathon.agriculture_backend.repository.SoilWaterStateRepository;
+import com.hackathon.agriculture_backend.util.SoilWaterBalance;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily root zone water balance of every zone and saved plan. States are persisted and advanced
+ * incrementally: each night the day's ET0 and rain of the field's weather cell (from the shared
+ * snapshot cache) and the irrigation recorded since the last update move the stored depletion
+ * forward by one day. States are read in id-ordered pages into primitive arrays, all fields of a
+ * page are advanced in one pass of SoilWaterBalance, and the results are written in chunk
+ * transactions. No transaction is open while waiting on weather.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SoilWaterBalanceService {
+    
+    private static final String JOB = "soil-water";
+    
+    private final SoilWaterStateRepository stateRepository;
+    private final FarmerZoneRepository zoneRepository;
+    private final SavedIrrigationPlanRepository planRepository;
+    private final WeatherService weatherService;
+    private final WeatherSnapshotCache weatherCache;
+    private final ChunkedTransactionWriter chunkedWriter;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.soil-water.page-size:5000}")
+    private int pageSize;
+    
+    // A state further behind (missed runs) is advanced over this many days of today's weather
+    @Value("${app.soil-water.max-catch-up-days:7}")
+    private int maxCatchUpDays;
+    
+    @Value("${app.soil-water.default-soil-type:loam}")
+    private String defaultSoilType;
+    
+    @Value("${app.scheduler.pipeline.fetch-concurrency:8}")
+    private int fetchConcurrency;
+    
+    /**
+     * Bring every state up to the end of the given day, creating states for new zones and plans
+     * first. Fields whose weather cannot be fetched are left for the next run.
+     */
+    public Summary advance(LocalDate date) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int created = createMissingStates(date.minusDays(1));
+        int updated = 0;
+        int upToDate = 0;
+        int failed = 0;
+        
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = stateRepository.findUpdatePage(afterId, PageRequest.of(0, pageSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+            
+            BalancePage page = new BalancePage(rows, date);
+            failed += page.applyWeather(fetchWeather(page, date));
+            page.advance();
+            upToDate += page.upToDate;
+            updated += write(page, date);
+            failed += page.writeFailures;
+        }
+        
+        count("created", created);
+        count("updated", updated);
+        count("up-to-date", upToDate);
+        count("failure", failed);
+        long nanos = sample.stop(Timer.builder("soil.water.update.duration")
+                .description("Wall time of a soil water balance update")
+                .register(meterRegistry));
+        return new Summary(created, updated, upToDate, failed, Duration.ofNanos(nanos));
+    }
+    
+    /**
+     * Current state without locking it; a zone the nightly update has not reached yet is shown
+     * at field capacity, without storing a state.
+     */
+    @Transactional(readOnly = true)
+    public SoilWaterStateDto getZoneState(Long farmerId, Long zoneId) {
+        FarmerZone zone = findZone(farmerId, zoneId);
+        return SoilWaterStateDto.fromEntity(stateRepository.findByZoneId(zoneId)
+                .orElseGet(() -> newZoneState(zone, LocalDate.now().minusDays(1))));
+    }
+    
+    @Transactional(readOnly = true)
+    public SoilWaterStateDto getPlanState(Long farmerId, Long planId) {
+        SavedIrrigationPlan plan = findPlan(farmerId, planId);
+        return SoilWaterStateDto.fromEntity(stateRepository.findByPlanId(planId)
+                .orElseGet(() -> newPlanState(plan, LocalDate.now().minusDays(1))));
+    }
+    
+    /**
+     * Stored depletion of a plan, or 0 (field capacity) before its first update; reads without
+     * locking or creating the state.
+     */
+    @Transactional(readOnly = true)
+    public double getPlanDepletion(Long farmerId, Long planId) {
+        findPlan(farmerId, planId);
+        return stateRepository.findByPlanId(planId).map(state -> state.getDepletionMm().doubleValue()).orElse(0.0);
+    }
+    
+    /**
+     * Record irrigation (mm of water reaching the root zone) on a zone; applied by the next update.
+     */
+    @Transactional
+    public SoilWaterStateDto recordZoneIrrigation(Long farmerId, Long zoneId, Double appliedMm) {
+        validateApplied(appliedMm);
+        FarmerZone zone = findZone(farmerId, zoneId);
+        return recordIrrigation(stateRepository.findForUpdateByZoneId(zoneId)
+                .orElseGet(() -> stateRepository.save(newZoneState(zone, LocalDate.now().minusDays(1)))), appliedMm);
+    }
+    
+    @Transactional
+    public SoilWaterStateDto recordPlanIrrigation(Long farmerId, Long planId, Double appliedMm) {
+        validateApplied(appliedMm);
+        SavedIrrigationPlan plan = findPlan(farmerId, planId);
+        return recordIrrigation(stateRepository.findForUpdateByPlanId(planId)
+                .orElseGet(() -> stateRepository.save(newPlanState(plan, LocalDate.now().minusDays(1)))), appliedMm);
+    }
+    
+    private FarmerZone findZone(Long farmerId, Long zoneId) {
+        FarmerZone zone = zoneRepository.findById(zoneId)
+                .orElseThrow(() -> new RuntimeException("Zone not found with ID: " + zoneId));
+        if (!zone.getFarmer().getId().equals(farmerId)) {
+            throw new RuntimeException("Zone does not belong to farmer ID: " + farmerId);
+        }
+        return zone;
+    }
+    
+    private SavedIrrigationPlan findPlan(Long farmerId, Long planId) {
+        return planRepository.findByFarmerIdAndId(farmerId, planId)
+                .orElseThrow(() -> new RuntimeException("Plan not found with id: " + planId));
+    }
+    
+    private SoilWaterStateDto recordIrrigation(SoilWaterState state, Double appliedMm) {
+        // The state was read under a row lock, so a concurrent nightly update cannot lose this
+        state.setPendingIrrigationMm(state.getPendingIrrigationMm() + appliedMm.floatValue());
+        state.setUpdatedAt(Instant.now());
+        return SoilWaterStateDto.fromEntity(state);
+    }
+    
+    private static void validateApplied(Double appliedMm) {
+        if (appliedMm == null || !(appliedMm > 0) || appliedMm > 1000) {
+            throw new IllegalArgumentException("Applied irrigation must be between 0 and 1000 mm");
+        }
+    }
+    
+    private int createMissingStates(LocalDate asOfDate) {
+        List<SoilWaterState> states = new ArrayList<>();
+        List<Long> zoneIds = stateRepository.findZoneIdsWithoutState();
+        if (!zoneIds.isEmpty()) {
+            for (FarmerZone zone : zoneRepository.findAllWithFarmerByIdIn(zoneIds)) {
+                states.add(newZoneState(zone, asOfDate));
+            }
+        }
+        for (SavedIrrigationPlan plan : planRepository.findAllById(stateRepository.findPlanIdsWithoutState())) {
+            states.add(newPlanState(plan, asOfDate));
+        }
+        // A chunk can only fail on a state created concurrently on first view; the next run retries
+        List<SoilWaterState> failed = chunkedWriter.writeAll(JOB, states, stateRepository::saveAll);
+        if (!states.isEmpty()) {
+            log.info("Created {} soil water states", states.size() - failed.size());
+        }
+        return states.size() - failed.size();
+    }
+    
+    private SoilWaterState newZoneState(FarmerZone zone, LocalDate asOfDate) {
+        SoilWaterState state = new SoilWaterState();
+        state.setZone(zone);
+        state.setSoilType(defaultSoilType);
+        initialize(state, zone.getFarmer().getPreferredCrop(), defaultSoilType, asOfDate);
+        return state;
+    }
+    
+    private SoilWaterState newPlanState(SavedIrrigationPlan plan, LocalDate asOfDate) {
+        SoilWaterState state = new SoilWaterState();
+        state.setPlan(plan);
+        initialize(state, plan.getCropType(), plan.getSoilType(), asOfDate);
+        return state;
+    }
+    
+    private static void initialize(SoilWaterState state, String cropType, String soilType, LocalDate asOfDate) {
+        SoilWaterBalance.CropParameters crop = SoilWaterBalance.crop(cropType);
+        double taw = SoilWaterBalance.totalAvailableWater(crop, soilType);
+        // Initial moisture is unknown; start at field capacity as after a full irrigation
+        state.setDepletionMm(0f);
+        state.setTotalAvailableWaterMm((float) taw);
+        state.setReadilyAvailableWaterMm((float) (crop.depletionFraction() * taw));
+        state.setAsOfDate(asOfDate);
+        state.setUpdatedAt(Instant.now());
+    }
+    
+    /**
+     * The day's ET0 and rain per weather cell of the page; cells whose weather failed are missing.
+     */
+    private Map<String, double[]> fetchWeather(BalancePage page, LocalDate date) {
+        Map<String, Integer> firstOfCell = new LinkedHashMap<>();
+        for (int i = 0; i < page.size; i++) {
+            if (page.days[i] > 0) {
+                firstOfCell.putIfAbsent(page.cells[i], i);
+            }
+        }
+        Map<String, double[]> weather = Flux.fromIterable(firstOfCell.entrySet())
+                .flatMap(entry -> weatherService.getSnapshotAsync(page.latitude[entry.getValue()], page.longitude[entry.getValue()])
+                        .map(snapshot -> Map.entry(entry.getKey(), dayWeather(snapshot, date)))
+                        .onErrorResume(e -> {
+                            log.warn("Failed to fetch weather for soil water cell {}: {}", entry.getKey(), e.getMessage());
+                            return Mono.empty();
+                        }), fetchConcurrency)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+        return weather != null ? weather : Map.of();
+    }
+    
+    /**
+     * ET0 and rain (mm) of the given day from the snapshot's daily forecast; days past the
+     * forecast use the current conditions without rain.
+     */
+    private double[] dayWeather(WeatherSnapshot snapshot, LocalDate date) {
+        LocalDate firstDay = LocalDate.ofInstant(snapshot.getFetchedAt(), ZoneId.systemDefault());
+        int offset = (int) Math.max(0, ChronoUnit.DAYS.between(firstDay, date));
+        double et0 = weatherService.calculateDailyEt0(snapshot, firstDay, offset + 1)[offset];
+        List<WeatherDto.DailyWeather> daily = snapshot.getDaily();
+        double rain = daily != null && offset < daily.size() && daily.get(offset).getRain() != null
+                ? daily.get(offset).getRain() : 0.0;
+        return new double[] {et0, rain};
+    }
+    
+    private int write(BalancePage page, LocalDate date) {
+        List<Integer> due = new ArrayList<>();
+        for (int i = 0; i < page.size; i++) {
+            if (page.days[i] > 0) {
+                due.add(i);
+            }
+        }
+        
+        int written = 0;
+        int chunkSize = chunkedWriter.getChunkSize();
+        for (int from = 0; from < due.size(); from += chunkSize) {
+            List<Integer> chunk = due.subList(from, Math.min(due.size(), from + chunkSize));
+            try {
+                written += chunkedWriter.execute(JOB, () -> writeChunk(page, chunk, date));
+            } catch (Exception e) {
+                page.writeFailures += chunk.size();
+                log.error("Failed to write {} soil water states: {}", chunk.size(), e.getMessage());
+            }
+        }
+        return written;
+    }
+    
+    private int writeChunk(BalancePage page, List<Integer> chunk, LocalDate date) {
+        Map<Long, Integer> indexById = new HashMap<>();
+        for (int i : chunk) {
+            indexById.put(page.ids[i], i);
+        }
+        
+        int written = 0;
+        Instant now = Instant.now();
+        // Managed rows: the changes are flushed as one JDBC update batch at commit
+        for (SoilWaterState state : stateRepository.findAllForUpdate(indexById.keySet())) {
+            int i = indexById.get(state.getId());
+            if (!state.getAsOfDate().equals(page.asOfDate[i])) {
+                // Advanced by a concurrent run since the page was read
+                continue;
+            }
+            state.setAsOfDate(date);
+            state.setDepletionMm((float) page.depletion[i]);
+            state.setTotalAvailableWaterMm((float) page.totalAvailable[i]);
+            state.setReadilyAvailableWaterMm((float) page.readilyAvailable[i]);
+            state.setRainfallMm((float) page.rainTotal[i]);
+            state.setIrrigationMm((float) page.irrigationTotal[i]);
+            state.setEtcMm((float) page.etcTotal[i]);
+            state.setDeepPercolationMm((float) page.percolationTotal[i]);
+            // Irrigation recorded after the page was read stays pending
+            state.setPendingIrrigationMm((float) Math.max(0.0, state.getPendingIrrigationMm() - page.pendingIrrigation[i]));
+            state.setUpdatedAt(now);
+            written++;
+        }
+        return written;
+    }
+    
+    private void count(String result, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter("soil.water.states", "result", result).increment(amount);
+        }
+    }
+    
+    /**
+     * One page of states as parallel primitive arrays.
+     */
+    private final class BalancePage {
+        final int size;
+        final long[] ids;
+        final LocalDate[] asOfDate;
+        final String[] cells;
+        final double[] latitude;
+        final double[] longitude;
+        // Days to advance; 0 for states already up to date or without weather
+        final int[] days;
+        final double[] depletion;
+        final double[] totalAvailable;
+        final double[] readilyAvailable;
+        final double[] kc;
+        final double[] pendingIrrigation;
+        final double[] et0;
+        final double[] rain;
+        final double[] rainTotal;
+        final double[] irrigationTotal;
+        final double[] etcTotal;
+        final double[] percolationTotal;
+        int upToDate;
+        int writeFailures;
+        
+        BalancePage(List<Object[]> rows, LocalDate date) {
+            size = rows.size();
+            ids = new long[size];
+            asOfDate = new LocalDate[size];
+            cells = new String[size];
+            latitude = new double[size];
+            longitude = new double[size];
+            days = new int[size];
+            depletion = new double[size];
+            totalAvailable = new double[size];
+            readilyAvailable = new double[size];
+            kc = new double[size];
+            pendingIrrigation = new double[size];
+            et0 = new double[size];
+            rain = new double[size];
+            rainTotal = new double[size];
+            irrigationTotal = new double[size];
+            etcTotal = new double[size];
+            percolationTotal = new double[size];
+            
+            for (int i = 0; i < size; i++) {
+                Object[] row = rows.get(i);
+                ids[i] = (Long) row[0];
+                asOfDate[i] = (LocalDate) row[1];
+                depletion[i] = ((Float) row[2]).doubleValue();
+                pendingIrrigation[i] = ((Float) row[3]).doubleValue();
+                latitude[i] = ((Number) row[4]).doubleValue();
+                longitude[i] = ((Number) row[5]).doubleValue();
+                cells[i] = weatherCache.cellFor(latitude[i], longitude[i]);
+                
+                // Parameters follow the zone's or plan's current crop and soil
+                SoilWaterBalance.CropParameters crop = SoilWaterBalance.crop((String) row[6]);
+                totalAvailable[i] = SoilWaterBalance.totalAvailableWater(crop, (String) row[7]);
+                readilyAvailable[i] = crop.depletionFraction() * totalAvailable[i];
+                kc[i] = crop.kc();
+                
+                long behind = ChronoUnit.DAYS.between(asOfDate[i], date);
+                days[i] = (int) Math.max(0, Math.min(maxCatchUpDays, behind));
+                if (days[i] == 0) {
+                    upToDate++;
+                }
+            }
+        }
+        
+        /**
+         * Fill each state's ET0 and rain from its cell and return the number of states left
+         * behind for lack of weather.
+         */
+        int applyWeather(Map<String, double[]> weatherByCell) {
+            int missing = 0;
+            for (int i = 0; i < size; i++) {
+                if (days[i] == 0) {
+                    continue;
+                }
+                double[] weather = weatherByCell.get(cells[i]);
+                if (weather == null || Double.isNaN(weather[0])) {
+                    days[i] = 0;
+                    missing++;
+                    continue;
+                }
+                et0[i] = weather[0];
+                rain[i] = weather[1];
+            }
+            return missing;
+        }
+        
+        /**
+         * Advance all states together, one balance pass per day. States with fewer days to go
+         * get zero inputs for the remaining passes, which leaves them unchanged.
+         */
+        void advance() {
+            int maxDays = 0;
+            for (int i = 0; i < size; i++) {
+                maxDays = Math.max(maxDays, days[i]);
+            }
+            
+            double[] dayEt0 = new double[size];
+            double[] dayRain = new double[size];
+            double[] dayIrrigation = new double[size];
+            double[] dayEtc = new double[size];
+            double[] dayPercolation = new double[size];
+            for (int d = 0; d < maxDays; d++) {
+                for (int i = 0; i < size; i++) {
+                    double active = d < days[i] ? 1.0 : 0.0;
+                    dayEt0[i] = et0[i] * active;
+                    dayRain[i] = rain[i] * active;
+                    // Recorded irrigation goes in on the first day of the update
+                    dayIrrigation[i] = d == 0 ? pendingIrrigation[i] * active : 0.0;
+                }
+                SoilWaterBalance.advance(depletion, totalAvailable, readilyAvailable, kc, dayEt0, dayRain, dayIrrigation,
+                        dayEtc, dayPercolation, size);
+                for (int i = 0; i < size; i++) {
+                    rainTotal[i] += dayRain[i];
+                    irrigationTotal[i] += dayIrrigation[i];
+                    etcTotal[i] += dayEtc[i];
+                    percolationTotal[i] += dayPercolation[i];
+                }
+            }
+        }
+    }
+    
+    /**
+     * Outcome of one update run.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Summary {
+        private final int created;
+        private final int updated;
+        private final int upToDate;
+        private final int failed;
+        private final Duration duration;
+    }
+}
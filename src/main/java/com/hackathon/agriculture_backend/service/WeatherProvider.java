@@ -0,0 +1,23 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import reactor.core.publisher.Mono;
+
+/**
+ * Source of One Call style weather data (current, daily and alerts) for one location cell.
+ * The active provider is selected with app.weather.provider; WeatherService and the
+ * snapshot cache sit in front of it, so implementations do no caching of their own.
+ */
+public interface WeatherProvider {
+    
+    /**
+     * Provider name used in logs and metrics.
+     */
+    String getName();
+    
+    /**
+     * Fetch weather for the cell, requested at its center coordinates.
+     * Only current, daily and alerts need to be set on the result.
+     */
+    Mono<WeatherDto> fetch(String cell, double latitude, double longitude);
+}
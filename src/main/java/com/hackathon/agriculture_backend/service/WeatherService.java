@@ -1,14 +1,18 @@
 package com.hackathon.agriculture_backend.service;
 
 import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.dto.WeatherSnapshot;
+import com.hackathon.agriculture_backend.util.GeoHash;
+import com.hackathon.agriculture_backend.util.ReferenceEvapotranspiration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
-import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,110 +21,49 @@ import java.util.List;
 @Slf4j
 public class WeatherService {
     
-    private final WebClient.Builder webClientBuilder;
+    private final WeatherProvider weatherProvider;
+    private final WeatherSnapshotCache weatherCache;
     
-    @Value("${app.weather.api.key}")
-    private String apiKey;
+    @Value("${app.weather.mock-fallback.enabled:false}")
+    private boolean mockFallbackEnabled;
     
-    @Value("${app.weather.api.url}")
-    private String apiUrl;
+    /**
+     * Get the shared One Call snapshot (current, daily and alerts) for the location cell.
+     * All weather views below are projections of this single upstream request.
+     */
+    public WeatherSnapshot getSnapshot(Double latitude, Double longitude) {
+        return getSnapshotAsync(latitude, longitude).block();
+    }
+    
+    public Mono<WeatherSnapshot> getSnapshotAsync(Double latitude, Double longitude) {
+        return getSnapshotAsync(latitude, longitude, WeatherSnapshotCache.DataType.IRRIGATION);
+    }
+    
+    private Mono<WeatherSnapshot> getSnapshotAsync(Double latitude, Double longitude, WeatherSnapshotCache.DataType view) {
+        return Mono.defer(() -> {
+            String cell = weatherCache.cellFor(latitude, longitude);
+            return weatherCache.getAsync(cell, view, () -> fetchSnapshot(cell));
+        });
+    }
     
     public WeatherDto getCurrentWeather(Double latitude, Double longitude) {
-        log.info("Fetching current weather for coordinates: {}, {}", latitude, longitude);
-        
-        try {
-            // Use One Call API 3.0 with optimized parameters
-            String url = String.format("%s?lat=%s&lon=%s&exclude=minutely&units=metric&appid=%s",
-                    apiUrl, latitude, longitude, apiKey);
-            
-            WeatherDto weatherData = webClientBuilder.build()
-                    .get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(WeatherDto.class)
-                    .timeout(Duration.ofSeconds(30))
-                    .block();
-            
-            if (weatherData != null && weatherData.getCurrent() != null) {
-                // Extract current weather data
-                WeatherDto.CurrentWeather current = weatherData.getCurrent();
-                weatherData.setTempC(current.getTemp());
-                weatherData.setHumidity(current.getHumidity());
-                
-                // Calculate ETC for real weather data
-                weatherData.setEtc(calculateETC(current.getTemp(), current.getHumidity()));
-                
-                // Extract current day rainfall from current data
-                Double currentRainfall = 0.0;
-                if (current.getRain() != null) {
-                    currentRainfall = current.getRain().getOneHour();
-                }
-                weatherData.setRainfallMm(currentRainfall);
-                
-                // Extract forecast rainfall for tomorrow
-                if (weatherData.getDaily() != null && !weatherData.getDaily().isEmpty()) {
-                    WeatherDto.DailyWeather tomorrow = weatherData.getDaily().get(1); // Tomorrow's forecast
-                    weatherData.setForecastRainfallMm(tomorrow.getRain() != null ? tomorrow.getRain() : 0.0);
-                } else {
-                    weatherData.setForecastRainfallMm(0.0);
-                }
-                
-                // Check for heat alerts (temperature > 40°C)
-                weatherData.setHeatAlert(weatherData.getTempC() != null && weatherData.getTempC() > 40.0);
-                
-                // Set weather description
-                if (current.getWeather() != null && !current.getWeather().isEmpty()) {
-                    weatherData.setWeatherDescription(current.getWeather().get(0).getDescription());
-                }
-                
-                log.info("Weather data fetched successfully. Temp: {}°C, Humidity: {}%, Heat Alert: {}, Rainfall: {}mm", 
-                        weatherData.getTempC(), weatherData.getHumidity(), weatherData.getHeatAlert(), weatherData.getRainfallMm());
-            }
-            
-            return weatherData;
-            
-        } catch (WebClientResponseException e) {
-            log.error("Error fetching weather data: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch weather data: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error fetching weather data", e);
-            throw new RuntimeException("Failed to fetch weather data: " + e.getMessage());
-        }
+        return getCurrentWeatherAsync(latitude, longitude).block();
+    }
+    
+    public Mono<WeatherDto> getCurrentWeatherAsync(Double latitude, Double longitude) {
+        return getSnapshotAsync(latitude, longitude, WeatherSnapshotCache.DataType.CURRENT)
+                .map(this::toCurrentWeather)
+                .doOnNext(weatherData -> log.info("Weather data resolved. Temp: {}°C, Humidity: {}%, Heat Alert: {}, Rainfall: {}mm",
+                        weatherData.getTempC(), weatherData.getHumidity(), weatherData.getHeatAlert(), weatherData.getRainfallMm()));
     }
     
     public WeatherDto getWeatherForecast(Double latitude, Double longitude, int days) {
-        log.info("Fetching weather forecast for coordinates: {}, {} for {} days", latitude, longitude, days);
-        
-        try {
-            String url = String.format("%s?lat=%s&lon=%s&exclude=minutely,hourly&units=metric&appid=%s",
-                    apiUrl, latitude, longitude, apiKey);
-            
-            WeatherDto weatherData = webClientBuilder.build()
-                    .get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(WeatherDto.class)
-                    .timeout(Duration.ofSeconds(30))
-                    .block();
-            
-            if (weatherData != null && weatherData.getDaily() != null) {
-                // Limit forecast to requested days
-                if (weatherData.getDaily().size() > days) {
-                    weatherData.setDaily(weatherData.getDaily().subList(0, days));
-                }
-                
-                log.info("Weather forecast fetched successfully for {} days", weatherData.getDaily().size());
-            }
-            
-            return weatherData;
-            
-        } catch (WebClientResponseException e) {
-            log.error("Error fetching weather forecast: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch weather forecast: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error fetching weather forecast", e);
-            throw new RuntimeException("Failed to fetch weather forecast: " + e.getMessage());
-        }
+        return getWeatherForecastAsync(latitude, longitude, days).block();
+    }
+    
+    public Mono<WeatherDto> getWeatherForecastAsync(Double latitude, Double longitude, int days) {
+        return getSnapshotAsync(latitude, longitude, WeatherSnapshotCache.DataType.FORECAST)
+                .map(snapshot -> toForecast(snapshot, days));
     }
     
     public boolean isHeatAlert(Double temperature) {
@@ -128,7 +71,7 @@ public class WeatherService {
     }
     
     public boolean isExtremeWeather(Double temperature, Double humidity) {
-        return (temperature != null && temperature > 45.0) || 
+        return (temperature != null && temperature > 45.0) ||
                (humidity != null && humidity < 10.0);
     }
     
@@ -136,86 +79,149 @@ public class WeatherService {
      * Get weather alerts for a location using One Call API 3.0
      */
     public List<WeatherDto.WeatherAlert> getWeatherAlerts(Double latitude, Double longitude) {
-        log.info("Fetching weather alerts for coordinates: {}, {}", latitude, longitude);
-        
-        try {
-            String url = String.format("%s?lat=%s&lon=%s&exclude=minutely,hourly,daily&units=metric&appid=%s",
-                    apiUrl, latitude, longitude, apiKey);
-            
-            WeatherDto weatherData = webClientBuilder.build()
-                    .get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(WeatherDto.class)
-                    .timeout(Duration.ofSeconds(30))
-                    .block();
-            
-            if (weatherData != null && weatherData.getAlerts() != null) {
-                log.info("Found {} weather alerts", weatherData.getAlerts().size());
-                return weatherData.getAlerts();
-            }
-            
-            return new ArrayList<>();
-            
-        } catch (Exception e) {
-            log.error("Error fetching weather alerts", e);
-            return new ArrayList<>();
-        }
+        return getWeatherAlertsAsync(latitude, longitude).block();
+    }
+    
+    public Mono<List<WeatherDto.WeatherAlert>> getWeatherAlertsAsync(Double latitude, Double longitude) {
+        return getSnapshotAsync(latitude, longitude, WeatherSnapshotCache.DataType.ALERTS)
+                .map(this::toAlerts)
+                .onErrorResume(e -> {
+                    log.error("Error fetching weather alerts", e);
+                    return Mono.just(new ArrayList<>());
+                })
+                .defaultIfEmpty(new ArrayList<>());
     }
     
     /**
      * Get comprehensive weather data optimized for irrigation recommendations
      */
     public WeatherDto getIrrigationWeatherData(Double latitude, Double longitude) {
-        log.info("Fetching comprehensive weather data for irrigation recommendations: {}, {}", latitude, longitude);
-        
-        try {
-            // Get current weather with hourly forecast for better rainfall prediction
-            String url = String.format("%s?lat=%s&lon=%s&exclude=minutely&units=metric&appid=%s",
-                    apiUrl, latitude, longitude, apiKey);
-            
-            WeatherDto weatherData = webClientBuilder.build()
-                    .get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(WeatherDto.class)
-                    .timeout(Duration.ofSeconds(30))
-                    .block();
-            
-            if (weatherData != null && weatherData.getCurrent() != null) {
-                // Process current weather
-                WeatherDto.CurrentWeather current = weatherData.getCurrent();
-                weatherData.setTempC(current.getTemp());
-                weatherData.setHumidity(current.getHumidity());
-                weatherData.setRainfallMm(current.getRain() != null ? current.getRain().getOneHour() : 0.0);
-                
-                // Calculate ETC for real weather data
-                weatherData.setEtc(calculateETC(current.getTemp(), current.getHumidity()));
-                
-                // Process daily forecast for better rainfall prediction
-                if (weatherData.getDaily() != null && !weatherData.getDaily().isEmpty()) {
-                    WeatherDto.DailyWeather tomorrow = weatherData.getDaily().get(1);
-                    weatherData.setForecastRainfallMm(tomorrow.getRain() != null ? tomorrow.getRain() : 0.0);
-                }
-                
-                // Check for heat alerts
-                weatherData.setHeatAlert(weatherData.getTempC() != null && weatherData.getTempC() > 40.0);
-                
-                // Set weather description
-                if (current.getWeather() != null && !current.getWeather().isEmpty()) {
-                    weatherData.setWeatherDescription(current.getWeather().get(0).getDescription());
-                }
-                
-                log.info("Comprehensive weather data fetched successfully for irrigation recommendations");
+        return getIrrigationWeatherDataAsync(latitude, longitude).block();
+    }
+    
+    public Mono<WeatherDto> getIrrigationWeatherDataAsync(Double latitude, Double longitude) {
+        return getSnapshotAsync(latitude, longitude, WeatherSnapshotCache.DataType.IRRIGATION)
+                .map(this::toIrrigationWeatherData)
+                .onErrorResume(e -> {
+                    log.error("Error fetching comprehensive weather data: {}", e.getMessage());
+                    // Stale data has already been tried by the cache; random mock data is opt-in only
+                    if (!mockFallbackEnabled) {
+                        return Mono.error(e);
+                    }
+                    return Mono.fromSupplier(() -> createMockWeatherData(latitude, longitude));
+                });
+    }
+    
+    /**
+     * Current conditions view: current weather plus derived irrigation fields.
+     */
+    public WeatherDto toCurrentWeather(WeatherSnapshot snapshot) {
+        WeatherDto weatherData = baseView(snapshot);
+        if (snapshot.hasCurrent()) {
+            applyDerivedFields(weatherData, snapshot);
+            if (weatherData.getForecastRainfallMm() == null) {
+                weatherData.setForecastRainfallMm(0.0);
             }
-            
-            return weatherData;
-            
-        } catch (Exception e) {
-            log.error("Error fetching comprehensive weather data", e);
-            // Return mock data for invalid coordinates or API issues
-            return createMockWeatherData(latitude, longitude);
         }
+        return weatherData;
+    }
+    
+    /**
+     * Forecast view limited to the requested number of days.
+     */
+    public WeatherDto toForecast(WeatherSnapshot snapshot, int days) {
+        WeatherDto weatherData = baseView(snapshot);
+        if (snapshot.hasDaily() && snapshot.getDaily().size() > days) {
+            weatherData.setDaily(snapshot.getDaily().subList(0, days));
+        }
+        return weatherData;
+    }
+    
+    /**
+     * Alerts view; never null.
+     */
+    public List<WeatherDto.WeatherAlert> toAlerts(WeatherSnapshot snapshot) {
+        return snapshot.getAlerts() != null ? snapshot.getAlerts() : List.of();
+    }
+    
+    /**
+     * Irrigation view: current conditions with tomorrow's forecast rainfall.
+     */
+    public WeatherDto toIrrigationWeatherData(WeatherSnapshot snapshot) {
+        WeatherDto weatherData = baseView(snapshot);
+        if (snapshot.hasCurrent()) {
+            applyDerivedFields(weatherData, snapshot);
+        }
+        return weatherData;
+    }
+    
+    private WeatherDto baseView(WeatherSnapshot snapshot) {
+        WeatherDto weatherData = new WeatherDto();
+        weatherData.setDataAgeSeconds(snapshot.getAgeSeconds());
+        weatherData.setStale(snapshot.isStale());
+        weatherData.setCurrent(snapshot.getCurrent());
+        weatherData.setDaily(snapshot.getDaily());
+        weatherData.setAlerts(snapshot.getAlerts());
+        return weatherData;
+    }
+    
+    private void applyDerivedFields(WeatherDto weatherData, WeatherSnapshot snapshot) {
+        WeatherDto.CurrentWeather current = snapshot.getCurrent();
+        weatherData.setTempC(current.getTemp());
+        weatherData.setHumidity(current.getHumidity());
+        
+        // Today's FAO-56 reference ET for the cell
+        weatherData.setEtc(toNullable(calculateDailyEt0(snapshot, LocalDate.now(), 1)[0]));
+        
+        // Extract current day rainfall from current data
+        weatherData.setRainfallMm(current.getRain() != null && current.getRain().getOneHour() != null
+                ? current.getRain().getOneHour() : 0.0);
+        
+        // Extract forecast rainfall for tomorrow
+        if (snapshot.hasDaily() && snapshot.getDaily().size() > 1) {
+            WeatherDto.DailyWeather tomorrow = snapshot.getDaily().get(1);
+            weatherData.setForecastRainfallMm(tomorrow.getRain() != null ? tomorrow.getRain() : 0.0);
+        }
+        
+        // Check for heat alerts (temperature > 40°C)
+        weatherData.setHeatAlert(isHeatAlert(weatherData.getTempC()));
+        
+        // Set weather description
+        if (current.getWeather() != null && !current.getWeather().isEmpty()) {
+            weatherData.setWeatherDescription(current.getWeather().get(0).getDescription());
+        }
+    }
+    
+    private Mono<WeatherSnapshot> fetchSnapshot(String cell) {
+        double[] center = GeoHash.decodeCenter(cell);
+        double latitude = center[0];
+        double longitude = center[1];
+        log.info("Fetching weather snapshot for cell {} ({}, {}) from {}", cell, latitude, longitude, weatherProvider.getName());
+        
+        return weatherProvider.fetch(cell, latitude, longitude)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Empty response from weather provider")))
+                .map(weatherData -> {
+                    WeatherSnapshot snapshot = new WeatherSnapshot(
+                            cell,
+                            latitude,
+                            longitude,
+                            weatherData.getCurrent(),
+                            weatherData.getDaily() != null ? List.copyOf(weatherData.getDaily()) : List.of(),
+                            weatherData.getAlerts() != null ? List.copyOf(weatherData.getAlerts()) : List.of(),
+                            Instant.now()
+                    );
+                    log.info("One Call snapshot fetched for cell {}: {} daily entries, {} alerts",
+                            cell, snapshot.getDaily().size(), snapshot.getAlerts().size());
+                    return snapshot;
+                })
+                .onErrorMap(e -> {
+                    if (e instanceof WebClientResponseException) {
+                        log.error("Error fetching weather data: {}", e.getMessage());
+                    } else {
+                        log.error("Unexpected error fetching weather data", e);
+                    }
+                    return new RuntimeException("Failed to fetch weather data: " + e.getMessage(), e);
+                });
     }
     
     /**
@@ -231,21 +237,57 @@ public class WeatherService {
         mockData.setForecastRainfallMm(Math.random() * 3); // 0-3mm
         mockData.setHeatAlert(mockData.getTempC() > 35.0);
         mockData.setWeatherDescription("Partly cloudy");
-        // Calculate ETC based on temperature and humidity
-        mockData.setEtc(calculateETC(mockData.getTempC(), mockData.getHumidity()));
+        // Reference ET from the mock temperature with a typical diurnal range
+        double halfRange = ReferenceEvapotranspiration.DEFAULT_TEMPERATURE_RANGE / 2;
+        mockData.setEtc(ReferenceEvapotranspiration.daily(latitude, 0, LocalDate.now().getDayOfYear(),
+                mockData.getTempC() + halfRange, mockData.getTempC() - halfRange, mockData.getHumidity(), Double.NaN));
         
         return mockData;
     }
     
     /**
-     * Calculate Evapotranspiration (ETC) based on temperature and humidity
+     * FAO-56 reference ET (mm/day) at the snapshot's location for consecutive days from firstDay.
+     * Days past the daily forecast use the current conditions with a typical diurnal range; a day
+     * without any temperature is NaN. Elevation is not known and taken as sea level.
      */
-    private Double calculateETC(Double temperature, Double humidity) {
-        // Simplified ETC calculation using temperature and humidity
-        // ETC = 0.0023 * (T + 17.8) * sqrt(Tmax - Tmin) * (1 - RH/100)
-        // For simplicity, using a basic formula
-        Double baseETC = 0.0023 * (temperature + 17.8) * Math.sqrt(temperature);
-        Double humidityFactor = 1.0 - (humidity / 100.0);
-        return baseETC * humidityFactor;
+    public double[] calculateDailyEt0(WeatherSnapshot snapshot, LocalDate firstDay, int days) {
+        double[] tMax = new double[days];
+        double[] tMin = new double[days];
+        double[] rhMean = new double[days];
+        double[] windSpeed2m = new double[days];
+        
+        WeatherDto.CurrentWeather current = snapshot.getCurrent();
+        double currentTemp = current != null && current.getTemp() != null ? current.getTemp() : Double.NaN;
+        double currentHumidity = current != null && current.getHumidity() != null ? current.getHumidity() : Double.NaN;
+        double currentWind = current != null && current.getWindSpeed() != null
+                ? ReferenceEvapotranspiration.windSpeedAt2m(current.getWindSpeed(), 10) : Double.NaN;
+        double halfRange = ReferenceEvapotranspiration.DEFAULT_TEMPERATURE_RANGE / 2;
+        
+        List<WeatherDto.DailyWeather> daily = snapshot.getDaily();
+        for (int i = 0; i < days; i++) {
+            WeatherDto.DailyWeather day = daily != null && i < daily.size() ? daily.get(i) : null;
+            if (day != null && day.getTemp() != null && day.getTemp().getMax() != null && day.getTemp().getMin() != null) {
+                tMax[i] = day.getTemp().getMax();
+                tMin[i] = day.getTemp().getMin();
+                rhMean[i] = day.getHumidity() != null ? day.getHumidity() : Double.NaN;
+                // One Call reports wind at 10 m
+                windSpeed2m[i] = day.getWindSpeed() != null
+                        ? ReferenceEvapotranspiration.windSpeedAt2m(day.getWindSpeed(), 10) : Double.NaN;
+            } else {
+                tMax[i] = currentTemp + halfRange;
+                tMin[i] = currentTemp - halfRange;
+                rhMean[i] = currentHumidity;
+                windSpeed2m[i] = currentWind;
+            }
+        }
+        
+        double[] et0 = new double[days];
+        ReferenceEvapotranspiration.daily(snapshot.getLatitude(), 0, firstDay.getDayOfYear(), tMax, tMin, rhMean,
+                windSpeed2m, et0, days);
+        return et0;
+    }
+    
+    private static Double toNullable(double value) {
+        return Double.isNaN(value) ? null : value;
     }
 }
@@ -0,0 +1,273 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.WeatherSnapshot;
+import com.hackathon.agriculture_backend.util.GeoHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of One Call snapshots keyed by geohash cell. Each weather view
+ * (current, forecast, alerts, irrigation) has its own maximum snapshot age.
+ * Concurrent misses for the same cell share a single upstream load.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WeatherSnapshotCache {
+    
+    public enum DataType {
+        CURRENT, FORECAST, ALERTS, IRRIGATION
+    }
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Last successfully loaded snapshot per cell, kept past its TTL for stale serving
+    private final ConcurrentHashMap<String, WeatherSnapshot> lastGood = new ConcurrentHashMap<>();
+    private final Map<DataType, Duration> ttls = new EnumMap<>(DataType.class);
+    private final Map<DataType, Counter> hitCounters = new EnumMap<>(DataType.class);
+    private final Map<DataType, Counter> missCounters = new EnumMap<>(DataType.class);
+    private final Map<DataType, Counter> coalescedCounters = new EnumMap<>(DataType.class);
+    private final Map<DataType, Counter> staleCounters = new EnumMap<>(DataType.class);
+    private final Map<DataType, Counter> staleOnErrorCounters = new EnumMap<>(DataType.class);
+    private final Map<DataType, Timer> loadTimers = new EnumMap<>(DataType.class);
+    private Duration maxTtl;
+    
+    @Value("${app.weather.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.weather.cache.geohash-precision:5}")
+    private int precision;
+    
+    @Value("${app.weather.cache.ttl.current:10m}")
+    private Duration currentTtl;
+    
+    @Value("${app.weather.cache.ttl.forecast:1h}")
+    private Duration forecastTtl;
+    
+    @Value("${app.weather.cache.ttl.alerts:15m}")
+    private Duration alertsTtl;
+    
+    @Value("${app.weather.cache.ttl.irrigation:30m}")
+    private Duration irrigationTtl;
+    
+    @Value("${app.weather.cache.stale-while-revalidate:5m}")
+    private Duration staleWhileRevalidate;
+    
+    @Value("${app.weather.cache.stale-if-error:6h}")
+    private Duration staleIfError;
+    
+    @PostConstruct
+    public void init() {
+        if (precision < 1 || precision > GeoHash.MAX_PRECISION) {
+            throw new IllegalStateException("app.weather.cache.geohash-precision must be between 1 and " + GeoHash.MAX_PRECISION);
+        }
+        
+        ttls.put(DataType.CURRENT, currentTtl);
+        ttls.put(DataType.FORECAST, forecastTtl);
+        ttls.put(DataType.ALERTS, alertsTtl);
+        ttls.put(DataType.IRRIGATION, irrigationTtl);
+        maxTtl = ttls.values().stream().max(Duration::compareTo).orElse(irrigationTtl);
+        
+        for (DataType type : DataType.values()) {
+            String tag = type.name().toLowerCase();
+            hitCounters.put(type, Counter.builder("weather.cache.requests")
+                    .description("Weather cache lookups")
+                    .tag("type", tag).tag("result", "hit")
+                    .register(meterRegistry));
+            missCounters.put(type, Counter.builder("weather.cache.requests")
+                    .description("Weather cache lookups")
+                    .tag("type", tag).tag("result", "miss")
+                    .register(meterRegistry));
+            coalescedCounters.put(type, Counter.builder("weather.cache.requests")
+                    .description("Weather cache lookups")
+                    .tag("type", tag).tag("result", "coalesced")
+                    .register(meterRegistry));
+            staleCounters.put(type, Counter.builder("weather.cache.requests")
+                    .description("Weather cache lookups")
+                    .tag("type", tag).tag("result", "stale")
+                    .register(meterRegistry));
+            staleOnErrorCounters.put(type, Counter.builder("weather.cache.requests")
+                    .description("Weather cache lookups")
+                    .tag("type", tag).tag("result", "stale_on_error")
+                    .register(meterRegistry));
+            loadTimers.put(type, Timer.builder("weather.cache.load")
+                    .description("Time spent loading weather data from the upstream provider")
+                    .tag("type", tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("weather.cache.size", entries, Map::size)
+                .description("Number of cached weather entries")
+                .register(meterRegistry);
+        
+        log.info("Weather cache initialized (enabled: {}, geohash precision: {}, TTLs: {})", enabled, precision, ttls);
+    }
+    
+    /**
+     * Quantize a coordinate into the location cell used as cache key.
+     */
+    public String cellFor(Double latitude, Double longitude) {
+        return GeoHash.encode(latitude, longitude, precision);
+    }
+    
+    /**
+     * Maximum snapshot age served for the given view.
+     */
+    public Duration getTtl(DataType view) {
+        return ttls.get(view);
+    }
+    
+    /**
+     * Blocking variant of {@link #getAsync}.
+     */
+    public WeatherSnapshot get(String cell, DataType view, Supplier<Mono<WeatherSnapshot>> loader) {
+        return getAsync(cell, view, loader).block();
+    }
+    
+    /**
+     * Return the snapshot for the cell if it is younger than the TTL of the requested view,
+     * loading it at most once across concurrent callers. A refresh triggered by a
+     * short-lived view replaces the snapshot for every other view as well.
+     * Failed loads are not cached and are propagated to every waiting caller.
+     * The load keeps running if the caller that triggered it cancels.
+     * <p>
+     * Within the stale-while-revalidate window past the TTL, the last good snapshot is
+     * returned immediately (marked stale) while the refresh runs in the background.
+     * If a refresh fails, the last good snapshot younger than stale-if-error is served instead.
+     */
+    public Mono<WeatherSnapshot> getAsync(String cell, DataType view, Supplier<Mono<WeatherSnapshot>> loader) {
+        if (!enabled) {
+            return Mono.defer(loader);
+        }
+        
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            long maxAge = ttls.get(view).toNanos();
+            
+            Entry current = entries.get(cell);
+            if (current != null && current.isUsable(now, maxAge)) {
+                if (current.future.isDone() || !canServeStale(cell, view)) {
+                    return awaitExisting(current, view);
+                }
+                return serveStale(cell, view);
+            }
+            
+            Entry fresh = new Entry();
+            Entry winner = entries.compute(cell, (k, existing) ->
+                    existing == null || !existing.isUsable(now, maxAge) ? fresh : existing);
+            if (winner != fresh) {
+                return canServeStale(cell, view) && !winner.future.isDone()
+                        ? serveStale(cell, view) : awaitExisting(winner, view);
+            }
+            
+            missCounters.get(view).increment();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Mono.defer(loader).subscribe(
+                    snapshot -> {
+                        fresh.loadedAt = System.nanoTime();
+                        sample.stop(loadTimers.get(view));
+                        lastGood.put(cell, snapshot);
+                        fresh.future.complete(snapshot);
+                    },
+                    error -> {
+                        entries.remove(cell, fresh);
+                        sample.stop(loadTimers.get(view));
+                        WeatherSnapshot fallback = lastGood.get(cell);
+                        if (fallback != null && isYoungerThan(fallback, staleIfError)) {
+                            staleOnErrorCounters.get(view).increment();
+                            log.warn("Weather refresh failed for cell {}, serving snapshot {}s old: {}",
+                                    cell, fallback.getAgeSeconds(), error.getMessage());
+                            fresh.future.complete(fallback.asStale());
+                        } else {
+                            fresh.future.completeExceptionally(error);
+                        }
+                    },
+                    () -> {
+                        if (!fresh.future.isDone()) {
+                            entries.remove(cell, fresh);
+                            sample.stop(loadTimers.get(view));
+                            fresh.future.complete(null);
+                        }
+                    });
+            return canServeStale(cell, view) ? serveStale(cell, view) : Mono.fromFuture(fresh.future, true);
+        });
+    }
+    
+    /**
+     * Drop every cached entry for the cell, e.g. after a known upstream correction.
+     */
+    public void evict(String cell) {
+        entries.remove(cell);
+        lastGood.remove(cell);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.weather.cache.purge-interval:PT5M}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        int before = entries.size();
+        entries.values().removeIf(entry -> !entry.isUsable(now, maxTtl.toNanos()));
+        lastGood.values().removeIf(snapshot -> !isYoungerThan(snapshot, staleIfError));
+        int removed = before - entries.size();
+        if (removed > 0) {
+            log.debug("Purged {} expired weather cache entries", removed);
+        }
+    }
+    
+    /**
+     * Whether the last good snapshot is still inside the view's stale-while-revalidate window.
+     */
+    private boolean canServeStale(String cell, DataType view) {
+        WeatherSnapshot snapshot = lastGood.get(cell);
+        return snapshot != null && isYoungerThan(snapshot, ttls.get(view).plus(staleWhileRevalidate));
+    }
+    
+    private Mono<WeatherSnapshot> serveStale(String cell, DataType view) {
+        WeatherSnapshot snapshot = lastGood.get(cell);
+        // A refresh started by a shorter-lived view may still leave the snapshot fresh for this one
+        if (isYoungerThan(snapshot, ttls.get(view))) {
+            hitCounters.get(view).increment();
+            return Mono.just(snapshot);
+        }
+        staleCounters.get(view).increment();
+        return Mono.just(snapshot.asStale());
+    }
+    
+    private boolean isYoungerThan(WeatherSnapshot snapshot, Duration maxAge) {
+        return Duration.between(snapshot.getFetchedAt(), Instant.now()).compareTo(maxAge) < 0;
+    }
+    
+    private Mono<WeatherSnapshot> awaitExisting(Entry entry, DataType type) {
+        if (entry.future.isDone()) {
+            hitCounters.get(type).increment();
+        } else {
+            coalescedCounters.get(type).increment();
+        }
+        return Mono.fromFuture(entry.future, true);
+    }
+    
+    private static final class Entry {
+        private final CompletableFuture<WeatherSnapshot> future = new CompletableFuture<>();
+        private volatile long loadedAt;
+        
+        private boolean isUsable(long now, long maxAge) {
+            return !future.isDone() || now - loadedAt < maxAge;
+        }
+    }
+}
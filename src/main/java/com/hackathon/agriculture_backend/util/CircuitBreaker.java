@@ -0,0 +1,156 @@
+package com.hackathon.agriculture_backend.util;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Count-based circuit breaker. Opens when the failure rate or the slow-call rate over the
+ * last {@code windowSize} calls reaches its threshold, rejects calls while open, then lets a
+ * few trial calls through (half-open) to decide whether to close again.
+ */
+public class CircuitBreaker {
+    
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+    
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failedCount;
+    private int slowCount;
+    
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+    
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, Duration slowCallDuration,
+                          Duration openDuration, int halfOpenCalls) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+    
+    /**
+     * Whether a call may proceed. Every permitted call must be followed by
+     * {@link #record} or {@link #release}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenInFlight = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+    
+    public synchronized void record(long elapsedNanos, boolean success) {
+        boolean isSlow = elapsedNanos >= slowCallNanos;
+        switch (state) {
+            case HALF_OPEN -> {
+                halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+                if (!success || isSlow) {
+                    open();
+                } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                if (recorded == windowSize) {
+                    if (failed[next]) {
+                        failedCount--;
+                    }
+                    if (slow[next]) {
+                        slowCount--;
+                    }
+                } else {
+                    recorded++;
+                }
+                failed[next] = !success;
+                slow[next] = isSlow;
+                if (!success) {
+                    failedCount++;
+                }
+                if (isSlow) {
+                    slowCount++;
+                }
+                next = (next + 1) % windowSize;
+                
+                if (recorded >= minimumCalls
+                        && (failedCount * 100.0 / recorded >= failureRateThreshold
+                        || slowCount * 100.0 / recorded >= slowCallRateThreshold)) {
+                    open();
+                }
+            }
+            default -> {
+                // Late results of calls started before the circuit opened are ignored
+            }
+        }
+    }
+    
+    /**
+     * Give back a permit for a call that was cancelled without an outcome.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+        }
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    /**
+     * Whether the slow-call threshold has been reached, so a cancelled call counts as slow.
+     */
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= slowCallNanos;
+    }
+    
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        resetWindow();
+    }
+    
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+    
+    private void resetWindow() {
+        next = 0;
+        recorded = 0;
+        failedCount = 0;
+        slowCount = 0;
+        Arrays.fill(failed, false);
+        Arrays.fill(slow, false);
+    }
+}
@@ -0,0 +1,48 @@
+package com.hackathon.agriculture_backend.util;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of recent call latencies with a cached percentile,
+ * recomputed every {@code recomputeEvery} samples.
+ */
+public class LatencyTracker {
+    
+    private final long[] samples;
+    private final int minimumSamples;
+    private final int recomputeEvery;
+    private final double percentile;
+    
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long cachedPercentile = -1;
+    
+    public LatencyTracker(int windowSize, int minimumSamples, double percentile) {
+        this.samples = new long[windowSize];
+        this.minimumSamples = minimumSamples;
+        this.recomputeEvery = Math.max(1, windowSize / 10);
+        this.percentile = percentile;
+    }
+    
+    public synchronized void record(long elapsedNanos) {
+        samples[next] = elapsedNanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (count >= minimumSamples && ++sinceRecompute >= recomputeEvery) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cachedPercentile = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+    
+    /**
+     * The tracked percentile in nanoseconds, or -1 until enough samples have been seen.
+     */
+    public long getPercentileNanos() {
+        return cachedPercentile;
+    }
+}
@@ -0,0 +1,105 @@
+package com.hackathon.agriculture_backend.util;
+
+import java.util.Collection;
+
+/**
+ * Insert-only set of primitive longs using open addressing with linear probing. Holds ids
+ * in one long[] at a load factor of at most 1/2, with no boxing on add or lookup.
+ * Not thread-safe for writes; safe to share once fully built.
+ */
+public final class LongHashSet {
+    
+    // Marks a free slot; the value 0 itself is tracked separately
+    private static final long EMPTY = 0L;
+    
+    private long[] slots;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+    
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+    
+    public static LongHashSet of(Collection<? extends Number> values) {
+        LongHashSet set = new LongHashSet(values.size());
+        for (Number value : values) {
+            if (value != null) {
+                set.add(value.longValue());
+            }
+        }
+        return set;
+    }
+    
+    /**
+     * Returns true if the value was not present.
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = indexFor(value);
+        while (slots[index] != EMPTY) {
+            if (slots[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        if (++size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+    
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int index = indexFor(value);
+        long slot;
+        while ((slot = slots[index]) != EMPTY) {
+            if (slot == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    private int indexFor(long value) {
+        // Sequential ids would cluster with identity hashing; spread them first
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+    
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        mask = slots.length - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int index = indexFor(value);
+                while (slots[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = value;
+            }
+        }
+    }
+}
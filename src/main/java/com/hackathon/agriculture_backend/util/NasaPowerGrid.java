@@ -0,0 +1,65 @@
+package com.hackathon.agriculture_backend.util;
+
+/**
+ * NASA POWER meteorology grid (MERRA-2, 0.5° latitude x 0.625° longitude).
+ * Coordinates in the same cell receive identical values from the API,
+ * so ET0 is stored and requested per cell rather than per farmer.
+ * MERRA-2 grid points are cell centres: row 0 is the point at -90°, column 0 the point at
+ * -180°, and each cell reaches half a step either side of its point. 180° wraps to column 0.
+ */
+public final class NasaPowerGrid {
+    
+    public static final double LAT_STEP = 0.5;
+    public static final double LON_STEP = 0.625;
+    
+    // Grid points from pole to pole, both poles included
+    private static final int ROWS = (int) (180.0 / LAT_STEP) + 1;
+    private static final int COLS = (int) (360.0 / LON_STEP);
+    
+    private NasaPowerGrid() {
+    }
+    
+    /**
+     * Row of the nearest grid point.
+     */
+    public static int row(double latitude) {
+        return Math.min(ROWS - 1, Math.max(0, (int) Math.floor((latitude + 90.0) / LAT_STEP + 0.5)));
+    }
+    
+    /**
+     * Column of the nearest grid point.
+     */
+    public static int col(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / LON_STEP + 0.5), COLS);
+    }
+    
+    /**
+     * Pack a cell into a single long key for maps and sets.
+     */
+    public static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+    
+    public static long keyOf(double latitude, double longitude) {
+        return key(row(latitude), col(longitude));
+    }
+    
+    public static int rowOf(long key) {
+        return (int) (key >>> 32);
+    }
+    
+    public static int colOf(long key) {
+        return (int) key;
+    }
+    
+    /**
+     * Latitude of the row's grid point, where point requests for the cell are made.
+     */
+    public static double centerLatitude(int row) {
+        return -90.0 + row * LAT_STEP;
+    }
+    
+    public static double centerLongitude(int col) {
+        return -180.0 + col * LON_STEP;
+    }
+}
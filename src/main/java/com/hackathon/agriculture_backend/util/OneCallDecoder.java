@@ -0,0 +1,245 @@
+package com.hackathon.agriculture_backend.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for OpenWeather One Call responses. Reads only the fields the
+ * irrigation logic consumes (current temp/humidity/rain/snow/wind/uvi, daily
+ * temp/humidity/wind/rain, alerts) and skips everything else, including hourly and
+ * minutely blocks, without building a tree or binding unused objects.
+ */
+public final class OneCallDecoder {
+    
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    private OneCallDecoder() {
+    }
+    
+    /**
+     * Decode a One Call payload into a WeatherDto with only current, daily and alerts set.
+     */
+    public static WeatherDto decode(InputStream in) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            return decode(parser);
+        }
+    }
+    
+    public static WeatherDto decode(byte[] payload) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            return decode(parser);
+        }
+    }
+    
+    private static WeatherDto decode(JsonParser parser) throws IOException {
+        WeatherDto weatherData = new WeatherDto();
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("One Call response is not a JSON object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "current" -> weatherData.setCurrent(readCurrent(parser));
+                case "daily" -> weatherData.setDaily(readArray(parser, OneCallDecoder::readDaily));
+                case "alerts" -> weatherData.setAlerts(readArray(parser, OneCallDecoder::readAlert));
+                default -> parser.skipChildren();
+            }
+        }
+        return weatherData;
+    }
+    
+    private static WeatherDto.CurrentWeather readCurrent(JsonParser parser) throws IOException {
+        WeatherDto.CurrentWeather current = new WeatherDto.CurrentWeather();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "temp" -> current.setTemp(readDouble(parser));
+                case "humidity" -> current.setHumidity(readDouble(parser));
+                case "uvi" -> current.setUvi(readDouble(parser));
+                case "wind_speed" -> current.setWindSpeed(readDouble(parser));
+                case "rain" -> {
+                    Double oneHour = readOneHour(parser);
+                    current.setRain(oneHour != null ? new WeatherDto.Rain(oneHour) : null);
+                }
+                case "snow" -> current.setSnow(readOneHour(parser));
+                case "weather" -> current.setWeather(readFirstCondition(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return current;
+    }
+    
+    private static WeatherDto.DailyWeather readDaily(JsonParser parser) throws IOException {
+        WeatherDto.DailyWeather daily = new WeatherDto.DailyWeather();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "dt" -> daily.setDt(readLong(parser));
+                case "temp" -> daily.setTemp(readTemp(parser));
+                case "humidity" -> daily.setHumidity(readDouble(parser));
+                case "wind_speed" -> daily.setWindSpeed(readDouble(parser));
+                case "rain" -> daily.setRain(readDouble(parser));
+                case "weather" -> daily.setWeather(readFirstCondition(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return daily;
+    }
+    
+    private static WeatherDto.WeatherAlert readAlert(JsonParser parser) throws IOException {
+        WeatherDto.WeatherAlert alert = new WeatherDto.WeatherAlert();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "sender_name" -> alert.setSenderName(readString(parser));
+                case "event" -> alert.setEvent(readString(parser));
+                case "start" -> alert.setStart(readLong(parser));
+                case "end" -> alert.setEnd(readLong(parser));
+                case "description" -> alert.setDescription(readString(parser));
+                case "tags" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        List<String> tags = new ArrayList<>();
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            tags.add(readString(parser));
+                        }
+                        alert.setTags(tags);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return alert;
+    }
+    
+    private static WeatherDto.Temp readTemp(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        WeatherDto.Temp temp = new WeatherDto.Temp();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "day" -> temp.setDay(readDouble(parser));
+                case "min" -> temp.setMin(readDouble(parser));
+                case "max" -> temp.setMax(readDouble(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return temp;
+    }
+    
+    /**
+     * Only the first condition is ever shown, so the rest of the array is skipped.
+     */
+    private static List<WeatherDto.Weather> readFirstCondition(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<WeatherDto.Weather> conditions = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (conditions != null || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            WeatherDto.Weather condition = new WeatherDto.Weather();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "main" -> condition.setMain(readString(parser));
+                    case "description" -> condition.setDescription(readString(parser));
+                    case "icon" -> condition.setIcon(readString(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            conditions = List.of(condition);
+        }
+        return conditions;
+    }
+    
+    /**
+     * Read the "1h" amount of a rain or snow object.
+     */
+    private static Double readOneHour(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return readDouble(parser);
+        }
+        Double oneHour = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("1h".equals(field)) {
+                oneHour = readDouble(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return oneHour;
+    }
+    
+    private static Double readDouble(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getDoubleValue();
+        }
+        parser.skipChildren();
+        return null;
+    }
+    
+    private static String readString(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+    
+    private static Long readLong(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getValueAsLong();
+        }
+        parser.skipChildren();
+        return null;
+    }
+    
+    private static <T> List<T> readArray(JsonParser parser, ElementReader<T> reader) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<T> elements = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                elements.add(reader.read(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return elements;
+    }
+    
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+}
@@ -0,0 +1,197 @@
+package com.hackathon.agriculture_backend.util;
+
+/**
+ * Primitive irrigation scoring core. {@link #score} allocates nothing and returns the score,
+ * level and triggered rule codes packed into one long; explanation text is rendered from the
+ * rule codes only when it is needed, by {@link #explain}. Thresholds and points come from
+ * compiled {@link ScoringRules}.
+ * <p>
+ * Layout of the packed result: bits 0-31 rule mask, bits 32-39 level, bits 40-47 score (signed).
+ */
+public final class RecommendationScorer {
+    
+    public static final int LEVEL_LOW = 0;
+    public static final int LEVEL_MODERATE = 1;
+    public static final int LEVEL_HIGH = 2;
+    
+    // Exactly one rule per factor is triggered for every input
+    public static final int TEMP_EXTREME = 1;
+    public static final int TEMP_HIGH = 1 << 1;
+    public static final int TEMP_MODERATE = 1 << 2;
+    public static final int TEMP_COOL = 1 << 3;
+    public static final int TEMP_OPTIMAL = 1 << 4;
+    public static final int HUMIDITY_VERY_LOW = 1 << 5;
+    public static final int HUMIDITY_LOW = 1 << 6;
+    public static final int HUMIDITY_MODERATE = 1 << 7;
+    public static final int HUMIDITY_HIGH = 1 << 8;
+    public static final int HUMIDITY_GOOD = 1 << 9;
+    public static final int RAIN_NONE = 1 << 10;
+    public static final int RAIN_LIGHT = 1 << 11;
+    public static final int RAIN_MODERATE = 1 << 12;
+    public static final int RAIN_ADEQUATE = 1 << 13;
+    public static final int ET_VERY_HIGH = 1 << 14;
+    public static final int ET_HIGH = 1 << 15;
+    public static final int ET_NORMAL = 1 << 16;
+    
+    private static final String[] LEVEL_NAMES = {"LOW", "MODERATE", "HIGH"};
+    private static final double[] USAGE_SHARE = {0.3, 0.6, 1.0};
+    
+    private RecommendationScorer() {
+    }
+    
+    /**
+     * Score one set of conditions with the default rules.
+     */
+    public static long score(double tempC, double humidity, double rainfall, double forecastRain,
+                             double et0, double etThreshold) {
+        return score(ScoringRules.DEFAULTS, tempC, humidity, rainfall, forecastRain, et0, etThreshold);
+    }
+    
+    /**
+     * Score one set of conditions. Rainfall is judged on today's plus forecast rainfall.
+     */
+    public static long score(ScoringRules rules, double tempC, double humidity, double rainfall, double forecastRain,
+                             double et0, double etThreshold) {
+        double[] t = rules.thresholds;
+        int[] points = rules.points;
+        int triggered;
+        
+        if (tempC > t[ScoringRules.TEMP_EXTREME_ABOVE]) {
+            triggered = TEMP_EXTREME;
+        } else if (tempC > t[ScoringRules.TEMP_HIGH_ABOVE]) {
+            triggered = TEMP_HIGH;
+        } else if (tempC > t[ScoringRules.TEMP_MODERATE_ABOVE]) {
+            triggered = TEMP_MODERATE;
+        } else if (tempC < t[ScoringRules.TEMP_COOL_BELOW]) {
+            triggered = TEMP_COOL;
+        } else {
+            triggered = TEMP_OPTIMAL;
+        }
+        int score = points[Integer.numberOfTrailingZeros(triggered)];
+        
+        int rule;
+        if (humidity < t[ScoringRules.HUMIDITY_VERY_LOW_BELOW]) {
+            rule = HUMIDITY_VERY_LOW;
+        } else if (humidity < t[ScoringRules.HUMIDITY_LOW_BELOW]) {
+            rule = HUMIDITY_LOW;
+        } else if (humidity < t[ScoringRules.HUMIDITY_MODERATE_BELOW]) {
+            rule = HUMIDITY_MODERATE;
+        } else if (humidity > t[ScoringRules.HUMIDITY_HIGH_ABOVE]) {
+            rule = HUMIDITY_HIGH;
+        } else {
+            rule = HUMIDITY_GOOD;
+        }
+        score += points[Integer.numberOfTrailingZeros(rule)];
+        triggered |= rule;
+        
+        double totalRainfall = rainfall + forecastRain;
+        if (totalRainfall < t[ScoringRules.RAIN_NONE_BELOW]) {
+            rule = RAIN_NONE;
+        } else if (totalRainfall < t[ScoringRules.RAIN_LIGHT_BELOW]) {
+            rule = RAIN_LIGHT;
+        } else if (totalRainfall < t[ScoringRules.RAIN_MODERATE_BELOW]) {
+            rule = RAIN_MODERATE;
+        } else {
+            rule = RAIN_ADEQUATE;
+        }
+        score += points[Integer.numberOfTrailingZeros(rule)];
+        triggered |= rule;
+        
+        if (et0 > etThreshold * t[ScoringRules.ET_VERY_HIGH_FACTOR]) {
+            rule = ET_VERY_HIGH;
+        } else if (et0 > etThreshold * t[ScoringRules.ET_HIGH_FACTOR]) {
+            rule = ET_HIGH;
+        } else {
+            rule = ET_NORMAL;
+        }
+        score += points[Integer.numberOfTrailingZeros(rule)];
+        triggered |= rule;
+        
+        int level = score >= t[ScoringRules.LEVEL_HIGH_FROM] ? LEVEL_HIGH
+                : score >= t[ScoringRules.LEVEL_MODERATE_FROM] ? LEVEL_MODERATE : LEVEL_LOW;
+        return pack(score, level, triggered);
+    }
+    
+    public static long pack(int score, int level, int rules) {
+        return ((long) (score & 0xFF) << 40) | ((long) (level & 0xFF) << 32) | (rules & 0xFFFFFFFFL);
+    }
+    
+    public static int scoreOf(long packed) {
+        return (byte) (packed >>> 40);
+    }
+    
+    public static int levelOf(long packed) {
+        return (int) (packed >>> 32) & 0xFF;
+    }
+    
+    public static int rulesOf(long packed) {
+        return (int) packed;
+    }
+    
+    public static String levelName(int level) {
+        return LEVEL_NAMES[level];
+    }
+    
+    /**
+     * Liters saved against full irrigation of the crop's demand over the given area.
+     */
+    public static double waterSavedLiters(int level, double waterDemandLitersPerHectare, double hectares) {
+        double baseWaterDemand = waterDemandLitersPerHectare * hectares;
+        return Math.max(0.0, baseWaterDemand - baseWaterDemand * USAGE_SHARE[level]);
+    }
+    
+    /**
+     * Render the explanation for the triggered rules. The rainfall sentence quotes today's rainfall only.
+     */
+    public static String explain(int rules, double tempC, double humidity, double rainfall, double et0) {
+        StringBuilder explanation = new StringBuilder(320);
+        
+        String temp = String.format("%.1f", tempC);
+        if ((rules & TEMP_EXTREME) != 0) {
+            explanation.append("Extreme temperature (").append(temp).append("°C) requires urgent irrigation. ");
+        } else if ((rules & TEMP_HIGH) != 0) {
+            explanation.append("High temperature (").append(temp).append("°C) requires more irrigation. ");
+        } else if ((rules & TEMP_MODERATE) != 0) {
+            explanation.append("Moderate temperature (").append(temp).append("°C) needs some irrigation. ");
+        } else if ((rules & TEMP_COOL) != 0) {
+            explanation.append("Cool temperature (").append(temp).append("°C) reduces irrigation needs. ");
+        } else if ((rules & TEMP_OPTIMAL) != 0) {
+            explanation.append("Optimal temperature (").append(temp).append("°C) has normal irrigation needs. ");
+        }
+        
+        String hum = String.format("%.0f", humidity);
+        if ((rules & HUMIDITY_VERY_LOW) != 0) {
+            explanation.append("Very low humidity (").append(hum).append("%) significantly increases water demand. ");
+        } else if ((rules & HUMIDITY_LOW) != 0) {
+            explanation.append("Low humidity (").append(hum).append("%) increases water demand. ");
+        } else if ((rules & HUMIDITY_MODERATE) != 0) {
+            explanation.append("Moderate humidity (").append(hum).append("%) has normal water needs. ");
+        } else if ((rules & HUMIDITY_HIGH) != 0) {
+            explanation.append("High humidity (").append(hum).append("%) reduces water demand. ");
+        } else if ((rules & HUMIDITY_GOOD) != 0) {
+            explanation.append("Good humidity (").append(hum).append("%) has optimal water needs. ");
+        }
+        
+        String rain = String.format("%.1f", rainfall);
+        if ((rules & RAIN_NONE) != 0) {
+            explanation.append("No significant rainfall (").append(rain).append("mm) requires irrigation. ");
+        } else if ((rules & RAIN_LIGHT) != 0) {
+            explanation.append("Light rainfall (").append(rain).append("mm) may need some irrigation. ");
+        } else if ((rules & RAIN_MODERATE) != 0) {
+            explanation.append("Moderate rainfall (").append(rain).append("mm) reduces irrigation needs. ");
+        } else if ((rules & RAIN_ADEQUATE) != 0) {
+            explanation.append("Adequate rainfall (").append(rain).append("mm) significantly reduces irrigation needs. ");
+        }
+        
+        String et = String.format("%.2f", et0);
+        if ((rules & ET_VERY_HIGH) != 0) {
+            explanation.append("Very high evapotranspiration (").append(et).append("mm) significantly increases water loss. ");
+        } else if ((rules & ET_HIGH) != 0) {
+            explanation.append("High evapotranspiration (").append(et).append("mm) increases water loss. ");
+        } else if ((rules & ET_NORMAL) != 0) {
+            explanation.append("Normal evapotranspiration (").append(et).append("mm) has standard water needs. ");
+        }
+        
+        return explanation.toString();
+    }
+}
@@ -0,0 +1,264 @@
+package com.hackathon.agriculture_backend.util;
+
+/**
+ * FAO-56 reference evapotranspiration (ET0, mm) for daily and hourly series. Uses the
+ * Penman-Monteith equation with solar radiation estimated from the temperature range when no
+ * measurement is given, and falls back to Hargreaves when humidity is missing. Missing wind
+ * is taken as 2 m/s, as FAO-56 recommends.
+ * <p>
+ * Extraterrestrial radiation and daylight hours are precomputed for every whole degree of
+ * latitude and day of year and interpolated between latitudes, so a series costs a few
+ * multiplications per step and allocates nothing. Missing inputs are passed as NaN; optional
+ * input arrays may be null. Days of year wrap to 1 after 365.
+ */
+public final class ReferenceEvapotranspiration {
+    
+    // Wind speed assumed when none is known (FAO-56 section 3, missing data)
+    public static final double DEFAULT_WIND_SPEED_2M = 2.0;
+    // Typical diurnal range assumed when only one temperature is known
+    public static final double DEFAULT_TEMPERATURE_RANGE = 12.0;
+    
+    private static final double SOLAR_CONSTANT = 0.0820; // MJ m-2 min-1
+    private static final double STEFAN_BOLTZMANN_DAY = 4.903e-9; // MJ K-4 m-2 day-1
+    private static final double STEFAN_BOLTZMANN_HOUR = 2.043e-10; // MJ K-4 m-2 h-1
+    private static final double KRS = 0.17; // Hargreaves radiation coefficient, between interior 0.16 and coastal 0.19
+    private static final double ALBEDO_COMPLEMENT = 0.77; // 1 - albedo of the grass reference
+    private static final double NIGHT_CLEARNESS = 0.7; // Rs/Rso carried into the night before any daylight hour
+    
+    private static final int DAYS = 366;
+    private static final int BANDS = 181; // -90 .. 90 degrees
+    
+    // Indexed [band * DAYS + dayOfYear - 1]
+    private static final double[] RA = new double[BANDS * DAYS]; // MJ m-2 day-1
+    private static final double[] DAYLIGHT = new double[BANDS * DAYS]; // hours
+    // Indexed [dayOfYear - 1], for hourly radiation
+    private static final double[] DR = new double[DAYS];
+    private static final double[] DECLINATION = new double[DAYS];
+    private static final double[] SIN_DECLINATION = new double[DAYS];
+    private static final double[] COS_DECLINATION = new double[DAYS];
+    private static final double[] SEASONAL_CORRECTION = new double[DAYS]; // hours
+    
+    static {
+        for (int day = 1; day <= DAYS; day++) {
+            double angle = 2 * Math.PI * day / 365;
+            DR[day - 1] = 1 + 0.033 * Math.cos(angle);
+            DECLINATION[day - 1] = 0.409 * Math.sin(angle - 1.39);
+            SIN_DECLINATION[day - 1] = Math.sin(DECLINATION[day - 1]);
+            COS_DECLINATION[day - 1] = Math.cos(DECLINATION[day - 1]);
+            double b = 2 * Math.PI * (day - 81) / 364;
+            SEASONAL_CORRECTION[day - 1] = 0.1645 * Math.sin(2 * b) - 0.1255 * Math.cos(b) - 0.025 * Math.sin(b);
+        }
+        for (int band = 0; band < BANDS; band++) {
+            // The poles themselves make tan(latitude) infinite
+            double phi = Math.toRadians(Math.max(-89.9, Math.min(89.9, band - 90)));
+            for (int day = 1; day <= DAYS; day++) {
+                double declination = DECLINATION[day - 1];
+                double sunset = Math.acos(Math.max(-1, Math.min(1, -Math.tan(phi) * Math.tan(declination))));
+                double ra = 24 * 60 / Math.PI * SOLAR_CONSTANT * DR[day - 1]
+                        * (sunset * Math.sin(phi) * Math.sin(declination)
+                        + Math.cos(phi) * Math.cos(declination) * Math.sin(sunset));
+                RA[band * DAYS + day - 1] = Math.max(0, ra);
+                DAYLIGHT[band * DAYS + day - 1] = 24 / Math.PI * sunset;
+            }
+        }
+    }
+    
+    private ReferenceEvapotranspiration() {
+    }
+    
+    /**
+     * ET0 for one day; see {@link #daily(double, double, int, double[], double[], double[], double[], double[], int)}.
+     */
+    public static double daily(double latitude, double elevation, int dayOfYear, double tMax, double tMin,
+                               double rhMean, double windSpeed2m) {
+        return dailyEt0(extraterrestrialRadiation(latitude, dayOfYear), elevation, tMax, tMin, rhMean, windSpeed2m);
+    }
+    
+    /**
+     * Daily ET0 for consecutive days starting at firstDayOfYear. tMax and tMin are °C, rhMean is
+     * the mean relative humidity in percent and windSpeed2m m/s at 2 m. Days without both
+     * temperatures yield NaN.
+     */
+    public static void daily(double latitude, double elevation, int firstDayOfYear, double[] tMax, double[] tMin,
+                             double[] rhMean, double[] windSpeed2m, double[] et0, int days) {
+        int band = band(latitude);
+        double fraction = bandFraction(latitude, band);
+        int day = firstDayOfYear;
+        for (int i = 0; i < days; i++) {
+            double ra = interpolate(RA, band, fraction, day);
+            et0[i] = dailyEt0(ra, elevation, tMax[i], tMin[i], rhMean != null ? rhMean[i] : Double.NaN,
+                    windSpeed2m != null ? windSpeed2m[i] : Double.NaN);
+            day = nextDay(day);
+        }
+    }
+    
+    /**
+     * Hourly ET0 for consecutive hours starting at firstUtcHour (0-23) of dayOfYear. temperature
+     * is °C, rh percent, windSpeed2m m/s at 2 m and solarRadiation MJ m-2 h-1; without a
+     * radiation value it is estimated from temperatureRange, the diurnal range of the day.
+     */
+    public static void hourly(double latitude, double longitude, double elevation, int dayOfYear, int firstUtcHour,
+                              double temperatureRange, double[] temperature, double[] rh, double[] windSpeed2m,
+                              double[] solarRadiation, double[] et0, int hours) {
+        int band = band(latitude);
+        double fraction = bandFraction(latitude, band);
+        double phi = Math.toRadians(latitude);
+        double sinPhi = Math.sin(phi);
+        double cosPhi = Math.cos(phi);
+        double gamma = psychrometricConstant(elevation);
+        double clearSky = 0.75 + 2e-5 * elevation;
+        double krsRange = KRS * Math.sqrt(Math.max(0, temperatureRange));
+        double clearness = NIGHT_CLEARNESS;
+        
+        int day = dayOfYear;
+        int hour = firstUtcHour;
+        for (int i = 0; i < hours; i++) {
+            double t = temperature[i];
+            
+            // Solar time angle at the middle of the hour, clipped to sunrise and sunset
+            double sunset = interpolate(DAYLIGHT, band, fraction, day) * Math.PI / 24;
+            double omega = Math.PI / 12 * (hour + 0.5 + longitude / 15 + SEASONAL_CORRECTION[day - 1] - 12);
+            // Local solar hour is within a day of UTC, so one wrap brings omega into [-pi, pi]
+            if (omega > Math.PI) {
+                omega -= 2 * Math.PI;
+            } else if (omega < -Math.PI) {
+                omega += 2 * Math.PI;
+            }
+            double omega1 = Math.max(-sunset, omega - Math.PI / 24);
+            double omega2 = Math.min(sunset, omega + Math.PI / 24);
+            double ra = omega2 > omega1
+                    ? 12 * 60 / Math.PI * SOLAR_CONSTANT * DR[day - 1] * ((omega2 - omega1) * sinPhi * SIN_DECLINATION[day - 1]
+                    + cosPhi * COS_DECLINATION[day - 1] * (Math.sin(omega2) - Math.sin(omega1)))
+                    : 0;
+            ra = Math.max(0, ra);
+            
+            double humidity = rh != null ? rh[i] : Double.NaN;
+            if (Double.isNaN(humidity)) {
+                // Hargreaves with the hour's share of extraterrestrial radiation
+                et0[i] = Math.max(0, 0.0023 * (t + 17.8) * Math.sqrt(Math.max(0, temperatureRange)) * 0.408 * ra);
+            } else {
+                double rso = clearSky * ra;
+                double rs = solarRadiation != null && !Double.isNaN(solarRadiation[i]) ? solarRadiation[i] : krsRange * ra;
+                rs = Math.min(rs, rso);
+                boolean daylight = rso > 0;
+                if (daylight) {
+                    clearness = rs / rso;
+                }
+                double es = saturationVapourPressure(t);
+                double ea = humidity / 100 * es;
+                double tk = t + 273.16;
+                double rnl = STEFAN_BOLTZMANN_HOUR * tk * tk * tk * tk * (0.34 - 0.14 * Math.sqrt(ea))
+                        * (1.35 * clearness - 0.35);
+                double rn = ALBEDO_COMPLEMENT * rs - rnl;
+                double g = daylight ? 0.1 * rn : 0.5 * rn;
+                double u2 = windSpeed2m != null && !Double.isNaN(windSpeed2m[i]) ? windSpeed2m[i] : DEFAULT_WIND_SPEED_2M;
+                double delta = slope(t, es);
+                et0[i] = Math.max(0, (0.408 * delta * (rn - g) + gamma * 37 / (t + 273) * u2 * (es - ea))
+                        / (delta + gamma * (1 + 0.34 * u2)));
+            }
+            
+            if (++hour == 24) {
+                hour = 0;
+                day = nextDay(day);
+            }
+        }
+    }
+    
+    /**
+     * Hargreaves ET0 for one day, from temperatures and extraterrestrial radiation only.
+     */
+    public static double hargreaves(double latitude, int dayOfYear, double tMax, double tMin) {
+        return hargreavesEt0(extraterrestrialRadiation(latitude, dayOfYear), tMax, tMin);
+    }
+    
+    /**
+     * Daily extraterrestrial radiation, MJ m-2 day-1.
+     */
+    public static double extraterrestrialRadiation(double latitude, int dayOfYear) {
+        int band = band(latitude);
+        return interpolate(RA, band, bandFraction(latitude, band), dayOfYear);
+    }
+    
+    public static double daylightHours(double latitude, int dayOfYear) {
+        int band = band(latitude);
+        return interpolate(DAYLIGHT, band, bandFraction(latitude, band), dayOfYear);
+    }
+    
+    /**
+     * Wind speed at 2 m from a measurement at another height (FAO-56 eq. 47); One Call reports 10 m.
+     */
+    public static double windSpeedAt2m(double windSpeed, double heightMeters) {
+        return windSpeed * 4.87 / Math.log(67.8 * heightMeters - 5.42);
+    }
+    
+    private static double dailyEt0(double ra, double elevation, double tMax, double tMin, double rhMean,
+                                   double windSpeed2m) {
+        if (Double.isNaN(tMax) || Double.isNaN(tMin)) {
+            return Double.NaN;
+        }
+        if (Double.isNaN(rhMean)) {
+            return hargreavesEt0(ra, tMax, tMin);
+        }
+        double u2 = Double.isNaN(windSpeed2m) ? DEFAULT_WIND_SPEED_2M : windSpeed2m;
+        double tMean = (tMax + tMin) / 2;
+        double range = Math.max(0, tMax - tMin);
+        
+        double rso = (0.75 + 2e-5 * elevation) * ra;
+        double rs = Math.min(KRS * Math.sqrt(range) * ra, rso);
+        double es = (saturationVapourPressure(tMax) + saturationVapourPressure(tMin)) / 2;
+        double ea = rhMean / 100 * es;
+        
+        double tMaxK = tMax + 273.16;
+        double tMinK = tMin + 273.16;
+        double clearness = rso > 0 ? rs / rso : NIGHT_CLEARNESS;
+        double rnl = STEFAN_BOLTZMANN_DAY * (tMaxK * tMaxK * tMaxK * tMaxK + tMinK * tMinK * tMinK * tMinK) / 2
+                * (0.34 - 0.14 * Math.sqrt(ea)) * (1.35 * clearness - 0.35);
+        double rn = ALBEDO_COMPLEMENT * rs - rnl;
+        
+        double delta = slope(tMean, saturationVapourPressure(tMean));
+        double gamma = psychrometricConstant(elevation);
+        double et0 = (0.408 * delta * rn + gamma * 900 / (tMean + 273) * u2 * (es - ea))
+                / (delta + gamma * (1 + 0.34 * u2));
+        return Math.max(0, et0);
+    }
+    
+    private static double hargreavesEt0(double ra, double tMax, double tMin) {
+        if (Double.isNaN(tMax) || Double.isNaN(tMin)) {
+            return Double.NaN;
+        }
+        double tMean = (tMax + tMin) / 2;
+        return Math.max(0, 0.0023 * (tMean + 17.8) * Math.sqrt(Math.max(0, tMax - tMin)) * 0.408 * ra);
+    }
+    
+    private static double saturationVapourPressure(double t) {
+        return 0.6108 * Math.exp(17.27 * t / (t + 237.3));
+    }
+    
+    private static double slope(double t, double saturation) {
+        double d = t + 237.3;
+        return 4098 * saturation / (d * d);
+    }
+    
+    private static double psychrometricConstant(double elevation) {
+        double pressure = 101.3 * Math.pow((293 - 0.0065 * elevation) / 293, 5.26);
+        return 0.665e-3 * pressure;
+    }
+    
+    private static int band(double latitude) {
+        return (int) Math.min(BANDS - 2, Math.max(0, Math.floor(latitude + 90)));
+    }
+    
+    private static double bandFraction(double latitude, int band) {
+        return Math.max(0, Math.min(1, latitude + 90 - band));
+    }
+    
+    private static double interpolate(double[] table, int band, double fraction, int dayOfYear) {
+        int index = band * DAYS + Math.max(1, Math.min(DAYS, dayOfYear)) - 1;
+        double low = table[index];
+        return low + fraction * (table[index + DAYS] - low);
+    }
+    
+    private static int nextDay(int dayOfYear) {
+        return dayOfYear >= 365 ? 1 : dayOfYear + 1;
+    }
+}
@@ -0,0 +1,154 @@
+package com.hackathon.agriculture_backend.util;
+
+import java.util.Map;
+
+/**
+ * Compiled thresholds and points for {@link RecommendationScorer}. Parameters are declared by
+ * name in the rule table and compiled once into two flat arrays, so scoring does no lookups.
+ * Instances are immutable and shared between threads.
+ */
+public final class ScoringRules {
+    
+    // Indexes into thresholds, in the order of PARAMETERS
+    static final int TEMP_EXTREME_ABOVE = 0;
+    static final int TEMP_HIGH_ABOVE = 1;
+    static final int TEMP_MODERATE_ABOVE = 2;
+    static final int TEMP_COOL_BELOW = 3;
+    static final int HUMIDITY_VERY_LOW_BELOW = 4;
+    static final int HUMIDITY_LOW_BELOW = 5;
+    static final int HUMIDITY_MODERATE_BELOW = 6;
+    static final int HUMIDITY_HIGH_ABOVE = 7;
+    static final int RAIN_NONE_BELOW = 8;
+    static final int RAIN_LIGHT_BELOW = 9;
+    static final int RAIN_MODERATE_BELOW = 10;
+    static final int ET_VERY_HIGH_FACTOR = 11;
+    static final int ET_HIGH_FACTOR = 12;
+    static final int LEVEL_HIGH_FROM = 13;
+    static final int LEVEL_MODERATE_FROM = 14;
+    
+    private static final String[] PARAMETERS = {
+            "temperature.extreme-above", "temperature.high-above", "temperature.moderate-above", "temperature.cool-below",
+            "humidity.very-low-below", "humidity.low-below", "humidity.moderate-below", "humidity.high-above",
+            "rainfall.none-below", "rainfall.light-below", "rainfall.moderate-below",
+            "et.very-high-factor", "et.high-factor",
+            "level.high-from", "level.moderate-from"
+    };
+    
+    private static final double[] DEFAULT_THRESHOLDS = {
+            40, 35, 28, 15,
+            20, 30, 50, 80,
+            1, 3, 10,
+            1.5, 1.0,
+            6, 3
+    };
+    
+    // Points per rule, indexed by the bit position of the RecommendationScorer rule code
+    private static final String[] RULES = {
+            "temp-extreme", "temp-high", "temp-moderate", "temp-cool", "temp-optimal",
+            "humidity-very-low", "humidity-low", "humidity-moderate", "humidity-high", "humidity-good",
+            "rain-none", "rain-light", "rain-moderate", "rain-adequate",
+            "et-very-high", "et-high", "et-normal"
+    };
+    
+    // First rule of each factor in RULES; exactly one rule per factor adds its points
+    private static final int[] FACTOR_STARTS = {0, 5, 10, 14, RULES.length};
+    
+    private static final int[] DEFAULT_POINTS = {
+            3, 2, 1, -1, 0,
+            3, 2, 1, -1, 0,
+            3, 2, 1, -1,
+            2, 1, 0
+    };
+    
+    public static final ScoringRules DEFAULTS = new ScoringRules(DEFAULT_THRESHOLDS, DEFAULT_POINTS);
+    
+    final double[] thresholds;
+    final int[] points;
+    
+    private ScoringRules(double[] thresholds, int[] points) {
+        this.thresholds = thresholds;
+        this.points = points;
+    }
+    
+    /**
+     * Compile named values on top of these rules. Keys are either a threshold parameter
+     * (e.g. "temperature.extreme-above") or "points." followed by a rule (e.g. "points.rain-none").
+     */
+    public ScoringRules with(Map<String, ? extends Number> values) {
+        if (values == null || values.isEmpty()) {
+            return this;
+        }
+        double[] compiledThresholds = thresholds.clone();
+        int[] compiledPoints = points.clone();
+        for (Map.Entry<String, ? extends Number> entry : values.entrySet()) {
+            String key = entry.getKey();
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("Missing value for scoring rule " + key);
+            }
+            int index = indexOf(PARAMETERS, key);
+            if (index >= 0) {
+                compiledThresholds[index] = entry.getValue().doubleValue();
+                continue;
+            }
+            index = key.startsWith("points.") ? indexOf(RULES, key.substring("points.".length())) : -1;
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown scoring rule parameter " + key);
+            }
+            compiledPoints[index] = entry.getValue().intValue();
+        }
+        validate(compiledThresholds, compiledPoints);
+        return new ScoringRules(compiledThresholds, compiledPoints);
+    }
+    
+    public double threshold(String parameter) {
+        int index = indexOf(PARAMETERS, parameter);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown scoring rule parameter " + parameter);
+        }
+        return thresholds[index];
+    }
+    
+    private static void validate(double[] t, int[] points) {
+        // The buckets are checked top-down, so overlapping thresholds would make a bucket unreachable
+        requireOrder(t, TEMP_EXTREME_ABOVE, TEMP_HIGH_ABOVE);
+        requireOrder(t, TEMP_HIGH_ABOVE, TEMP_MODERATE_ABOVE);
+        requireOrder(t, TEMP_MODERATE_ABOVE, TEMP_COOL_BELOW);
+        requireOrder(t, HUMIDITY_LOW_BELOW, HUMIDITY_VERY_LOW_BELOW);
+        requireOrder(t, HUMIDITY_MODERATE_BELOW, HUMIDITY_LOW_BELOW);
+        requireOrder(t, HUMIDITY_HIGH_ABOVE, HUMIDITY_MODERATE_BELOW);
+        requireOrder(t, RAIN_LIGHT_BELOW, RAIN_NONE_BELOW);
+        requireOrder(t, RAIN_MODERATE_BELOW, RAIN_LIGHT_BELOW);
+        requireOrder(t, ET_VERY_HIGH_FACTOR, ET_HIGH_FACTOR);
+        requireOrder(t, LEVEL_HIGH_FROM, LEVEL_MODERATE_FROM);
+        
+        // The score is packed into a signed byte by RecommendationScorer
+        long maxMagnitude = 0;
+        for (int factor = 0; factor + 1 < FACTOR_STARTS.length; factor++) {
+            long largest = 0;
+            for (int rule = FACTOR_STARTS[factor]; rule < FACTOR_STARTS[factor + 1]; rule++) {
+                largest = Math.max(largest, Math.abs((long) points[rule]));
+            }
+            maxMagnitude += largest;
+        }
+        if (maxMagnitude > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Scoring rule points allow a score of magnitude " + maxMagnitude
+                    + "; the largest points of the four factors must add up to at most " + Byte.MAX_VALUE);
+        }
+    }
+    
+    private static void requireOrder(double[] t, int higher, int lower) {
+        if (t[higher] < t[lower]) {
+            throw new IllegalArgumentException("Scoring rule " + PARAMETERS[higher] + " (" + t[higher]
+                    + ") must not be below " + PARAMETERS[lower] + " (" + t[lower] + ")");
+        }
+    }
+    
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
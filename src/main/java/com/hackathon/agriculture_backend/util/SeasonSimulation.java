@@ -0,0 +1,96 @@
+package com.hackathon.agriculture_backend.util;
+
+import java.util.Locale;
+
+/**
+ * Season-long irrigation simulation of many plan variants at one location, on the FAO-56 root
+ * zone water balance of SoilWaterBalance. Each variant is refilled to field capacity at the end
+ * of any day its depletion reaches its trigger; the baseline is the stateless daily plan, which
+ * replaces each day's crop ET minus that day's rain.
+ * Series are day-major ([day * variants + variant]), so the inner loop runs over contiguous
+ * variant arrays without allocation.
+ */
+public final class SeasonSimulation {
+    
+    // Keeps Ks finite when RAW equals TAW
+    private static final double MIN_STRESS_RANGE_MM = 1e-6;
+    
+    private SeasonSimulation() {
+    }
+    
+    /**
+     * FAO-56 crop coefficients for the initial, mid-season and late stages (table 12) and the
+     * share of the season spent in the initial, development, mid-season and late stages (table 11).
+     */
+    public record CropStages(double kcInit, double kcMid, double kcEnd,
+                             double initial, double development, double midSeason) {
+    }
+    
+    public static CropStages stages(String cropType) {
+        switch (cropType == null ? "" : cropType.trim().toLowerCase(Locale.ROOT)) {
+            case "tomato": return new CropStages(0.60, 1.15, 0.80, 0.22, 0.30, 0.30);
+            case "cucumber": return new CropStages(0.60, 1.00, 0.75, 0.19, 0.29, 0.38);
+            case "lettuce": return new CropStages(0.70, 1.00, 0.95, 0.27, 0.40, 0.20);
+            case "pepper": return new CropStages(0.60, 1.05, 0.90, 0.24, 0.28, 0.32);
+            case "wheat": return new CropStages(0.30, 1.15, 0.25, 0.13, 0.21, 0.41);
+            case "corn": return new CropStages(0.30, 1.20, 0.35, 0.20, 0.27, 0.33);
+            case "rice": return new CropStages(1.05, 1.20, 0.90, 0.20, 0.20, 0.40);
+            default: return new CropStages(0.50, 1.00, 0.80, 0.20, 0.30, 0.30);
+        }
+    }
+    
+    /**
+     * Daily Kc over a season of the given length (FAO-56 fig. 25): flat in the initial stage,
+     * rising linearly to mid-season, flat, then falling linearly to the end value. Written to
+     * out[day * stride + column].
+     */
+    public static void kcCurve(CropStages stages, int days, double[] out, int stride, int column) {
+        double initialEnd = stages.initial() * days;
+        double developmentEnd = initialEnd + stages.development() * days;
+        double midSeasonEnd = developmentEnd + stages.midSeason() * days;
+        for (int d = 0; d < days; d++) {
+            double kc;
+            if (d < initialEnd) {
+                kc = stages.kcInit();
+            } else if (d < developmentEnd) {
+                kc = stages.kcInit() + (stages.kcMid() - stages.kcInit()) * (d - initialEnd) / (developmentEnd - initialEnd);
+            } else if (d < midSeasonEnd) {
+                kc = stages.kcMid();
+            } else {
+                kc = stages.kcMid() + (stages.kcEnd() - stages.kcMid()) * (d - midSeasonEnd) / (days - midSeasonEnd);
+            }
+            out[d * stride + column] = kc;
+        }
+    }
+    
+    /**
+     * Run the season for all variants. Depletion (mm) holds each variant's starting depletion and
+     * ends as the final one. Per day and variant, writes the liters applied, the liters of the
+     * stateless baseline and the end-of-day depletion. litersPerMm is area (m²) over irrigation
+     * efficiency; 1 mm on 1 m² is 1 liter.
+     */
+    public static void run(double[] et0, double[] rain, double[] kc,
+                           double[] totalAvailable, double[] readilyAvailable, double[] trigger, double[] litersPerMm,
+                           double[] depletion, double[] litersOut, double[] baselineOut, double[] depletionOut,
+                           int days, int variants) {
+        for (int d = 0; d < days; d++) {
+            double dayEt0 = et0[d];
+            double dayRain = rain[d];
+            int row = d * variants;
+            for (int v = 0; v < variants; v++) {
+                double taw = totalAvailable[v];
+                double dr = depletion[v];
+                double crop = kc[row + v];
+                double ks = Math.min(1.0, Math.max(0.0, (taw - dr) / Math.max(taw - readilyAvailable[v], MIN_STRESS_RANGE_MM)));
+                double next = dr - dayRain + ks * crop * dayEt0;
+                // Refill to field capacity once the trigger is reached
+                double net = next >= trigger[v] ? next : 0.0;
+                dr = Math.min(taw, Math.max(0.0, next - net));
+                depletion[v] = dr;
+                litersOut[row + v] = net * litersPerMm[v];
+                baselineOut[row + v] = Math.max(0.0, crop * dayEt0 - dayRain) * litersPerMm[v];
+                depletionOut[row + v] = dr;
+            }
+        }
+    }
+}
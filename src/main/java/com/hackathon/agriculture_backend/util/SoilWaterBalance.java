@@ -0,0 +1,86 @@
+package com.hackathon.agriculture_backend.util;
+
+import java.util.Locale;
+
+/**
+ * FAO-56 (chapter 8) daily root zone water balance. The root zone is a bucket holding the total
+ * available water (TAW) between field capacity and wilting point; its state is the depletion
+ * below field capacity. Crop ET is reduced by the water stress coefficient Ks once depletion
+ * passes the readily available water (RAW), and water above field capacity drains below the
+ * root zone. Runoff and capillary rise are ignored.
+ * Fields are advanced over primitive arrays in one branch-free loop the JIT can vectorize.
+ */
+public final class SoilWaterBalance {
+    
+    // Keeps Ks finite when RAW equals TAW
+    private static final double MIN_STRESS_RANGE_MM = 1e-6;
+    
+    private SoilWaterBalance() {
+    }
+    
+    /**
+     * Mid-season crop coefficient, maximum effective root depth (m) and depletion fraction p
+     * (FAO-56 tables 12 and 22).
+     */
+    public record CropParameters(double kc, double rootDepth, double depletionFraction) {
+    }
+    
+    public static CropParameters crop(String cropType) {
+        switch (normalize(cropType)) {
+            case "tomato": return new CropParameters(1.15, 1.1, 0.40);
+            case "cucumber": return new CropParameters(1.00, 0.95, 0.50);
+            case "lettuce": return new CropParameters(1.00, 0.4, 0.30);
+            case "pepper": return new CropParameters(1.05, 0.75, 0.30);
+            case "wheat": return new CropParameters(1.15, 1.65, 0.55);
+            case "corn": return new CropParameters(1.20, 1.35, 0.55);
+            case "rice": return new CropParameters(1.20, 0.75, 0.20);
+            default: return new CropParameters(1.00, 1.0, 0.50);
+        }
+    }
+    
+    /**
+     * Water held between field capacity and wilting point, in mm per m of soil (FAO-56 table 19).
+     */
+    public static double availableWaterPerMeter(String soilType) {
+        switch (normalize(soilType)) {
+            case "sandy": return 80.0;
+            case "silt": return 180.0;
+            case "clay": return 160.0;
+            case "loam":
+            default: return 155.0;
+        }
+    }
+    
+    /**
+     * Total available water (mm) of the crop's root zone in the given soil.
+     */
+    public static double totalAvailableWater(CropParameters crop, String soilType) {
+        return availableWaterPerMeter(soilType) * crop.rootDepth();
+    }
+    
+    /**
+     * Advance n fields by one day. Depletion (mm below field capacity) is updated in place and
+     * the day's actual crop ET and deep percolation are written out. A field with zero ET0, rain
+     * and irrigation is left unchanged, so fields that are already up to date can share a pass.
+     */
+    public static void advance(double[] depletion, double[] totalAvailable, double[] readilyAvailable, double[] kc,
+                               double[] et0, double[] rain, double[] irrigation,
+                               double[] etcOut, double[] percolationOut, int n) {
+        for (int i = 0; i < n; i++) {
+            double taw = totalAvailable[i];
+            double dr = depletion[i];
+            // Ks (eq. 84): 1 up to RAW, then falling linearly to 0 at TAW
+            double ks = Math.min(1.0, Math.max(0.0, (taw - dr) / Math.max(taw - readilyAvailable[i], MIN_STRESS_RANGE_MM)));
+            double etc = ks * kc[i] * et0[i];
+            // Depletion (eq. 85); a negative result is water above field capacity that percolates
+            double next = dr - rain[i] - irrigation[i] + etc;
+            percolationOut[i] = Math.max(0.0, -next);
+            depletion[i] = Math.min(taw, Math.max(0.0, next));
+            etcOut[i] = etc;
+        }
+    }
+    
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,144 @@
+package com.hackathon.agriculture_backend.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Resilience wrapper for one upstream API: a circuit breaker, an overall call timeout,
+ * and a single hedged attempt started once the primary call exceeds the recent p95 latency.
+ */
+public class UpstreamGuard {
+    
+    /**
+     * Raised when the circuit is open and the call was not attempted.
+     */
+    public static class UpstreamUnavailableException extends RuntimeException {
+        public UpstreamUnavailableException(String message) {
+            super(message);
+        }
+    }
+    
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyTracker latencyTracker;
+    private final Duration timeout;
+    private final boolean hedgingEnabled;
+    
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter rejectedCounter;
+    private final Counter hedgeCounter;
+    
+    public UpstreamGuard(String name, CircuitBreaker circuitBreaker, LatencyTracker latencyTracker,
+                         Duration timeout, boolean hedgingEnabled, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.latencyTracker = latencyTracker;
+        this.timeout = timeout;
+        this.hedgingEnabled = hedgingEnabled;
+        
+        successCounter = callCounter(meterRegistry, "success");
+        failureCounter = callCounter(meterRegistry, "failure");
+        rejectedCounter = callCounter(meterRegistry, "rejected");
+        hedgeCounter = Counter.builder("upstream.hedges")
+                .description("Hedged attempts started after the primary call exceeded p95 latency")
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder("upstream.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("Circuit state: 0 closed, 1 half-open, 2 open")
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder("upstream.latency.p95", latencyTracker, lt -> lt.getPercentileNanos() / 1_000_000.0)
+                .description("Recent p95 latency of successful calls in milliseconds")
+                .tag("upstream", name)
+                .register(meterRegistry);
+    }
+    
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                rejectedCounter.increment();
+                return Mono.error(new UpstreamUnavailableException(name + " is unavailable (circuit open)"));
+            }
+            
+            Mono<T> primary = attempt(call);
+            long hedgeAfter = latencyTracker.getPercentileNanos();
+            Mono<T> result = primary;
+            if (hedgingEnabled && hedgeAfter > 0 && hedgeAfter < timeout.toNanos()) {
+                Mono<T> hedge = Mono.delay(Duration.ofNanos(hedgeAfter))
+                        .flatMap(tick -> {
+                            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED || !circuitBreaker.tryAcquire()) {
+                                return Mono.<T>empty();
+                            }
+                            hedgeCounter.increment();
+                            return attempt(call);
+                        });
+                result = Mono.firstWithValue(primary, hedge)
+                        .onErrorMap(this::firstCause);
+            }
+            
+            return result
+                    .timeout(timeout, Mono.error(() -> new TimeoutException(name + " did not respond within " + timeout)))
+                    .doOnSuccess(value -> successCounter.increment())
+                    .doOnError(e -> failureCounter.increment());
+        });
+    }
+    
+    public Duration getTimeout() {
+        return timeout;
+    }
+    
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+    
+    private <T> Mono<T> attempt(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.get()
+                    .doOnSuccess(value -> {
+                        long elapsed = System.nanoTime() - start;
+                        latencyTracker.record(elapsed);
+                        circuitBreaker.record(elapsed, true);
+                    })
+                    .doOnError(e -> circuitBreaker.record(System.nanoTime() - start, false))
+                    .doOnCancel(() -> {
+                        long elapsed = System.nanoTime() - start;
+                        // A call cut off by the timeout still counts as slow; a losing hedge does not
+                        if (circuitBreaker.isSlow(elapsed)) {
+                            circuitBreaker.record(elapsed, true);
+                        } else {
+                            circuitBreaker.release();
+                        }
+                    });
+        });
+    }
+    
+    private Throwable firstCause(Throwable e) {
+        // firstWithValue reports a composite when no attempt produced a value; surface the primary's error
+        if (e instanceof NoSuchElementException && e.getCause() != null) {
+            List<Throwable> causes = Exceptions.unwrapMultiple(e.getCause());
+            if (!causes.isEmpty()) {
+                return causes.get(0);
+            }
+        }
+        return e;
+    }
+    
+    private Counter callCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("upstream.calls")
+                .description("Guarded upstream calls")
+                .tag("upstream", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
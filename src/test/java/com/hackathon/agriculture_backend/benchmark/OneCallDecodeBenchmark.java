@@ -0,0 +1,118 @@
+package com.hackathon.agriculture_backend.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.util.OneCallDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming One Call decoder against full WeatherDto binding, which is what
+ * bodyToMono(WeatherDto.class) does through Jackson2JsonDecoder.
+ * Run main() to get time and gc.alloc.rate.norm (bytes allocated per response).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OneCallDecodeBenchmark {
+    
+    @Param({"false", "true"})
+    private boolean includeHourly;
+    
+    private byte[] payload;
+    private ObjectMapper objectMapper;
+    
+    @Setup
+    public void setUp() {
+        payload = samplePayload(includeHourly).getBytes(StandardCharsets.UTF_8);
+        // Same unknown-property handling as Spring Boot's auto-configured mapper
+        objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+    
+    @Benchmark
+    public WeatherDto databind() throws IOException {
+        return objectMapper.readValue(payload, WeatherDto.class);
+    }
+    
+    @Benchmark
+    public WeatherDto streaming() throws IOException {
+        return OneCallDecoder.decode(payload);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OneCallDecodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+    
+    private static String samplePayload(boolean includeHourly) {
+        StringBuilder json = new StringBuilder(64 * 1024);
+        json.append("{\"lat\":41.3111,\"lon\":69.2797,\"timezone\":\"Asia/Tashkent\",\"timezone_offset\":18000,");
+        json.append("\"current\":{\"dt\":1718000000,\"sunrise\":1717977000,\"sunset\":1718031000,\"temp\":36.4,")
+                .append("\"feels_like\":35.1,\"pressure\":1008,\"humidity\":18,\"dew_point\":8.2,\"uvi\":9.3,")
+                .append("\"clouds\":0,\"visibility\":10000,\"wind_speed\":3.6,\"wind_deg\":320,\"wind_gust\":6.1,")
+                .append("\"rain\":{\"1h\":0.2},")
+                .append(condition()).append("},");
+        if (includeHourly) {
+            json.append("\"hourly\":[");
+            for (int i = 0; i < 48; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"dt\":").append(1718000000L + i * 3600L)
+                        .append(",\"temp\":").append(30.0 + i % 8)
+                        .append(",\"feels_like\":31.2,\"pressure\":1008,\"humidity\":21,\"dew_point\":7.9,")
+                        .append("\"uvi\":5.1,\"clouds\":12,\"visibility\":10000,\"wind_speed\":3.1,\"wind_deg\":300,")
+                        .append("\"wind_gust\":5.2,\"pop\":0.1,").append(condition()).append('}');
+            }
+            json.append("],");
+        }
+        json.append("\"daily\":[");
+        for (int i = 0; i < 8; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"dt\":").append(1718000000L + i * 86400L)
+                    .append(",\"sunrise\":1717977000,\"sunset\":1718031000,\"moonrise\":1717990000,")
+                    .append("\"moonset\":1718040000,\"moon_phase\":0.12,\"summary\":\"Expect a day of clear sky\",")
+                    .append("\"temp\":{\"day\":").append(34.0 + i).append(",\"min\":22.1,\"max\":").append(37.0 + i)
+                    .append(",\"night\":25.3,\"eve\":33.0,\"morn\":24.0},")
+                    .append("\"feels_like\":{\"day\":33.1,\"night\":24.9,\"eve\":32.2,\"morn\":23.8},")
+                    .append("\"pressure\":1007,\"humidity\":").append(20 + i)
+                    .append(",\"dew_point\":7.5,\"wind_speed\":4.2,\"wind_deg\":310,\"wind_gust\":7.8,")
+                    .append(condition()).append(",\"clouds\":3,\"pop\":0.2,\"rain\":").append(i % 3 == 0 ? "1.4" : "0")
+                    .append(",\"uvi\":9.8}");
+        }
+        json.append("],");
+        json.append("\"alerts\":[{\"sender_name\":\"Uzhydromet\",\"event\":\"Extreme heat\",\"start\":1718000000,")
+                .append("\"end\":1718086400,\"description\":\"Air temperature up to 42 degrees expected.\",")
+                .append("\"tags\":[\"Extreme temperature value\"]}]}");
+        return json.toString();
+    }
+    
+    private static String condition() {
+        return "\"weather\":[{\"id\":800,\"main\":\"Clear\",\"description\":\"clear sky\",\"icon\":\"01d\"}]";
+    }
+}
@@ -0,0 +1,184 @@
+package com.hackathon.agriculture_backend.benchmark;
+
+import com.hackathon.agriculture_backend.dto.RecommendationResult;
+import com.hackathon.agriculture_backend.util.RecommendationScorer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores a million synthetic inputs three ways: the previous eager path (boxed inputs,
+ * explanation built with String.format for every call), the lazy RecommendationResult
+ * without rendering the explanation, and the bare primitive scorer.
+ * Scores are reported per input. Run main() to include gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class RecommendationScoringBenchmark {
+    
+    private static final int INPUTS = 1_000_000;
+    
+    private double[] tempC;
+    private double[] humidity;
+    private double[] rainfall;
+    private double[] forecastRain;
+    private double[] et0;
+    private double[] etThreshold;
+    private double[] waterDemand;
+    
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        tempC = new double[INPUTS];
+        humidity = new double[INPUTS];
+        rainfall = new double[INPUTS];
+        forecastRain = new double[INPUTS];
+        et0 = new double[INPUTS];
+        etThreshold = new double[INPUTS];
+        waterDemand = new double[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            tempC[i] = random.nextDouble(5.0, 46.0);
+            humidity[i] = random.nextDouble(5.0, 95.0);
+            rainfall[i] = random.nextInt(4) == 0 ? random.nextDouble(0.0, 15.0) : 0.0;
+            forecastRain[i] = random.nextInt(3) == 0 ? random.nextDouble(0.0, 10.0) : 0.0;
+            et0[i] = random.nextDouble(0.5, 10.0);
+            etThreshold[i] = random.nextDouble(3.5, 6.0);
+            waterDemand[i] = random.nextDouble(3000.0, 8000.0);
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void eagerExplanation(Blackhole blackhole) {
+        for (int i = 0; i < INPUTS; i++) {
+            blackhole.consume(eagerScore(tempC[i], humidity[i], rainfall[i], forecastRain[i], et0[i],
+                    etThreshold[i], waterDemand[i]));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void lazyResult(Blackhole blackhole) {
+        for (int i = 0; i < INPUTS; i++) {
+            long packed = RecommendationScorer.score(tempC[i], humidity[i], rainfall[i], forecastRain[i], et0[i], etThreshold[i]);
+            double saved = RecommendationScorer.waterSavedLiters(RecommendationScorer.levelOf(packed), waterDemand[i], 1.0);
+            blackhole.consume(RecommendationResult.scored(packed, saved, tempC[i], humidity[i], rainfall[i], et0[i]));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public long primitiveScore() {
+        long acc = 0;
+        for (int i = 0; i < INPUTS; i++) {
+            acc += RecommendationScorer.score(tempC[i], humidity[i], rainfall[i], forecastRain[i], et0[i], etThreshold[i]);
+        }
+        return acc;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RecommendationScoringBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+    
+    /**
+     * The scoring path before the primitive core, kept as the baseline.
+     */
+    private static RecommendationResult eagerScore(Double tempC, Double humidity, Double rainfall, Double forecastRain,
+                                                   Double et0, Double etThreshold, Double waterDemand) {
+        int score = 0;
+        StringBuilder explanation = new StringBuilder();
+        
+        if (tempC > 40) {
+            score += 3;
+            explanation.append("Extreme temperature (").append(String.format("%.1f", tempC)).append("°C) requires urgent irrigation. ");
+        } else if (tempC > 35) {
+            score += 2;
+            explanation.append("High temperature (").append(String.format("%.1f", tempC)).append("°C) requires more irrigation. ");
+        } else if (tempC > 28) {
+            score += 1;
+            explanation.append("Moderate temperature (").append(String.format("%.1f", tempC)).append("°C) needs some irrigation. ");
+        } else if (tempC < 15) {
+            score -= 1;
+            explanation.append("Cool temperature (").append(String.format("%.1f", tempC)).append("°C) reduces irrigation needs. ");
+        } else {
+            explanation.append("Optimal temperature (").append(String.format("%.1f", tempC)).append("°C) has normal irrigation needs. ");
+        }
+        
+        if (humidity < 20) {
+            score += 3;
+            explanation.append("Very low humidity (").append(String.format("%.0f", humidity)).append("%) significantly increases water demand. ");
+        } else if (humidity < 30) {
+            score += 2;
+            explanation.append("Low humidity (").append(String.format("%.0f", humidity)).append("%) increases water demand. ");
+        } else if (humidity < 50) {
+            score += 1;
+            explanation.append("Moderate humidity (").append(String.format("%.0f", humidity)).append("%) has normal water needs. ");
+        } else if (humidity > 80) {
+            score -= 1;
+            explanation.append("High humidity (").append(String.format("%.0f", humidity)).append("%) reduces water demand. ");
+        } else {
+            explanation.append("Good humidity (").append(String.format("%.0f", humidity)).append("%) has optimal water needs. ");
+        }
+        
+        Double totalRainfall = rainfall + (forecastRain != null ? forecastRain : 0.0);
+        if (totalRainfall < 1) {
+            score += 3;
+            explanation.append("No significant rainfall (").append(String.format("%.1f", rainfall)).append("mm) requires irrigation. ");
+        } else if (totalRainfall < 3) {
+            score += 2;
+            explanation.append("Light rainfall (").append(String.format("%.1f", rainfall)).append("mm) may need some irrigation. ");
+        } else if (totalRainfall < 10) {
+            score += 1;
+            explanation.append("Moderate rainfall (").append(String.format("%.1f", rainfall)).append("mm) reduces irrigation needs. ");
+        } else {
+            score -= 1;
+            explanation.append("Adequate rainfall (").append(String.format("%.1f", rainfall)).append("mm) significantly reduces irrigation needs. ");
+        }
+        
+        if (et0 > etThreshold * 1.5) {
+            score += 2;
+            explanation.append("Very high evapotranspiration (").append(String.format("%.2f", et0)).append("mm) significantly increases water loss. ");
+        } else if (et0 > etThreshold) {
+            score += 1;
+            explanation.append("High evapotranspiration (").append(String.format("%.2f", et0)).append("mm) increases water loss. ");
+        } else {
+            explanation.append("Normal evapotranspiration (").append(String.format("%.2f", et0)).append("mm) has standard water needs. ");
+        }
+        
+        String recommendation = score >= 6 ? "HIGH" : score >= 3 ? "MODERATE" : "LOW";
+        Double share = switch (recommendation) {
+            case "LOW" -> 0.3;
+            case "MODERATE" -> 0.6;
+            default -> 1.0;
+        };
+        Double waterSaved = Math.max(0.0, waterDemand - waterDemand * share);
+        
+        RecommendationResult result = new RecommendationResult(recommendation, explanation.toString());
+        result.setScore(score);
+        result.setWaterSavedLiters(waterSaved);
+        return result;
+    }
+}
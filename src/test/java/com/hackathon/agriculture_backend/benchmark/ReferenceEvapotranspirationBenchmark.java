@@ -0,0 +1,148 @@
+package com.hackathon.agriculture_backend.benchmark;
+
+import com.hackathon.agriculture_backend.util.ReferenceEvapotranspiration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ET0 series for 10,000 synthetic zones: a 7-day FAO-56 Penman-Monteith series, the same
+ * series with the Hargreaves fallback (no humidity), a 168-hour series, and the previous
+ * single-value ad hoc formula as the baseline. Scores are reported per zone.
+ * Run main() to include gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ReferenceEvapotranspirationBenchmark {
+
+    private static final int ZONES = 10_000;
+    private static final int DAYS = 7;
+    private static final int HOURS = 168;
+
+    private double[] latitude;
+    private double[] longitude;
+    private int[] dayOfYear;
+    private double[][] tMax;
+    private double[][] tMin;
+    private double[][] rhMean;
+    private double[][] windSpeed;
+    private double[][] hourlyTemp;
+    private double[][] hourlyRh;
+    private double[][] hourlyWind;
+    private double[] dailyOut;
+    private double[] hourlyOut;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        latitude = new double[ZONES];
+        longitude = new double[ZONES];
+        dayOfYear = new int[ZONES];
+        tMax = new double[ZONES][DAYS];
+        tMin = new double[ZONES][DAYS];
+        rhMean = new double[ZONES][DAYS];
+        windSpeed = new double[ZONES][DAYS];
+        hourlyTemp = new double[ZONES][HOURS];
+        hourlyRh = new double[ZONES][HOURS];
+        hourlyWind = new double[ZONES][HOURS];
+        for (int z = 0; z < ZONES; z++) {
+            latitude[z] = random.nextDouble(-60.0, 60.0);
+            longitude[z] = random.nextDouble(-180.0, 180.0);
+            dayOfYear[z] = random.nextInt(1, 366);
+            for (int d = 0; d < DAYS; d++) {
+                tMin[z][d] = random.nextDouble(0.0, 28.0);
+                tMax[z][d] = tMin[z][d] + random.nextDouble(4.0, 18.0);
+                rhMean[z][d] = random.nextDouble(10.0, 95.0);
+                windSpeed[z][d] = random.nextDouble(0.5, 6.0);
+            }
+            for (int h = 0; h < HOURS; h++) {
+                hourlyTemp[z][h] = random.nextDouble(5.0, 40.0);
+                hourlyRh[z][h] = random.nextDouble(10.0, 95.0);
+                hourlyWind[z][h] = random.nextDouble(0.5, 6.0);
+            }
+        }
+        dailyOut = new double[DAYS];
+        hourlyOut = new double[HOURS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ZONES)
+    public double penmanMonteithWeek() {
+        double acc = 0;
+        for (int z = 0; z < ZONES; z++) {
+            ReferenceEvapotranspiration.daily(latitude[z], 0, dayOfYear[z], tMax[z], tMin[z], rhMean[z], windSpeed[z],
+                    dailyOut, DAYS);
+            acc += dailyOut[DAYS - 1];
+        }
+        return acc;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ZONES)
+    public double hargreavesWeek() {
+        double acc = 0;
+        for (int z = 0; z < ZONES; z++) {
+            ReferenceEvapotranspiration.daily(latitude[z], 0, dayOfYear[z], tMax[z], tMin[z], null, null, dailyOut, DAYS);
+            acc += dailyOut[DAYS - 1];
+        }
+        return acc;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ZONES)
+    public double penmanMonteithHourlyWeek() {
+        double acc = 0;
+        for (int z = 0; z < ZONES; z++) {
+            ReferenceEvapotranspiration.hourly(latitude[z], longitude[z], 0, dayOfYear[z], 0, 10.0, hourlyTemp[z],
+                    hourlyRh[z], hourlyWind[z], null, hourlyOut, HOURS);
+            acc += hourlyOut[HOURS - 1];
+        }
+        return acc;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ZONES)
+    public double legacySingleValue() {
+        double acc = 0;
+        for (int z = 0; z < ZONES; z++) {
+            acc += legacyEvapotranspiration(tMax[z][0], rhMean[z][0], windSpeed[z][0], 5.0);
+        }
+        return acc;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReferenceEvapotranspirationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * The formula SmartIrrigationService used before the FAO-56 engine, kept as the baseline.
+     */
+    private static Double legacyEvapotranspiration(Double temperature, Double humidity, Double windSpeed, Double uvIndex) {
+        Double et0 = 0.0023 * (temperature + 17.8) * Math.sqrt(Math.max(0, temperature - 0)) *
+                (1 - humidity / 100) * (1 + windSpeed / 10);
+        et0 *= (1 + uvIndex / 20);
+        return Math.max(0.1, et0);
+    }
+}
@@ -0,0 +1,118 @@
+package com.hackathon.agriculture_backend.benchmark;
+
+import com.hackathon.agriculture_backend.dto.IrrigationPlanDto;
+import com.hackathon.agriculture_backend.util.SeasonSimulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A 180-day season for 1,000 plan variants over primitive day-major arrays, against building the
+ * same season as boxed DayPlan lists, the way the 7-day plan is built, as the baseline. Scores are
+ * reported per variant. Run main() to include gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SeasonSimulationBenchmark {
+    
+    private static final int VARIANTS = 1_000;
+    private static final int DAYS = 180;
+    private static final String[] CROPS = {"tomato", "cucumber", "lettuce", "pepper", "wheat", "corn"};
+    
+    private double[] et0;
+    private double[] rain;
+    private double[] kc;
+    private double[] totalAvailable;
+    private double[] readilyAvailable;
+    private double[] trigger;
+    private double[] litersPerMm;
+    private double[] depletion;
+    private double[] liters;
+    private double[] baseline;
+    private double[] depletionSeries;
+    
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        et0 = new double[DAYS];
+        rain = new double[DAYS];
+        for (int d = 0; d < DAYS; d++) {
+            et0[d] = random.nextDouble(2.0, 9.0);
+            rain[d] = random.nextInt(6) == 0 ? random.nextDouble(0.0, 20.0) : 0.0;
+        }
+        kc = new double[DAYS * VARIANTS];
+        totalAvailable = new double[VARIANTS];
+        readilyAvailable = new double[VARIANTS];
+        trigger = new double[VARIANTS];
+        litersPerMm = new double[VARIANTS];
+        depletion = new double[VARIANTS];
+        for (int v = 0; v < VARIANTS; v++) {
+            SeasonSimulation.kcCurve(SeasonSimulation.stages(CROPS[v % CROPS.length]), DAYS, kc, VARIANTS, v);
+            totalAvailable[v] = random.nextDouble(40.0, 300.0);
+            readilyAvailable[v] = totalAvailable[v] * random.nextDouble(0.2, 0.6);
+            trigger[v] = totalAvailable[v] * random.nextDouble(0.2, 0.8);
+            litersPerMm[v] = random.nextDouble(100.0, 10_000.0) / random.nextDouble(0.6, 0.9);
+        }
+        liters = new double[DAYS * VARIANTS];
+        baseline = new double[DAYS * VARIANTS];
+        depletionSeries = new double[DAYS * VARIANTS];
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public double arrays() {
+        Arrays.fill(depletion, 0.0);
+        SeasonSimulation.run(et0, rain, kc, totalAvailable, readilyAvailable, trigger, litersPerMm,
+                depletion, liters, baseline, depletionSeries, DAYS, VARIANTS);
+        return liters[DAYS * VARIANTS - 1];
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public double objects() {
+        LocalDate start = LocalDate.of(2026, 3, 1);
+        double acc = 0;
+        for (int v = 0; v < VARIANTS; v++) {
+            List<IrrigationPlanDto.DayPlan> days = new ArrayList<>();
+            Double saved = 0.0;
+            for (int d = 0; d < DAYS; d++) {
+                Double etc = kc[d * VARIANTS + v] * et0[d];
+                Double dayLiters = Math.max(0.0, etc - rain[d]) * litersPerMm[v];
+                saved += etc * litersPerMm[v] - dayLiters;
+                days.add(new IrrigationPlanDto.DayPlan(start.plusDays(d), etc, dayLiters, null, null, null, saved, null));
+            }
+            acc += days.get(DAYS - 1).getWaterSavedLiters();
+        }
+        return acc;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SeasonSimulationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
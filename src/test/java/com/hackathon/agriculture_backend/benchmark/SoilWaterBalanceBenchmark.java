@@ -0,0 +1,129 @@
+package com.hackathon.agriculture_backend.benchmark;
+
+import com.hackathon.agriculture_backend.util.SoilWaterBalance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One nightly soil water balance step for a page of 5,000 fields over primitive arrays,
+ * against the same step over per-field objects as the baseline. Scores are reported per field.
+ * Run main() to include gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SoilWaterBalanceBenchmark {
+    
+    private static final int FIELDS = 5_000;
+    
+    private double[] depletion;
+    private double[] totalAvailable;
+    private double[] readilyAvailable;
+    private double[] kc;
+    private double[] et0;
+    private double[] rain;
+    private double[] irrigation;
+    private double[] etc;
+    private double[] percolation;
+    private Field[] fields;
+    
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        depletion = new double[FIELDS];
+        totalAvailable = new double[FIELDS];
+        readilyAvailable = new double[FIELDS];
+        kc = new double[FIELDS];
+        et0 = new double[FIELDS];
+        rain = new double[FIELDS];
+        irrigation = new double[FIELDS];
+        etc = new double[FIELDS];
+        percolation = new double[FIELDS];
+        fields = new Field[FIELDS];
+        for (int i = 0; i < FIELDS; i++) {
+            totalAvailable[i] = random.nextDouble(40.0, 300.0);
+            readilyAvailable[i] = totalAvailable[i] * random.nextDouble(0.2, 0.6);
+            depletion[i] = random.nextDouble(0.0, totalAvailable[i]);
+            kc[i] = random.nextDouble(0.4, 1.2);
+            et0[i] = random.nextDouble(1.0, 9.0);
+            rain[i] = random.nextInt(4) == 0 ? random.nextDouble(0.0, 30.0) : 0.0;
+            irrigation[i] = random.nextInt(3) == 0 ? random.nextDouble(5.0, 40.0) : 0.0;
+            fields[i] = new Field(depletion[i], totalAvailable[i], readilyAvailable[i], kc[i]);
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(FIELDS)
+    public double arrays() {
+        SoilWaterBalance.advance(depletion, totalAvailable, readilyAvailable, kc, et0, rain, irrigation,
+                etc, percolation, FIELDS);
+        return depletion[FIELDS - 1];
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(FIELDS)
+    public double objects() {
+        double acc = 0;
+        for (int i = 0; i < FIELDS; i++) {
+            acc += fields[i].advance(et0[i], rain[i], irrigation[i]);
+        }
+        return acc;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SoilWaterBalanceBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+    
+    /**
+     * A field as an object with boxed state, advanced with branches, as the baseline.
+     */
+    private static final class Field {
+        Double depletion;
+        final Double totalAvailable;
+        final Double readilyAvailable;
+        final Double kc;
+        
+        Field(double depletion, double totalAvailable, double readilyAvailable, double kc) {
+            this.depletion = depletion;
+            this.totalAvailable = totalAvailable;
+            this.readilyAvailable = readilyAvailable;
+            this.kc = kc;
+        }
+        
+        Double advance(double et0, double rain, double irrigation) {
+            Double ks = depletion <= readilyAvailable ? 1.0 : (totalAvailable - depletion) / (totalAvailable - readilyAvailable);
+            Double etc = ks * kc * et0;
+            Double next = depletion - rain - irrigation + etc;
+            if (next < 0) {
+                depletion = 0.0;
+            } else if (next > totalAvailable) {
+                depletion = totalAvailable;
+            } else {
+                depletion = next;
+            }
+            return etc;
+        }
+    }
+}
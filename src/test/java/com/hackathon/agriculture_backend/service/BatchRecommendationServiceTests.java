@@ -0,0 +1,41 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.BatchRecommendationItemDto;
+import com.hackathon.agriculture_backend.dto.BatchRecommendationRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BatchRecommendationServiceTests {
+    
+    @Autowired
+    private BatchRecommendationService batchRecommendationService;
+    
+    @Test
+    void failingScenarioYieldsAnErrorItemAndTheOthersAreStillScored() {
+        BatchRecommendationRequestDto request = new BatchRecommendationRequestDto();
+        request.setScenarios(List.of(
+                new BatchRecommendationRequestDto.Scenario("hot", "tomato", "Doha", 42.0, 15.0, 0.0, 0.0, 9.0),
+                // Bypasses request validation; scoring fails on the missing temperature
+                new BatchRecommendationRequestDto.Scenario("broken", "tomato", "Doha", null, 15.0, 0.0, 0.0, 9.0),
+                new BatchRecommendationRequestDto.Scenario("mild", "lettuce", "Doha", 22.0, 60.0, 12.0, 0.0, 2.0)));
+        
+        List<BatchRecommendationItemDto> items = batchRecommendationService.score(request).collectList().block();
+        
+        assertNotNull(items);
+        assertEquals(List.of("hot", "broken", "mild"), items.stream().map(BatchRecommendationItemDto::getRef).toList());
+        assertNull(items.get(0).getError());
+        assertEquals("HIGH", items.get(0).getRecommendation());
+        assertTrue(items.get(1).getError().startsWith("Scoring failed"));
+        assertNull(items.get(2).getError());
+        assertNotNull(items.get(2).getRecommendation());
+    }
+}
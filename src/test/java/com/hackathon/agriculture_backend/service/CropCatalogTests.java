@@ -0,0 +1,71 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.model.Crop;
+import com.hackathon.agriculture_backend.repository.CropRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Crop catalog refresh against the database.
+ */
+@SpringBootTest
+class CropCatalogTests {
+    
+    @Autowired
+    private CropCatalog cropCatalog;
+    
+    @Autowired
+    private CropRepository cropRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${app.crops.catalog.reload-every-checks}")
+    private int reloadEveryChecks;
+    
+    @Test
+    void newCropIsPersistedAndPickedUpOnTheNextCheck() {
+        cropCatalog.reload();
+        Crop crop = new Crop();
+        crop.setName("Okra");
+        crop.setWaterDemandLitersPerHectare(4200.0);
+        crop.setEtThreshold(5.5);
+        
+        // Persisted, not merged: save returns the same instance with its timestamp set
+        Crop saved = cropRepository.save(crop);
+        assertSame(crop, saved);
+        assertNotNull(saved.getUpdatedAt());
+        
+        assertFalse(cropCatalog.contains("okra"));
+        cropCatalog.refreshIfChanged();
+        assertTrue(cropCatalog.contains("okra"));
+        assertEquals(4200.0, cropCatalog.resolve(" OKRA ").getWaterDemandLitersPerHectare());
+    }
+    
+    @Test
+    void editMadeOutsideJpaIsPickedUpByThePeriodicReload() {
+        Crop crop = new Crop();
+        crop.setName("Sorghum");
+        crop.setWaterDemandLitersPerHectare(3500.0);
+        crop.setEtThreshold(6.0);
+        cropRepository.save(crop);
+        cropCatalog.reload();
+        
+        // Leaves count, max id and updated_at as they were, so no check sees a changed fingerprint
+        jdbcTemplate.update("UPDATE crops SET et_threshold = 7.5 WHERE name = 'Sorghum'");
+        assertEquals(6.0, cropCatalog.resolve("sorghum").getEtThreshold());
+        for (int check = 0; check < reloadEveryChecks; check++) {
+            cropCatalog.refreshIfChanged();
+        }
+        assertEquals(7.5, cropCatalog.resolve("sorghum").getEtThreshold());
+    }
+}
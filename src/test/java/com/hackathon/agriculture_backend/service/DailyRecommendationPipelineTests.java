@@ -0,0 +1,167 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.RecommendationResponseDto;
+import com.hackathon.agriculture_backend.dto.RegionalEt0Dto;
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import com.hackathon.agriculture_backend.model.AlertLog;
+import com.hackathon.agriculture_backend.model.Farmer;
+import com.hackathon.agriculture_backend.model.FarmerZone;
+import com.hackathon.agriculture_backend.repository.FarmerRepository;
+import com.hackathon.agriculture_backend.repository.FarmerZoneRepository;
+import com.hackathon.agriculture_backend.util.NasaPowerGrid;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Daily pipeline against the database, with weather, NASA ET0 and alert delivery stubbed.
+ */
+@SpringBootTest
+class DailyRecommendationPipelineTests {
+    
+    private static final LocalDate DATE = LocalDate.of(2026, 6, 1);
+    
+    @Autowired
+    private DailyRecommendationPipeline pipeline;
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
+    @Autowired
+    private FarmerRepository farmerRepository;
+    
+    @Autowired
+    private FarmerZoneRepository farmerZoneRepository;
+    
+    @MockBean
+    private WeatherService weatherService;
+    
+    @MockBean
+    private RegionalEt0Service regionalEt0Service;
+    
+    @MockBean
+    private AlertService alertService;
+    
+    @MockBean
+    private NasaService nasaService;
+    
+    @Test
+    void zonePageReturnsTheRowsWrittenForThatZone() {
+        Farmer farmer = farmerRepository.save(farmer("+97450000021"));
+        FarmerZone north = farmerZoneRepository.save(zone(farmer, "North field", 25.31, 51.50));
+        FarmerZone south = farmerZoneRepository.save(zone(farmer, "South field", 25.26, 51.45));
+        
+        when(weatherService.getCurrentWeatherAsync(any(), any())).thenReturn(Mono.just(weather()));
+        when(regionalEt0Service.getEt0ForAllLocations(DATE)).thenReturn(new RegionalEt0Dto(DATE,
+                Map.of(farmer.getId(), 6.0), Map.of(north.getId(), 6.5, south.getId(), 7.0), 1,
+                Set.of(NasaPowerGrid.keyOf(25.28, 51.53)), Instant.now()));
+        when(alertService.deliverIrrigationRecommendationAlert(any(), any())).thenReturn(new AlertLog());
+        
+        DailyRecommendationPipeline.Summary summary = pipeline.run(List.of(farmer), DATE);
+        assertEquals(1, summary.getRecommended());
+        assertEquals(2, summary.getZonesRecommended());
+        assertEquals(0, summary.getFailed());
+        
+        List<RecommendationResponseDto> northPage = recommendationService.getZoneRecommendations(north.getId(),
+                null, null, null, null, null, null);
+        assertEquals(1, northPage.size());
+        assertEquals(north.getId(), northPage.get(0).getZoneId());
+        assertEquals("North field", northPage.get(0).getZoneName());
+        assertEquals(6.5, northPage.get(0).getEtc());
+        assertEquals(DATE, northPage.get(0).getDate());
+        
+        List<RecommendationResponseDto> southPage = recommendationService.getFarmerRecommendations(farmer.getId(),
+                null, south.getId(), null, null, null, null, null);
+        assertEquals(1, southPage.size());
+        assertEquals(south.getId(), southPage.get(0).getZoneId());
+        assertEquals(7.0, southPage.get(0).getEtc());
+        
+        // The farm-level row and both zone rows
+        assertEquals(3, recommendationService.getFarmerRecommendations(farmer.getId(),
+                null, null, null, null, null, null, null).size());
+        
+        // Only the farm-level recommendation is sent, and a rerun finds everything done
+        DailyRecommendationPipeline.Summary rerun = pipeline.run(List.of(farmer), DATE);
+        assertEquals(3, rerun.getSkipped());
+        assertEquals(0, rerun.getRecommended());
+        verify(alertService, times(1)).deliverIrrigationRecommendationAlert(any(), any());
+    }
+    
+    @Test
+    void locationWithoutRecentEt0IsSkippedAndOthersAreLookedUpOnce() {
+        LocalDate date = DATE.plusDays(1);
+        // Covered by the regional lookup, which found no ET0 for its cell in the fallback window
+        Farmer covered = farmerRepository.save(farmer("+97450000022"));
+        // Not part of the regional result, e.g. opted in after it was resolved
+        Farmer uncovered = farmerRepository.save(farmer("+97450000023"));
+        uncovered.setLatitude(27.10);
+        uncovered.setLongitude(49.20);
+        uncovered = farmerRepository.save(uncovered);
+        long uncoveredCell = NasaPowerGrid.keyOf(27.10, 49.20);
+        
+        when(weatherService.getCurrentWeatherAsync(any(), any())).thenReturn(Mono.just(weather()));
+        when(regionalEt0Service.getEt0ForAllLocations(date)).thenReturn(new RegionalEt0Dto(date,
+                Map.of(), Map.of(), 1, Set.of(NasaPowerGrid.keyOf(25.28, 51.53)), Instant.now()));
+        when(nasaService.getLatestEvapotranspirationForCellsAsync(any(), eq(date)))
+                .thenReturn(Mono.just(Map.of(uncoveredCell, 5.5)));
+        when(alertService.deliverIrrigationRecommendationAlert(any(), any())).thenReturn(new AlertLog());
+        
+        DailyRecommendationPipeline.Summary summary = pipeline.run(List.of(covered, uncovered), date);
+        assertEquals(1, summary.getRecommended());
+        assertEquals(1, summary.getFailed());
+        
+        assertTrue(recommendationService.getRecommendationForFarmerAndDate(covered.getId(), date).isEmpty());
+        assertEquals(5.5, recommendationService.getRecommendationForFarmerAndDate(uncovered.getId(), date)
+                .orElseThrow().getEvapotranspiration());
+        // No per-location NASA requests: one lookup for the uncovered cell, none for the covered one
+        verify(nasaService, times(1)).getLatestEvapotranspirationForCellsAsync(eq(Set.of(uncoveredCell)), eq(date));
+        verify(nasaService, never()).getEvapotranspirationAsync(any(), any(), any());
+    }
+    
+    private static Farmer farmer(String phone) {
+        Farmer farmer = new Farmer();
+        farmer.setName("Zone Test Farmer");
+        farmer.setPhone(phone);
+        farmer.setLocationName("Doha");
+        farmer.setLatitude(25.28);
+        farmer.setLongitude(51.53);
+        farmer.setPreferredCrop("tomato");
+        return farmer;
+    }
+    
+    private static FarmerZone zone(Farmer farmer, String name, double latitude, double longitude) {
+        FarmerZone zone = new FarmerZone();
+        zone.setFarmer(farmer);
+        zone.setName(name);
+        zone.setLatitude(latitude);
+        zone.setLongitude(longitude);
+        return zone;
+    }
+    
+    private static WeatherDto weather() {
+        WeatherDto weather = new WeatherDto();
+        weather.setTempC(31.0);
+        weather.setHumidity(40.0);
+        weather.setRainfallMm(0.0);
+        weather.setForecastRainfallMm(0.0);
+        weather.setHeatAlert(false);
+        return weather;
+    }
+}
@@ -0,0 +1,100 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.RecommendationReplayReportDto;
+import com.hackathon.agriculture_backend.dto.RecommendationReplayRequestDto;
+import com.hackathon.agriculture_backend.dto.RecommendationResult;
+import com.hackathon.agriculture_backend.model.Farmer;
+import com.hackathon.agriculture_backend.model.IrrigationRecommendation;
+import com.hackathon.agriculture_backend.model.RecommendationReplayJob;
+import com.hackathon.agriculture_backend.repository.FarmerRepository;
+import com.hackathon.agriculture_backend.repository.IrrigationRecommendationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@SpringBootTest
+class RecommendationReplayServiceTests {
+    
+    private static final LocalDate DATE = LocalDate.of(2026, 7, 1);
+    
+    @Autowired
+    private RecommendationReplayService replayService;
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
+    @Autowired
+    private FarmerRepository farmerRepository;
+    
+    @Autowired
+    private IrrigationRecommendationRepository recommendationRepository;
+    
+    @Test
+    void upsertKeepsTheForecastAndLeavesRowsWithoutItAsStored() throws InterruptedException {
+        Farmer farmer = farmerRepository.save(farmer());
+        RecommendationResult dry = recommendationService.calculateRecommendation(farmer, 38.0, 25.0, 0.0, 0.0, 7.0);
+        RecommendationResult wet = recommendationService.calculateRecommendation(farmer, 38.0, 25.0, 0.0, 25.0, 7.0);
+        assertNotEquals(dry.getRecommendation(), wet.getRecommendation());
+        
+        IrrigationRecommendation withForecast = recommendationService.buildRecommendation(farmer, null, DATE, "tomato",
+                "Doha", 38.0, 25.0, 0.0, 25.0, 7.0, wet);
+        // Saved before the forecast was stored
+        IrrigationRecommendation withoutForecast = recommendationService.buildRecommendation(farmer, null, DATE.plusDays(1),
+                "tomato", "Doha", 38.0, 25.0, 0.0, null, 7.0, wet);
+        withoutForecast.setForecastRainfallMm(null);
+        recommendationService.saveRecommendations(List.of(withForecast, withoutForecast));
+        
+        RecommendationReplayReportDto diff = replay(farmer, RecommendationReplayJob.Mode.DIFF);
+        assertEquals(2, diff.getProcessed());
+        assertEquals(1, diff.getChanged());
+        assertEquals(1, diff.getWithoutForecast());
+        
+        RecommendationReplayReportDto upsert = replay(farmer, RecommendationReplayJob.Mode.UPSERT);
+        assertEquals(RecommendationReplayJob.Status.COMPLETED, upsert.getStatus());
+        assertEquals(0, upsert.getChanged());
+        assertEquals(1, upsert.getWithoutForecast());
+        assertEquals(wet.getRecommendation(),
+                recommendationRepository.findById(withForecast.getId()).orElseThrow().getRecommendation());
+        assertEquals(wet.getRecommendation(),
+                recommendationRepository.findById(withoutForecast.getId()).orElseThrow().getRecommendation());
+    }
+    
+    private RecommendationReplayReportDto replay(Farmer farmer, RecommendationReplayJob.Mode mode) throws InterruptedException {
+        RecommendationReplayRequestDto request = new RecommendationReplayRequestDto(
+                DATE, DATE.plusDays(1), List.of(farmer.getId()), null, mode);
+        RecommendationReplayReportDto report = null;
+        // The previous job is released just after its final state is saved
+        for (int i = 0; report == null; i++) {
+            try {
+                report = replayService.start(request);
+            } catch (IllegalStateException e) {
+                if (i == 100) {
+                    throw e;
+                }
+                Thread.sleep(50);
+            }
+        }
+        for (int i = 0; i < 100 && report.getStatus() == RecommendationReplayJob.Status.RUNNING; i++) {
+            Thread.sleep(50);
+            report = replayService.getReport(report.getJobId());
+        }
+        return report;
+    }
+    
+    private static Farmer farmer() {
+        Farmer farmer = new Farmer();
+        farmer.setName("Replay Test Farmer");
+        farmer.setPhone("+97450000031");
+        farmer.setLocationName("Doha");
+        farmer.setLatitude(25.28);
+        farmer.setLongitude(51.53);
+        farmer.setPreferredCrop("tomato");
+        return farmer;
+    }
+}
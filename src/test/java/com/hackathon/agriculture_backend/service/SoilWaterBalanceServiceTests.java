@@ -0,0 +1,56 @@
+package com.hackathon.agriculture_backend.service;
+
+import com.hackathon.agriculture_backend.dto.SoilWaterStateDto;
+import com.hackathon.agriculture_backend.model.Farmer;
+import com.hackathon.agriculture_backend.model.FarmerZone;
+import com.hackathon.agriculture_backend.repository.FarmerRepository;
+import com.hackathon.agriculture_backend.repository.FarmerZoneRepository;
+import com.hackathon.agriculture_backend.repository.SoilWaterStateRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SoilWaterBalanceServiceTests {
+    
+    @Autowired
+    private SoilWaterBalanceService soilWaterBalanceService;
+    
+    @Autowired
+    private SoilWaterStateRepository stateRepository;
+    
+    @Autowired
+    private FarmerRepository farmerRepository;
+    
+    @Autowired
+    private FarmerZoneRepository farmerZoneRepository;
+    
+    @Test
+    void zoneWithoutStateIsShownAtFieldCapacityWithoutStoringIt() {
+        Farmer farmer = new Farmer();
+        farmer.setName("Soil Test Farmer");
+        farmer.setPhone("+97450000024");
+        farmer.setLocationName("Doha");
+        farmer.setLatitude(25.28);
+        farmer.setLongitude(51.53);
+        farmer.setPreferredCrop("tomato");
+        farmer = farmerRepository.save(farmer);
+        FarmerZone zone = new FarmerZone();
+        zone.setFarmer(farmer);
+        zone.setName("East field");
+        zone.setLatitude(25.30);
+        zone.setLongitude(51.55);
+        zone = farmerZoneRepository.save(zone);
+        
+        SoilWaterStateDto state = soilWaterBalanceService.getZoneState(farmer.getId(), zone.getId());
+        assertEquals(0.0, state.getDepletionMm(), 1e-6);
+        assertTrue(stateRepository.findByZoneId(zone.getId()).isEmpty());
+        
+        // Recording irrigation is what creates the state
+        soilWaterBalanceService.recordZoneIrrigation(farmer.getId(), zone.getId(), 5.0);
+        assertTrue(stateRepository.findByZoneId(zone.getId()).isPresent());
+    }
+}
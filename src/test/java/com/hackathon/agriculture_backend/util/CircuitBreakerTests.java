@@ -0,0 +1,120 @@
+package com.hackathon.agriculture_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTests {
+    
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+    
+    @Test
+    void staysClosedBelowMinimumCallsAndOpensAtTheFailureRate() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        // 4 calls, 3 failed: not yet the minimum of 5
+        breaker.record(FAST, false);
+        breaker.record(FAST, false);
+        breaker.record(FAST, true);
+        breaker.record(FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        
+        breaker.record(FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+    
+    @Test
+    void failuresSlideOutOfTheWindow() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        record(breaker, 6, true);
+        record(breaker, 4, false);
+        // The first four failures are pushed out by the next ones, so 4 of 10 remain
+        record(breaker, 6, true);
+        record(breaker, 4, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        
+        // Replaces the oldest success: 5 of 10
+        breaker.record(FAST, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+    
+    @Test
+    void opensAtTheSlowCallRate() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        for (int i = 0; i < 4; i++) {
+            breaker.record(SLOW, true);
+        }
+        breaker.record(FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+    
+    @Test
+    void halfOpenClosesAfterTheTrialCallsSucceed() {
+        CircuitBreaker breaker = openBreaker(Duration.ZERO);
+        
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        // Only two trial calls at a time
+        assertFalse(breaker.tryAcquire());
+        
+        breaker.record(FAST, true);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.record(FAST, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+    
+    @Test
+    void halfOpenReopensOnAFailedOrSlowTrialCall() {
+        CircuitBreaker failing = openBreaker(Duration.ZERO);
+        assertTrue(failing.tryAcquire());
+        failing.record(FAST, false);
+        assertEquals(CircuitBreaker.State.OPEN, failing.getState());
+        
+        CircuitBreaker trial = openBreaker(Duration.ZERO);
+        assertTrue(trial.tryAcquire());
+        trial.record(SLOW, true);
+        assertEquals(CircuitBreaker.State.OPEN, trial.getState());
+    }
+    
+    @Test
+    void releasedTrialPermitCanBeReused() {
+        CircuitBreaker breaker = openBreaker(Duration.ZERO);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.release();
+        assertTrue(breaker.tryAcquire());
+    }
+    
+    @Test
+    void lateResultsWhileOpenAreIgnored() {
+        CircuitBreaker breaker = openBreaker(Duration.ofMinutes(1));
+        breaker.record(FAST, true);
+        breaker.record(FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+    
+    private static CircuitBreaker breaker(Duration openDuration) {
+        return new CircuitBreaker(10, 5, 50.0, 80.0, Duration.ofSeconds(1), openDuration, 2);
+    }
+    
+    private static CircuitBreaker openBreaker(Duration openDuration) {
+        CircuitBreaker breaker = breaker(openDuration);
+        record(breaker, 5, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+    
+    private static void record(CircuitBreaker breaker, int calls, boolean success) {
+        for (int i = 0; i < calls; i++) {
+            breaker.record(FAST, success);
+        }
+    }
+}
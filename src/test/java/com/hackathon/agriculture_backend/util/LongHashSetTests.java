@@ -0,0 +1,102 @@
+package com.hackathon.agriculture_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTests {
+    
+    @Test
+    void zeroIsAValueNotAFreeSlot() {
+        LongHashSet set = new LongHashSet(4);
+        assertFalse(set.contains(0L));
+        assertTrue(set.add(0L));
+        assertFalse(set.add(0L));
+        assertTrue(set.contains(0L));
+        assertEquals(1, set.size());
+        
+        assertTrue(set.add(7L));
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(7L));
+        assertEquals(2, set.size());
+    }
+    
+    @Test
+    void collidingKeysAreAllFoundAcrossGrowth() {
+        // A set sized for 4 starts with 8 slots; these keys all start probing at the same one
+        long[] colliding = collidingKeys(8, 3);
+        LongHashSet set = new LongHashSet(4);
+        for (long key : colliding) {
+            assertTrue(set.add(key));
+        }
+        for (long key : colliding) {
+            assertTrue(set.contains(key));
+            assertFalse(set.add(key));
+        }
+        assertEquals(3, set.size());
+        
+        // Crossing the load factor rehashes the probe chain into a larger table
+        for (long key = 1_000; key < 1_010; key++) {
+            set.add(key);
+        }
+        for (long key : colliding) {
+            assertTrue(set.contains(key));
+        }
+        assertEquals(13, set.size());
+    }
+    
+    @Test
+    void matchesHashSetForRandomIds() {
+        SplittableRandom random = new SplittableRandom(17);
+        LongHashSet set = new LongHashSet(16);
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            long value = random.nextInt(3) == 0 ? random.nextLong() : random.nextLong(-100, 10_000);
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long value = -200; value < 10_100; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertEquals(expected.add(Long.MIN_VALUE), set.add(Long.MIN_VALUE));
+        assertTrue(set.contains(Long.MIN_VALUE));
+    }
+    
+    @Test
+    void ofSkipsNulls() {
+        LongHashSet set = LongHashSet.of(Arrays.asList(1L, null, 2, 0L));
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(2L));
+        assertTrue(LongHashSet.of(List.of()).isEmpty());
+    }
+    
+    /**
+     * Non-zero keys whose first probe lands on the same slot of a table with the given capacity,
+     * using the same spreading as LongHashSet.
+     */
+    private static long[] collidingKeys(int capacity, int count) {
+        List<Long> keys = new ArrayList<>();
+        int target = -1;
+        for (long key = 1; keys.size() < count; key++) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            int index = (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+            if (target < 0) {
+                target = index;
+            }
+            if (index == target) {
+                keys.add(key);
+            }
+        }
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+}
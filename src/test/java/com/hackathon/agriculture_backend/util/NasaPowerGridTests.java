@@ -0,0 +1,72 @@
+package com.hackathon.agriculture_backend.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.agriculture_backend.dto.NasaRegionalDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class NasaPowerGridTests {
+    
+    @Test
+    void regionalGridPointsAreTheCentresOfTheirCells() throws IOException {
+        NasaRegionalDto region;
+        try (InputStream in = getClass().getResourceAsStream("/nasa/regional-et0-doha-20240610.json")) {
+            region = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                    .readValue(in, NasaRegionalDto.class);
+        }
+        
+        // Keyed the way NasaService keys regional features
+        Map<Long, Double> et0ByCell = new HashMap<>();
+        for (NasaRegionalDto.Feature feature : region.getFeatures()) {
+            List<Double> coordinates = feature.getGeometry().getCoordinates();
+            long cell = NasaPowerGrid.keyOf(coordinates.get(1), coordinates.get(0));
+            assertEquals(coordinates.get(1), NasaPowerGrid.centerLatitude(NasaPowerGrid.rowOf(cell)), 1e-9);
+            assertEquals(coordinates.get(0), NasaPowerGrid.centerLongitude(NasaPowerGrid.colOf(cell)), 1e-9);
+            et0ByCell.put(cell, feature.getProperties().getParameter().get("ET0").get("20240610"));
+        }
+        assertEquals(region.getFeatures().size(), et0ByCell.size());
+        
+        // Just south of the 25.0 point: that point's value, not the 24.5 point's
+        assertEquals(valueAt(region, 25.0, 51.25), et0ByCell.get(NasaPowerGrid.keyOf(24.85, 51.40)));
+        assertEquals(valueAt(region, 25.0, 51.25), et0ByCell.get(NasaPowerGrid.keyOf(25.24, 51.53)));
+        assertEquals(valueAt(region, 25.5, 51.875), et0ByCell.get(NasaPowerGrid.keyOf(25.26, 51.57)));
+    }
+    
+    @Test
+    void cellsReachHalfAStepAroundTheirPoint() {
+        assertEquals(NasaPowerGrid.row(25.0), NasaPowerGrid.row(24.76));
+        assertEquals(NasaPowerGrid.row(25.0), NasaPowerGrid.row(25.24));
+        assertNotEquals(NasaPowerGrid.row(25.0), NasaPowerGrid.row(25.26));
+        assertEquals(NasaPowerGrid.col(51.25), NasaPowerGrid.col(50.95));
+        assertEquals(NasaPowerGrid.col(51.25), NasaPowerGrid.col(51.55));
+        assertNotEquals(NasaPowerGrid.col(51.25), NasaPowerGrid.col(51.57));
+    }
+    
+    @Test
+    void polesAndTheAntimeridianHaveTheirOwnPoints() {
+        assertEquals(-90.0, NasaPowerGrid.centerLatitude(NasaPowerGrid.row(-90.0)));
+        assertEquals(90.0, NasaPowerGrid.centerLatitude(NasaPowerGrid.row(90.0)));
+        assertEquals(NasaPowerGrid.col(-180.0), NasaPowerGrid.col(180.0));
+        assertEquals(NasaPowerGrid.col(-180.0), NasaPowerGrid.col(179.8));
+        assertEquals(-180.0, NasaPowerGrid.centerLongitude(NasaPowerGrid.col(179.8)));
+    }
+    
+    private static Double valueAt(NasaRegionalDto region, double latitude, double longitude) {
+        for (NasaRegionalDto.Feature feature : region.getFeatures()) {
+            List<Double> coordinates = feature.getGeometry().getCoordinates();
+            if (coordinates.get(1) == latitude && coordinates.get(0) == longitude) {
+                return feature.getProperties().getParameter().get("ET0").get("20240610");
+            }
+        }
+        throw new IllegalArgumentException("No grid point at " + latitude + ", " + longitude);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hackathon.agriculture_backend.util;
+
+import com.hackathon.agriculture_backend.dto.WeatherDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OneCallDecoderTests {
+    
+    @Test
+    void decodesTheFieldsInUseFromAOneCallPayload() throws IOException {
+        WeatherDto weather;
+        try (InputStream in = getClass().getResourceAsStream("/onecall/doha-2024-06-10.json")) {
+            weather = OneCallDecoder.decode(in);
+        }
+        
+        WeatherDto.CurrentWeather current = weather.getCurrent();
+        assertEquals(41.3, current.getTemp());
+        assertEquals(22.0, current.getHumidity());
+        assertEquals(11.48, current.getUvi());
+        assertEquals(5.66, current.getWindSpeed());
+        assertNull(current.getRain());
+        assertNull(current.getSnow());
+        assertEquals("clear sky", current.getWeather().get(0).getDescription());
+        
+        assertEquals(2, weather.getDaily().size());
+        WeatherDto.DailyWeather today = weather.getDaily().get(0);
+        assertEquals(1718006400L, today.getDt());
+        assertEquals(31.6, today.getTemp().getMin());
+        assertEquals(43.2, today.getTemp().getMax());
+        assertEquals(6.83, today.getWindSpeed());
+        assertNull(today.getRain());
+        WeatherDto.DailyWeather tomorrow = weather.getDaily().get(1);
+        assertEquals(0.62, tomorrow.getRain());
+        // Only the first condition is kept
+        assertEquals(1, tomorrow.getWeather().size());
+        assertEquals("Rain", tomorrow.getWeather().get(0).getMain());
+        
+        assertEquals(1, weather.getAlerts().size());
+        WeatherDto.WeatherAlert alert = weather.getAlerts().get(0);
+        assertEquals("Qatar Meteorology Department", alert.getSenderName());
+        assertEquals("Extreme heat", alert.getEvent());
+        assertEquals(1718053200L, alert.getEnd());
+        assertEquals(1, alert.getTags().size());
+    }
+    
+    @Test
+    void readsRainAndSnowAsOneHourAmounts() throws IOException {
+        WeatherDto weather = decode("{\"current\":{\"temp\":3,\"rain\":{\"1h\":0.4,\"3h\":1.1},\"snow\":{\"1h\":2.5}},"
+                + "\"daily\":null}");
+        assertEquals(0.4, weather.getCurrent().getRain().getOneHour());
+        assertEquals(2.5, weather.getCurrent().getSnow());
+        assertNull(weather.getDaily());
+    }
+    
+    @Test
+    void rejectsAPayloadThatIsNotAnObject() {
+        assertThrows(IOException.class, () -> decode("[{\"current\":{}}]"));
+    }
+    
+    private static WeatherDto decode(String json) throws IOException {
+        return OneCallDecoder.decode(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
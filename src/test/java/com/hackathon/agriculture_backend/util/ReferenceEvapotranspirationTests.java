@@ -0,0 +1,52 @@
+package com.hackathon.agriculture_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Worked examples from FAO Irrigation and Drainage Paper 56.
+ */
+class ReferenceEvapotranspirationTests {
+    
+    // 3 September
+    private static final int SEPTEMBER_3 = 246;
+    // 1 October
+    private static final int OCTOBER_1 = 274;
+    
+    @Test
+    void extraterrestrialRadiationAt20SouthOn3September() {
+        // Example 8
+        assertEquals(32.2, ReferenceEvapotranspiration.extraterrestrialRadiation(-20.0, SEPTEMBER_3), 0.05);
+    }
+    
+    @Test
+    void daylightHoursAt20SouthOn3September() {
+        // Example 9
+        assertEquals(11.7, ReferenceEvapotranspiration.daylightHours(-20.0, SEPTEMBER_3), 0.05);
+    }
+    
+    @Test
+    void windSpeedMeasuredAt10m() {
+        // Example 14
+        assertEquals(2.4, ReferenceEvapotranspiration.windSpeedAt2m(3.2, 10.0), 0.05);
+    }
+    
+    @Test
+    void hourlyEt0AtNDiayeOn1October() {
+        // Example 19: 16°13'N 16°15'W, 8 m, 14:00-15:00 local time (UTC) with measured radiation
+        double[] et0 = new double[1];
+        ReferenceEvapotranspiration.hourly(16.22, -16.25, 8.0, OCTOBER_1, 14, Double.NaN,
+                new double[] {38.0}, new double[] {52.0}, new double[] {3.3}, new double[] {2.450}, et0, 1);
+        assertEquals(0.63, et0[0], 0.01);
+    }
+    
+    @Test
+    void hourlyEt0AtNightWithoutRadiationIsZero() {
+        // Example 19: 02:00-03:00 local time
+        double[] et0 = new double[1];
+        ReferenceEvapotranspiration.hourly(16.22, -16.25, 8.0, OCTOBER_1, 2, Double.NaN,
+                new double[] {28.0}, new double[] {90.0}, new double[] {1.9}, new double[] {0.0}, et0, 1);
+        assertEquals(0.0, et0[0], 0.01);
+    }
+}
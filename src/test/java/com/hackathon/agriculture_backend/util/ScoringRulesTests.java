@@ -0,0 +1,41 @@
+package com.hackathon.agriculture_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScoringRulesTests {
+    
+    @Test
+    void largestPossibleScoreSurvivesPacking() {
+        // 40 + 40 + 40 + 7 = 127, the most a signed byte holds
+        ScoringRules rules = ScoringRules.DEFAULTS.with(Map.of(
+                "points.temp-extreme", 40, "points.humidity-very-low", 40,
+                "points.rain-none", 40, "points.et-very-high", 7,
+                "level.high-from", 100, "level.moderate-from", 50));
+        long packed = RecommendationScorer.score(rules, 45.0, 10.0, 0.0, 0.0, 10.0, 5.0);
+        assertEquals(127, RecommendationScorer.scoreOf(packed));
+        assertEquals(RecommendationScorer.LEVEL_HIGH, RecommendationScorer.levelOf(packed));
+        
+        ScoringRules negative = ScoringRules.DEFAULTS.with(Map.of(
+                "points.temp-cool", -40, "points.humidity-high", -40,
+                "points.rain-adequate", -40, "points.et-normal", -7));
+        assertEquals(-127, RecommendationScorer.scoreOf(
+                RecommendationScorer.score(negative, 5.0, 95.0, 20.0, 0.0, 1.0, 5.0)));
+    }
+    
+    @Test
+    void pointsThatCouldOverflowTheScoreAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ScoringRules.DEFAULTS.with(Map.of(
+                "points.temp-extreme", 40, "points.humidity-very-low", 40,
+                "points.rain-none", 40, "points.et-very-high", 8)));
+        // Negative points count by their magnitude
+        assertThrows(IllegalArgumentException.class, () -> ScoringRules.DEFAULTS.with(Map.of(
+                "points.temp-cool", -100, "points.rain-none", 30)));
+        assertThrows(IllegalArgumentException.class, () -> ScoringRules.DEFAULTS.with(Map.of(
+                "points.et-normal", Integer.MIN_VALUE)));
+    }
+}
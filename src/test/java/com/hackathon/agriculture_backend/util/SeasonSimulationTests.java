@@ -0,0 +1,84 @@
+package com.hackathon.agriculture_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeasonSimulationTests {
+    
+    @Test
+    void kcCurveFollowsTheCropStages() {
+        // Tomato over 100 days: initial to day 22, development to 52, mid-season to 82
+        double[] kc = new double[100];
+        SeasonSimulation.kcCurve(SeasonSimulation.stages("tomato"), 100, kc, 1, 0);
+        assertEquals(0.60, kc[0], 1e-9);
+        assertEquals(0.60, kc[21], 1e-9);
+        assertEquals(0.875, kc[37], 1e-9);
+        assertEquals(1.15, kc[52], 1e-9);
+        assertEquals(1.15, kc[81], 1e-9);
+        assertEquals(1.15 - 0.35 * 17 / 18, kc[99], 1e-9);
+    }
+    
+    @Test
+    void kcCurveWritesItsOwnColumn() {
+        double[] kc = new double[3 * 2];
+        Arrays.fill(kc, -1.0);
+        SeasonSimulation.kcCurve(SeasonSimulation.stages("rice"), 3, kc, 2, 1);
+        assertEquals(-1.0, kc[0]);
+        assertEquals(-1.0, kc[2]);
+        assertEquals(-1.0, kc[4]);
+        assertEquals(1.05, kc[1], 1e-9);
+    }
+    
+    @Test
+    void variantIsRefilledToFieldCapacityOnTheDayItReachesItsTrigger() {
+        // Two variants with the same soil and crop; the second starts 18 mm below field capacity
+        int days = 5;
+        int variants = 2;
+        double[] kc = new double[days * variants];
+        Arrays.fill(kc, 1.0);
+        double[] depletion = {0.0, 18.0};
+        double[] liters = new double[days * variants];
+        double[] baseline = new double[days * variants];
+        double[] depletionSeries = new double[days * variants];
+        
+        SeasonSimulation.run(new double[] {5, 5, 5, 5, 5}, new double[days], kc,
+                new double[] {100, 100}, new double[] {50, 50}, new double[] {20, 20}, new double[] {10, 10},
+                depletion, liters, baseline, depletionSeries, days, variants);
+        
+        assertArrayEquals(new double[] {5, 10, 15, 0, 5}, column(depletionSeries, days, variants, 0), 1e-9);
+        assertArrayEquals(new double[] {0, 0, 0, 200, 0}, column(liters, days, variants, 0), 1e-9);
+        assertArrayEquals(new double[] {0, 5, 10, 15, 0}, column(depletionSeries, days, variants, 1), 1e-9);
+        assertArrayEquals(new double[] {230, 0, 0, 0, 200}, column(liters, days, variants, 1), 1e-9);
+        // The baseline replaces each day's crop ET regardless of the soil
+        assertArrayEquals(new double[] {50, 50, 50, 50, 50}, column(baseline, days, variants, 0), 1e-9);
+        assertArrayEquals(new double[] {5, 0}, depletion, 1e-9);
+    }
+    
+    @Test
+    void rainBeyondCropEtNeedsNoWater() {
+        double[] depletion = {10.0};
+        double[] liters = new double[1];
+        double[] baseline = new double[1];
+        double[] depletionSeries = new double[1];
+        
+        SeasonSimulation.run(new double[] {5}, new double[] {30}, new double[] {1.0},
+                new double[] {100}, new double[] {50}, new double[] {20}, new double[] {10},
+                depletion, liters, baseline, depletionSeries, 1, 1);
+        
+        assertEquals(0.0, depletion[0]);
+        assertEquals(0.0, liters[0]);
+        assertEquals(0.0, baseline[0]);
+    }
+    
+    private static double[] column(double[] series, int days, int variants, int variant) {
+        double[] column = new double[days];
+        for (int d = 0; d < days; d++) {
+            column[d] = series[d * variants + variant];
+        }
+        return column;
+    }
+}
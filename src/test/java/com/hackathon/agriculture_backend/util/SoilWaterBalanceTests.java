@@ -0,0 +1,87 @@
+package com.hackathon.agriculture_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SoilWaterBalanceTests {
+    
+    private static final double TAW = 100.0;
+    private static final double RAW = 40.0;
+    private static final double KC = 1.2;
+    private static final double ET0 = 5.0;
+    
+    @Test
+    void noStressUpToReadilyAvailableWater() {
+        Day day = advance(RAW, ET0, 0.0, 0.0);
+        assertEquals(KC * ET0, day.etc, 1e-9);
+        assertEquals(RAW + KC * ET0, day.depletion, 1e-9);
+        assertEquals(0.0, day.percolation);
+    }
+    
+    @Test
+    void stressHalvesEtMidwayBetweenReadilyAndTotalAvailableWater() {
+        Day day = advance((RAW + TAW) / 2, ET0, 0.0, 0.0);
+        assertEquals(0.5 * KC * ET0, day.etc, 1e-9);
+    }
+    
+    @Test
+    void noEtAtTotalAvailableWater() {
+        Day day = advance(TAW, ET0, 0.0, 0.0);
+        assertEquals(0.0, day.etc, 1e-9);
+        assertEquals(TAW, day.depletion, 1e-9);
+    }
+    
+    @Test
+    void depletionAboveASmallerTotalAvailableWaterIsCapped() {
+        // A state carried over from a deeper-rooted crop or a different soil
+        Day day = advance(TAW + 20.0, ET0, 0.0, 0.0);
+        assertEquals(0.0, day.etc, 1e-9);
+        assertEquals(TAW, day.depletion, 1e-9);
+    }
+    
+    @Test
+    void rainBeyondFieldCapacityPercolates() {
+        Day day = advance(10.0, ET0, 25.0, 0.0);
+        assertEquals(0.0, day.depletion);
+        assertEquals(25.0 - 10.0 - KC * ET0, day.percolation, 1e-9);
+    }
+    
+    @Test
+    void irrigationExactlyToFieldCapacityDoesNotPercolate() {
+        Day day = advance(30.0, 0.0, 0.0, 30.0);
+        assertEquals(0.0, day.depletion, 1e-9);
+        assertEquals(0.0, day.percolation, 1e-9);
+    }
+    
+    @Test
+    void readilyEqualToTotalAvailableWaterStaysFinite() {
+        double[] depletion = {TAW};
+        double[] etc = new double[1];
+        double[] percolation = new double[1];
+        SoilWaterBalance.advance(depletion, new double[] {TAW}, new double[] {TAW}, new double[] {KC},
+                new double[] {ET0}, new double[] {0.0}, new double[] {0.0}, etc, percolation, 1);
+        assertEquals(0.0, etc[0]);
+        assertEquals(TAW, depletion[0]);
+    }
+    
+    @Test
+    void dayWithoutEtRainOrIrrigationLeavesFieldUnchanged() {
+        Day day = advance(55.0, 0.0, 0.0, 0.0);
+        assertEquals(55.0, day.depletion);
+        assertEquals(0.0, day.etc);
+        assertEquals(0.0, day.percolation);
+    }
+    
+    private static Day advance(double depletion, double et0, double rain, double irrigation) {
+        double[] dr = {depletion};
+        double[] etc = new double[1];
+        double[] percolation = new double[1];
+        SoilWaterBalance.advance(dr, new double[] {TAW}, new double[] {RAW}, new double[] {KC},
+                new double[] {et0}, new double[] {rain}, new double[] {irrigation}, etc, percolation, 1);
+        return new Day(dr[0], etc[0], percolation[0]);
+    }
+    
+    private record Day(double depletion, double etc, double percolation) {
+    }
+}